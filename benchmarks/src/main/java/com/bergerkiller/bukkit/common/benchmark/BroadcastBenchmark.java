@@ -0,0 +1,74 @@
+package com.bergerkiller.bukkit.common.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bergerkiller.bukkit.common.internal.CommonPlugin;
+import com.bergerkiller.bukkit.common.protocol.PacketFields;
+import com.bergerkiller.bukkit.common.protocol.PacketType;
+
+/**
+ * Measures sending a packet to multiple stand-in players, the path all the PacketUtil broadcast methods end up in.
+ * With shared broadcasts, the listeners are called once and the packet is encoded once for all players.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BroadcastBenchmark {
+	@Param({"1", "10", "100"})
+	public int players;
+	@Param({"0", "1"})
+	public int listeners;
+	@Param({"false", "true"})
+	public boolean shared;
+	private final AtomicLong queued = new AtomicLong();
+	private CommonPlugin plugin;
+	private List<Player> recipients;
+	private Object packet;
+
+	@Setup
+	public void setup() {
+		plugin = StandIn.getPlugin();
+		plugin.setSharingBroadcasts(shared);
+		for (int i = 0; i < listeners; i++) {
+			plugin.addPacketListener(plugin, new ReadingListener(), new int[] {PacketType.ENTITY_MOVE.getId()});
+		}
+		recipients = StandIn.createPlayers(players, queued);
+		packet = PacketFields.REL_ENTITY_MOVE.newInstance(1, (byte) 1, (byte) 2, (byte) 3);
+	}
+
+	@TearDown
+	public void tearDown() {
+		plugin.removePacketListeners(plugin);
+	}
+
+	@Benchmark
+	public long broadcast() {
+		plugin.broadcastPacket(recipients, packet, true);
+		return queued.get();
+	}
+
+	@Benchmark
+	public long broadcastSilent() {
+		plugin.broadcastPacket(recipients, packet, false);
+		return queued.get();
+	}
+}
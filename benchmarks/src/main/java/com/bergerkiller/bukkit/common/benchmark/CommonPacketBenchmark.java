@@ -0,0 +1,93 @@
+package com.bergerkiller.bukkit.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bergerkiller.bukkit.common.protocol.CommonPacket;
+import com.bergerkiller.bukkit.common.protocol.PacketFields;
+import com.bergerkiller.bukkit.common.protocol.PacketSchema;
+import com.bergerkiller.bukkit.common.protocol.PacketType;
+
+/**
+ * Measures reading and writing a byte field of a packet by name, by index, by accessor and by schema slot
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CommonPacketBenchmark {
+	private CommonPacket packet;
+	private PacketSchema schema;
+	private int index;
+	private byte value;
+
+	@Setup
+	public void setup() {
+		StandIn.getPlugin();
+		packet = new CommonPacket(PacketFields.REL_ENTITY_MOVE.newInstance(1, (byte) 1, (byte) 2, (byte) 3));
+		schema = PacketType.ENTITY_MOVE.getSchema();
+		index = PacketType.ENTITY_MOVE.getFieldIndex("b");
+	}
+
+	@Benchmark
+	public Object readByName() {
+		return packet.read("b");
+	}
+
+	@Benchmark
+	public Object readByIndex() {
+		return packet.read(index);
+	}
+
+	@Benchmark
+	public byte readByteByIndex() {
+		return packet.readByte(index);
+	}
+
+	@Benchmark
+	public Byte readByAccessor() {
+		return packet.read(PacketFields.REL_ENTITY_MOVE.dx);
+	}
+
+	@Benchmark
+	public byte readBySchema() {
+		return schema.getByte(packet.getHandle(), index);
+	}
+
+	@Benchmark
+	public void writeByName() {
+		packet.write("b", Byte.valueOf(value++));
+	}
+
+	@Benchmark
+	public void writeByIndex() {
+		packet.write(index, Byte.valueOf(value++));
+	}
+
+	@Benchmark
+	public void writeByteByIndex() {
+		packet.writeByte(index, value++);
+	}
+
+	@Benchmark
+	public void writeByAccessor() {
+		packet.write(PacketFields.REL_ENTITY_MOVE.dx, Byte.valueOf(value++));
+	}
+
+	@Benchmark
+	public void writeBySchema() {
+		schema.setByte(packet.getHandle(), index, value++);
+	}
+}
@@ -0,0 +1,73 @@
+package com.bergerkiller.bukkit.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bergerkiller.bukkit.common.internal.CommonPlugin;
+import com.bergerkiller.bukkit.common.protocol.PacketFields;
+import com.bergerkiller.bukkit.common.protocol.PacketFilter;
+import com.bergerkiller.bukkit.common.protocol.PacketType;
+
+/**
+ * Measures the cost of passing a single packet through the packet listeners.
+ * With filtered listeners, all listeners reject the packet using an entity id filter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ListenerDispatchBenchmark {
+	@Param({"0", "1", "10"})
+	public int listeners;
+	@Param({"false", "true"})
+	public boolean reuseEvents;
+	@Param({"false", "true"})
+	public boolean filtered;
+	private CommonPlugin plugin;
+	private Player player;
+	private Object packet;
+	private int id;
+
+	@Setup
+	public void setup() {
+		plugin = StandIn.getPlugin();
+		plugin.setReusingPacketEvents(reuseEvents);
+		id = PacketType.ENTITY_MOVE.getId();
+		for (int i = 0; i < listeners; i++) {
+			plugin.addPacketListener(plugin, new ReadingListener(), new int[] {id}, filtered ? PacketFilter.entityIds(2) : null);
+		}
+		player = StandIn.createPlayer("player", new AtomicLong());
+		packet = PacketFields.REL_ENTITY_MOVE.newInstance(1, (byte) 1, (byte) 2, (byte) 3);
+	}
+
+	@TearDown
+	public void tearDown() {
+		plugin.removePacketListeners(plugin);
+	}
+
+	@Benchmark
+	public boolean send() {
+		return plugin.onPacketSend(player, packet, id);
+	}
+
+	@Benchmark
+	public boolean receive() {
+		return plugin.onPacketReceive(player, packet, id);
+	}
+}
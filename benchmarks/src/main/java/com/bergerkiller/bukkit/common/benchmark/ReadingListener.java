@@ -0,0 +1,24 @@
+package com.bergerkiller.bukkit.common.benchmark;
+
+import com.bergerkiller.bukkit.common.events.PacketReceiveEvent;
+import com.bergerkiller.bukkit.common.events.PacketSendEvent;
+import com.bergerkiller.bukkit.common.protocol.GlobalPacketListener;
+import com.bergerkiller.bukkit.common.protocol.PacketFields;
+
+/**
+ * A listener that does the least amount of work a typical listener does: reading the entity id of the packet.
+ * It is a global listener, so it can also be used to measure shared broadcasts.
+ */
+public class ReadingListener implements GlobalPacketListener {
+	public volatile int sink;
+
+	@Override
+	public void onPacketReceive(PacketReceiveEvent event) {
+		sink = event.getPacket().read(PacketFields.REL_ENTITY_MOVE.entityId);
+	}
+
+	@Override
+	public void onPacketSend(PacketSendEvent event) {
+		sink = event.getPacket().read(PacketFields.REL_ENTITY_MOVE.entityId);
+	}
+}
@@ -0,0 +1,185 @@
+package com.bergerkiller.bukkit.common.benchmark;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import net.minecraft.server.v1_4_R1.EntityPlayer;
+import net.minecraft.server.v1_4_R1.INetworkManager;
+import net.minecraft.server.v1_4_R1.PlayerConnection;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.craftbukkit.v1_4_R1.entity.CraftPlayer;
+import org.bukkit.entity.Player;
+
+import com.bergerkiller.bukkit.common.internal.CommonPlugin;
+import com.bergerkiller.bukkit.common.reflection.SafeField;
+
+/**
+ * Creates the library and players without a running server.<br>
+ * A stand-in server is installed before the library is loaded, which only identifies itself.
+ * Stand-in players are allocated without calling their constructors and only have the fields set
+ * that are used when sending packets. Their network manager does not write anything,
+ * it only counts the packets queued, so all the work measured is done by the library.
+ */
+public class StandIn {
+	private static CommonPlugin plugin;
+	private static Object unsafe;
+	private static Method allocateInstance;
+
+	/**
+	 * Gets the library instance, loading it if needed.
+	 * The library is loaded but not enabled: no tasks run and no configuration is read.
+	 * 
+	 * @return library instance
+	 */
+	public static synchronized CommonPlugin getPlugin() {
+		if (plugin == null) {
+			installServer();
+			plugin = new CommonPlugin();
+			plugin.onLoad();
+		}
+		return plugin;
+	}
+
+	/**
+	 * Installs a stand-in server, which the library asks for the server version while loading.
+	 * All methods of the server return an empty value, except those identifying the server.
+	 */
+	private static void installServer() {
+		if (Bukkit.getServer() != null) {
+			return;
+		}
+		final Logger logger = Logger.getLogger("StandIn");
+		Bukkit.setServer((Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[] {Server.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				final String name = method.getName();
+				if (name.equals("getName")) {
+					return "StandIn";
+				} else if (name.equals("getVersion")) {
+					return "StandIn (MC: 1.4.7)";
+				} else if (name.equals("getBukkitVersion")) {
+					return "1.4.7-R1.0";
+				} else if (name.equals("getLogger")) {
+					return logger;
+				} else if (name.equals("equals")) {
+					return Boolean.valueOf(proxy == args[0]);
+				} else if (name.equals("hashCode")) {
+					return Integer.valueOf(System.identityHashCode(proxy));
+				} else if (name.equals("toString")) {
+					return "StandIn server";
+				}
+				final Class<?> type = method.getReturnType();
+				if (type.isArray()) {
+					return Array.newInstance(type.getComponentType(), 0);
+				} else if (type == List.class || type == Collection.class) {
+					return Collections.emptyList();
+				} else if (type == Set.class) {
+					return Collections.emptySet();
+				} else if (type == Map.class) {
+					return Collections.emptyMap();
+				}
+				return getDefault(type);
+			}
+		}));
+	}
+
+	/**
+	 * Creates stand-in players sharing a single packet counter
+	 * 
+	 * @param count of players to create
+	 * @param queued counter incremented for every packet queued to any of the players
+	 * @return stand-in players
+	 */
+	public static List<Player> createPlayers(int count, AtomicLong queued) {
+		List<Player> players = new ArrayList<Player>(count);
+		for (int i = 0; i < count; i++) {
+			players.add(createPlayer("player" + i, queued));
+		}
+		return players;
+	}
+
+	/**
+	 * Creates a stand-in player
+	 * 
+	 * @param name of the player
+	 * @param queued counter incremented for every packet queued to the player
+	 * @return stand-in player
+	 */
+	public static Player createPlayer(String name, AtomicLong queued) {
+		EntityPlayer handle = allocate(EntityPlayer.class);
+		PlayerConnection connection = allocate(PlayerConnection.class);
+		CraftPlayer player = allocate(CraftPlayer.class);
+		SafeField.set(handle, "name", name);
+		SafeField.set(handle, "playerConnection", connection);
+		SafeField.set(connection, "player", handle);
+		SafeField.set(connection, "networkManager", createNetworkManager(queued));
+		SafeField.set(player, "entity", handle);
+		return player;
+	}
+
+	private static INetworkManager createNetworkManager(final AtomicLong queued) {
+		return (INetworkManager) Proxy.newProxyInstance(INetworkManager.class.getClassLoader(), new Class<?>[] {INetworkManager.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if (method.getName().equals("queue")) {
+					queued.incrementAndGet();
+				}
+				return getDefault(method.getReturnType());
+			}
+		});
+	}
+
+	private static Object getDefault(Class<?> type) {
+		if (type == boolean.class) {
+			return Boolean.FALSE;
+		} else if (type == int.class) {
+			return Integer.valueOf(0);
+		} else if (type == long.class) {
+			return Long.valueOf(0L);
+		} else if (type == double.class) {
+			return Double.valueOf(0.0);
+		} else if (type == float.class) {
+			return Float.valueOf(0.0f);
+		} else if (type == short.class) {
+			return Short.valueOf((short) 0);
+		} else if (type == byte.class) {
+			return Byte.valueOf((byte) 0);
+		} else if (type == char.class) {
+			return Character.valueOf((char) 0);
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * Allocates an instance without calling a constructor, using the allocateInstance method of sun.misc.Unsafe
+	 */
+	@SuppressWarnings("unchecked")
+	private static synchronized <T> T allocate(Class<T> type) {
+		try {
+			if (allocateInstance == null) {
+				final Class<?> unsafeType = Class.forName("sun.misc.Unsafe");
+				final Field field = unsafeType.getDeclaredField("theUnsafe");
+				field.setAccessible(true);
+				unsafe = field.get(null);
+				allocateInstance = unsafeType.getMethod("allocateInstance", Class.class);
+			}
+			return (T) allocateInstance.invoke(unsafe, type);
+		} catch (Throwable t) {
+			throw new RuntimeException("Failed to allocate a stand-in " + type.getSimpleName(), t);
+		}
+	}
+}
@@ -29,6 +29,8 @@ import com.bergerkiller.bukkit.common.localization.ILocalizationDefault;
 import com.bergerkiller.bukkit.common.metrics.Metrics;
 import com.bergerkiller.bukkit.common.permissions.IPermissionDefault;
 import com.bergerkiller.bukkit.common.permissions.NoPermissionException;
+import com.bergerkiller.bukkit.common.protocol.AsyncPacketListener;
+import com.bergerkiller.bukkit.common.protocol.PacketFilter;
 import com.bergerkiller.bukkit.common.protocol.PacketListener;
 import com.bergerkiller.bukkit.common.protocol.PacketType;
 import com.bergerkiller.bukkit.common.reflection.classes.PluginDescriptionFileRef;
@@ -225,6 +227,17 @@ public abstract class PluginBase extends JavaPlugin {
 		PacketUtil.addPacketListener(this, packetListener, packetTypes);
 	}
 
+	/**
+	 * Registers a packet listener for the packet types specified, only handling the packets accepted by a filter
+	 * 
+	 * @param packetListener to register
+	 * @param filter deciding which packets the listener handles
+	 * @param packetTypes to register the listener for
+	 */
+	public final void register(PacketListener packetListener, PacketFilter filter, PacketType... packetTypes) {
+		PacketUtil.addPacketListener(this, packetListener, filter, packetTypes);
+	}
+
 	/**
 	 * Unregisters a packet listener
 	 * 
@@ -234,6 +247,25 @@ public abstract class PluginBase extends JavaPlugin {
 		PacketUtil.removePacketListener(packetListener);
 	}
 
+	/**
+	 * Registers an asynchronous packet listener for the packet types specified
+	 * 
+	 * @param packetListener to register
+	 * @param packetTypes to register the listener for
+	 */
+	public final void register(AsyncPacketListener packetListener, PacketType... packetTypes) {
+		PacketUtil.addAsyncPacketListener(this, packetListener, packetTypes);
+	}
+
+	/**
+	 * Unregisters an asynchronous packet listener
+	 * 
+	 * @param packetListener to unregister
+	 */
+	public final void unregister(AsyncPacketListener packetListener) {
+		PacketUtil.removeAsyncPacketListener(packetListener);
+	}
+
 	/**
 	 * Loads all the permissions from a Permissions container class<br>
 	 * If the class is not an enumeration, the static constants in the class are used instead
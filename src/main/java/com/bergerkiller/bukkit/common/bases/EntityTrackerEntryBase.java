@@ -12,6 +12,7 @@ import com.bergerkiller.bukkit.common.internal.CommonNMS;
 import com.bergerkiller.bukkit.common.protocol.CommonPacket;
 import com.bergerkiller.bukkit.common.protocol.PacketFields;
 import com.bergerkiller.bukkit.common.reflection.ClassTemplate;
+import com.bergerkiller.bukkit.common.reflection.FieldSnapshot;
 import com.bergerkiller.bukkit.common.reflection.SafeMethod;
 import com.bergerkiller.bukkit.common.reflection.classes.EntityRef;
 import com.bergerkiller.bukkit.common.reflection.classes.EntityTrackerEntryRef;
@@ -31,6 +32,7 @@ import net.minecraft.server.v1_4_R1.Packet;
 public class EntityTrackerEntryBase extends EntityTrackerEntry {
 	private static final SafeMethod<Void> onTickMethod = ClassTemplate.create(EntityTrackerEntryBase.class).getMethod("onTick");
 	private final boolean isOnTickOverrided;
+	private final FieldSnapshot syncState = EntityTrackerEntryRef.syncState.newSnapshot();
 	/**
 	 * This field (contained in the super class) should not be used, use getViewers() instead
 	 */
@@ -203,19 +205,19 @@ public class EntityTrackerEntryBase extends EntityTrackerEntry {
 	}
    
 	private synchronized void updateViewers(Collection<Player> viewers) {
-		if (EntityTrackerEntryRef.synched.get(this)) {
-			double lastSyncX = EntityTrackerEntryRef.prevX.get(this);
-			double lastSyncY = EntityTrackerEntryRef.prevY.get(this);
-			double lastSyncZ = EntityTrackerEntryRef.prevZ.get(this);
+		if (EntityTrackerEntryRef.syncState.read(this, syncState).getBoolean(0)) {
+			double lastSyncX = syncState.getDouble(1);
+			double lastSyncY = syncState.getDouble(2);
+			double lastSyncZ = syncState.getDouble(3);
 			if (super.tracker.e(lastSyncX, lastSyncY, lastSyncZ) <= 16.0) {
 				return;
 			}
 		}
 		// Update tracking data
-		EntityTrackerEntryRef.prevX.set(this, super.tracker.locX);
-		EntityTrackerEntryRef.prevY.set(this, super.tracker.locY);
-		EntityTrackerEntryRef.prevZ.set(this, super.tracker.locZ);
-		EntityTrackerEntryRef.synched.set(this, true);
+		EntityTrackerEntryRef.prevXDouble.setDouble(this, super.tracker.locX);
+		EntityTrackerEntryRef.prevYDouble.setDouble(this, super.tracker.locY);
+		EntityTrackerEntryRef.prevZDouble.setDouble(this, super.tracker.locZ);
+		EntityTrackerEntryRef.synchedBoolean.setBoolean(this, true);
 		this.updatePlayers(viewers);
 	}
 
@@ -227,7 +229,7 @@ public class EntityTrackerEntryBase extends EntityTrackerEntry {
 	public synchronized void doRespawn() {
 		this.doInstantDestroy();
 		super.trackedPlayers.clear();
-		EntityTrackerEntryRef.synched.set(this, false);
+		EntityTrackerEntryRef.synchedBoolean.setBoolean(this, false);
 		// All viewers will receive the new data: make sure position/rotation is synched
 		this.xLoc = this.getTrackerProtocolX();
 		this.yLoc = this.getTrackerProtocolY();
@@ -1,17 +1,52 @@
 package com.bergerkiller.bukkit.common.conversion;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * A basic implementation which stores the output type
  * 
  * @param <O> - output type
  */
 public abstract class BasicConverter<T> implements Converter<T> {
+	private static volatile int cacheGeneration = 0;
 	private final Class<T> outputType;
+	private volatile CastableTypes castableTypes = new CastableTypes(0);
 
 	public BasicConverter(Class<T> outputType) {
 		this.outputType = outputType;
 	}
 
+	/**
+	 * Checks whether values of a type can be returned as they are, without converting them.
+	 * The result is remembered for every type, as Class.isAssignableFrom is a native call on older JVMs.
+	 * 
+	 * @param type of value
+	 * @return True if the value can be cast to the output type, False if not
+	 */
+	protected final boolean isCastable(Class<?> type) {
+		if (type == outputType) {
+			return true;
+		}
+		CastableTypes castableTypes = this.castableTypes;
+		if (castableTypes.generation != cacheGeneration) {
+			this.castableTypes = castableTypes = new CastableTypes(cacheGeneration);
+		}
+		Boolean castable = castableTypes.get(type);
+		if (castable == null) {
+			castable = Boolean.valueOf(outputType.isAssignableFrom(type));
+			castableTypes.put(type, castable);
+		}
+		return castable.booleanValue();
+	}
+
+	/**
+	 * Discards the types remembered by all converters in {@link #isCastable(Class)},
+	 * so the classes of disabled plugins are no longer referenced
+	 */
+	static synchronized void clearCaches() {
+		cacheGeneration++;
+	}
+
 	@Override
 	public Class<T> getOutputType() {
 		return outputType;
@@ -38,7 +73,7 @@ public abstract class BasicConverter<T> implements Converter<T> {
 			return def;
 		} else {
 			Class<?> type = value.getClass();
-			if (getOutputType().isAssignableFrom(type)) {
+			if (isCastable(type)) {
 				return (T) value;
 			} else {
 				return convertSpecial(value, type, def);
@@ -70,4 +105,14 @@ public abstract class BasicConverter<T> implements Converter<T> {
 	public <K> Converter<K> cast(Class<K> type) {
 		return new CastingConverter<K>(type, this);
 	}
+
+	private static final class CastableTypes extends ConcurrentHashMap<Class<?>, Boolean> {
+		private static final long serialVersionUID = 1L;
+		public final int generation;
+
+		public CastableTypes(int generation) {
+			super(16, 0.75f, 1);
+			this.generation = generation;
+		}
+	}
 }
@@ -15,6 +15,13 @@ import com.bergerkiller.bukkit.common.utils.LogicUtil;
  */
 public class Conversion extends ConversionTypes {
 	private static final Map<Class<?>, Converter<Object>> converters = new ConcurrentHashMap<Class<?>, Converter<Object>>();
+	/**
+	 * Converters resolved for every boxed output type, and then input type, used by convert.
+	 * Values that can be cast to the output type use the identity converter, and are returned as they are.
+	 * This references classes of plugins, so it is cleared using {@link #clearCache()} when a plugin disables.
+	 */
+	private static final Map<Class<?>, Map<Class<?>, Converter<Object>>> paths = new ConcurrentHashMap<Class<?>, Map<Class<?>, Converter<Object>>>();
+	private static final Converter<Object> IDENTITY = new EmptyConverter<Object>(Object.class);
 	static {
 		registerAll(ConversionTypes.class);
 		ConversionPairs.class.getModifiers(); // Load this class
@@ -45,6 +52,16 @@ public class Conversion extends ConversionTypes {
 			return;
 		}
 		converters.put(converter.getOutputType(), (Converter<Object>) converter);
+		paths.clear();
+	}
+
+	/**
+	 * Clears the converters resolved for the types of values converted before.
+	 * Called when a plugin disables, so the classes of that plugin are no longer referenced and can be unloaded.
+	 */
+	public static void clearCache() {
+		paths.clear();
+		BasicConverter.clearCaches();
 	}
 
 	/**
@@ -123,14 +140,50 @@ public class Conversion extends ConversionTypes {
 	 * @param def value to return on failure
 	 * @return the converted value
 	 */
+	@SuppressWarnings("unchecked")
 	public static <T> T convert(Object value, Class<T> type, T def) {
 		if (value == null) {
 			return def;
 		}
 		final Class<?> valueType = value.getClass();
-		if (type.isAssignableFrom(valueType)) {
-			return type.cast(value);
+		final Converter<Object> converter = getConverterPath(valueType, type);
+		if (converter == IDENTITY) {
+			return (T) value;
+		} else if (converter instanceof BasicConverter) {
+			// Already known the value can not be cast, skip that check
+			return ((BasicConverter<T>) converter).convertSpecial(value, valueType, def);
+		} else {
+			return ((Converter<T>) converter).convert(value, def);
+		}
+	}
+
+	/**
+	 * Obtains the converter used to convert values of one type to another
+	 * 
+	 * @param inputType of the value to convert
+	 * @param outputType to convert to
+	 * @return converter, or the identity converter if the value can be cast to the output type
+	 */
+	@SuppressWarnings("unchecked")
+	private static Converter<Object> getConverterPath(Class<?> inputType, Class<?> outputType) {
+		if (outputType.isPrimitive()) {
+			// Values are always boxed, so they can only be cast to the boxed type
+			outputType = LogicUtil.getBoxedType(outputType);
+		}
+		Map<Class<?>, Converter<Object>> byInput = paths.get(outputType);
+		if (byInput == null) {
+			byInput = new ConcurrentHashMap<Class<?>, Converter<Object>>(16, 0.75f, 1);
+			paths.put(outputType, byInput);
+		}
+		Converter<Object> converter = byInput.get(inputType);
+		if (converter == null) {
+			if (outputType.isAssignableFrom(inputType)) {
+				converter = IDENTITY;
+			} else {
+				converter = (Converter<Object>) getConverter(outputType);
+			}
+			byInput.put(inputType, converter);
 		}
-		return getConverter(type).convert(value, def);
+		return converter;
 	}
 }
@@ -54,7 +54,7 @@ public class PrimitiveArrayConverter<T> extends BasicConverter<T> {
 	 */
 	@SuppressWarnings("unchecked")
 	public T convertPrimitiveArray(Object primitiveArray) {
-		if (getOutputType().isAssignableFrom(primitiveArray.getClass())) {
+		if (isCastable(primitiveArray.getClass())) {
 			return (T) primitiveArray;
 		}
 		final int length = Array.getLength(primitiveArray);
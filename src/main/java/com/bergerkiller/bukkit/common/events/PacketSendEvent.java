@@ -15,6 +15,19 @@ public class PacketSendEvent implements Cancellable {
 		this.packet = packet;
 	}
 
+	/**
+	 * Resets this event so it represents a new packet being sent<br>
+	 * <b>Only called internally by the event creator!</b>
+	 * 
+	 * @param player to set to
+	 * @param packet to set to
+	 */
+	public void reset(Player player, CommonPacket packet) {
+		this.player = player;
+		this.packet = packet;
+		this.cancelled = false;
+	}
+
 	@Override
 	public boolean isCancelled() {
 		return this.cancelled;
@@ -0,0 +1,313 @@
+package com.bergerkiller.bukkit.common.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import com.bergerkiller.bukkit.common.AsyncTask;
+import com.bergerkiller.bukkit.common.protocol.AsyncPacketListener;
+import com.bergerkiller.bukkit.common.protocol.PacketSnapshot;
+import com.bergerkiller.bukkit.common.utils.CommonUtil;
+
+/**
+ * Passes snapshots of sent and received packets to asynchronous packet listeners.<br>
+ * The connection thread only takes the snapshot and offers it to a bounded queue.
+ * Worker threads take the snapshots from the queue and call the listeners.
+ * When the queue is full, packets are either dropped or the connection thread waits for space.
+ */
+class AsyncPacketDispatcher {
+	private static final AsyncPacketListener[] NO_LISTENERS = new AsyncPacketListener[0];
+	private final AtomicReferenceArray<AsyncPacketListener[]> listeners = new AtomicReferenceArray<AsyncPacketListener[]>(PacketListenerRegistry.PACKET_COUNT);
+	// The lists are unmodifiable and replaced as a whole, so they can be handed out safely
+	private final Map<Plugin, List<AsyncPacketListener>> listenerPlugins = new HashMap<Plugin, List<AsyncPacketListener>>();
+	private final List<Worker> workers = new ArrayList<Worker>();
+	private final AtomicLong dropCount = new AtomicLong();
+	private volatile BlockingQueue<Entry> queue = new ArrayBlockingQueue<Entry>(1);
+	private volatile boolean blocking = false;
+	private volatile boolean running = false;
+
+	public AsyncPacketDispatcher() {
+		for (int i = 0; i < PacketListenerRegistry.PACKET_COUNT; i++) {
+			listeners.set(i, NO_LISTENERS);
+		}
+	}
+
+	/**
+	 * Starts the worker threads handling the queued packets
+	 * 
+	 * @param workerCount amount of worker threads to start
+	 * @param capacity of the packet queue
+	 * @param blocking whether to wait for space in the queue (True) or drop the packet (False) when full
+	 */
+	public synchronized void start(int workerCount, int capacity, boolean blocking) {
+		stop();
+		this.queue = new ArrayBlockingQueue<Entry>(Math.max(1, capacity));
+		this.blocking = blocking;
+		this.running = true;
+		for (int i = 0; i < Math.max(1, workerCount); i++) {
+			Worker worker = new Worker(this.queue, i + 1);
+			worker.start(true);
+			workers.add(worker);
+		}
+	}
+
+	/**
+	 * Stops all worker threads and discards the packets still queued.
+	 * Connection threads waiting for space in the queue stop waiting and drop their packet.
+	 */
+	public synchronized void stop() {
+		this.running = false;
+		for (Worker worker : workers) {
+			worker.stop();
+		}
+		for (Worker worker : workers) {
+			worker.waitFinished();
+		}
+		workers.clear();
+		queue.clear();
+	}
+
+	/**
+	 * Gets the amount of packets waiting to be handled by the asynchronous listeners
+	 * 
+	 * @return queue size
+	 */
+	public int getQueueSize() {
+		return queue.size();
+	}
+
+	/**
+	 * Gets the maximum amount of packets that can be waiting in the queue
+	 * 
+	 * @return queue capacity
+	 */
+	public int getQueueCapacity() {
+		return queue.size() + queue.remainingCapacity();
+	}
+
+	/**
+	 * Gets the total amount of packets dropped because the queue was full
+	 * 
+	 * @return dropped packet count
+	 */
+	public long getDropCount() {
+		return dropCount.get();
+	}
+
+	/**
+	 * Checks whether any asynchronous listeners are registered for a packet id
+	 * 
+	 * @param id of the packet
+	 * @return True if listeners are registered, False if not
+	 */
+	public boolean hasListeners(int id) {
+		return id >= 0 && id < PacketListenerRegistry.PACKET_COUNT && listeners.get(id).length > 0;
+	}
+
+	/**
+	 * Gets the plugins owning asynchronous listeners for a packet id
+	 * 
+	 * @param id of the packet
+	 * @return listening plugins
+	 */
+	public synchronized Collection<Plugin> getPlugins(int id) {
+		Set<Plugin> plugins = new LinkedHashSet<Plugin>();
+		if (hasListeners(id)) {
+			List<AsyncPacketListener> idListeners = Arrays.asList(listeners.get(id));
+			for (Map.Entry<Plugin, List<AsyncPacketListener>> entry : listenerPlugins.entrySet()) {
+				for (AsyncPacketListener listener : entry.getValue()) {
+					if (idListeners.contains(listener)) {
+						plugins.add(entry.getKey());
+						break;
+					}
+				}
+			}
+		}
+		return plugins;
+	}
+
+	/**
+	 * Gets all the packet ids for which at least one asynchronous listener is registered
+	 * 
+	 * @return set of listened packet ids
+	 */
+	public Set<Integer> getListenedIds() {
+		Set<Integer> ids = new LinkedHashSet<Integer>();
+		for (int i = 0; i < PacketListenerRegistry.PACKET_COUNT; i++) {
+			if (listeners.get(i).length > 0) {
+				ids.add(i);
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Registers an asynchronous listener owned by a plugin for the packet ids specified
+	 * 
+	 * @param plugin owning the listener
+	 * @param listener to register
+	 * @param ids of the packets to register the listener for
+	 */
+	public synchronized void add(Plugin plugin, AsyncPacketListener listener, int[] ids) {
+		for (int id : ids) {
+			if (id < 0 || id >= PacketListenerRegistry.PACKET_COUNT) {
+				throw new IllegalArgumentException("Unknown packet type Id: " + id);
+			}
+		}
+		for (int id : ids) {
+			AsyncPacketListener[] old = listeners.get(id);
+			AsyncPacketListener[] updated = Arrays.copyOf(old, old.length + 1);
+			updated[old.length] = listener;
+			listeners.set(id, updated);
+		}
+		List<AsyncPacketListener> list = listenerPlugins.get(plugin);
+		if (list == null) {
+			listenerPlugins.put(plugin, Collections.singletonList(listener));
+		} else if (!list.contains(listener)) {
+			List<AsyncPacketListener> updated = new ArrayList<AsyncPacketListener>(list.size() + 1);
+			updated.addAll(list);
+			updated.add(listener);
+			listenerPlugins.put(plugin, Collections.unmodifiableList(updated));
+		}
+	}
+
+	/**
+	 * Unregisters an asynchronous listener for all packet ids
+	 * 
+	 * @param listener to unregister
+	 */
+	public synchronized void remove(AsyncPacketListener listener) {
+		for (int id = 0; id < PacketListenerRegistry.PACKET_COUNT; id++) {
+			AsyncPacketListener[] old = listeners.get(id);
+			List<AsyncPacketListener> updated = new ArrayList<AsyncPacketListener>(Arrays.asList(old));
+			if (updated.removeAll(Arrays.asList(listener))) {
+				listeners.set(id, updated.isEmpty() ? NO_LISTENERS : updated.toArray(NO_LISTENERS));
+			}
+		}
+		for (Plugin plugin : listenerPlugins.keySet().toArray(new Plugin[0])) {
+			List<AsyncPacketListener> list = listenerPlugins.get(plugin);
+			if (!list.contains(listener)) {
+				continue;
+			}
+			List<AsyncPacketListener> updated = new ArrayList<AsyncPacketListener>(list);
+			updated.remove(listener);
+			if (updated.isEmpty()) {
+				listenerPlugins.remove(plugin);
+			} else {
+				listenerPlugins.put(plugin, Collections.unmodifiableList(updated));
+			}
+		}
+	}
+
+	/**
+	 * Unregisters all the asynchronous listeners owned by a plugin
+	 * 
+	 * @param plugin to unregister the listeners of
+	 */
+	public synchronized void removeAll(Plugin plugin) {
+		List<AsyncPacketListener> list = listenerPlugins.get(plugin);
+		if (list != null) {
+			for (AsyncPacketListener listener : list.toArray(NO_LISTENERS)) {
+				remove(listener);
+			}
+		}
+	}
+
+	/**
+	 * Takes a snapshot of a packet and queues it for the asynchronous listeners, if any are registered
+	 * 
+	 * @param player the packet is sent to or received from
+	 * @param packet that is sent or received
+	 * @param id of the packet
+	 * @param sent True if the packet is sent, False if it is received
+	 */
+	public void dispatch(Player player, Object packet, int id, boolean sent) {
+		if (id < 0 || id >= PacketListenerRegistry.PACKET_COUNT) {
+			return;
+		}
+		final AsyncPacketListener[] idListeners = listeners.get(id);
+		if (idListeners.length == 0) {
+			return;
+		}
+		final Entry entry = new Entry(new PacketSnapshot(player, packet, id, sent), idListeners);
+		final BlockingQueue<Entry> queue = this.queue;
+		if (!this.running) {
+			dropCount.incrementAndGet();
+		} else if (this.blocking) {
+			try {
+				// Wait in small steps, so a stopped dispatcher no longer keeps the connection thread waiting
+				while (!queue.offer(entry, 100, TimeUnit.MILLISECONDS)) {
+					if (!this.running || queue != this.queue) {
+						dropCount.incrementAndGet();
+						break;
+					}
+				}
+			} catch (InterruptedException ex) {
+				dropCount.incrementAndGet();
+				Thread.currentThread().interrupt();
+			}
+		} else if (!queue.offer(entry)) {
+			dropCount.incrementAndGet();
+		}
+	}
+
+	private static class Entry {
+		public final PacketSnapshot packet;
+		public final AsyncPacketListener[] listeners;
+
+		public Entry(PacketSnapshot packet, AsyncPacketListener[] listeners) {
+			this.packet = packet;
+			this.listeners = listeners;
+		}
+	}
+
+	private static class Worker extends AsyncTask {
+		private final BlockingQueue<Entry> queue;
+
+		public Worker(BlockingQueue<Entry> queue, int index) {
+			super("BKCommonLib async packet worker #" + index);
+			this.queue = queue;
+		}
+
+		@Override
+		public void run() {
+			final Entry entry;
+			try {
+				entry = queue.poll(100, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException ex) {
+				return;
+			}
+			if (entry == null) {
+				return;
+			}
+			for (AsyncPacketListener listener : entry.listeners) {
+				try {
+					if (entry.packet.isSent()) {
+						listener.onPacketSend(entry.packet);
+					} else {
+						listener.onPacketReceive(entry.packet);
+					}
+				} catch (Throwable t) {
+					Bukkit.getLogger().log(Level.SEVERE, "An error occurred in asynchronous packet listener '" + listener.getClass().getName() + "':");
+					CommonUtil.filterStackTrace(t).printStackTrace();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package com.bergerkiller.bukkit.common.internal;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.bukkit.entity.Player;
+
+import com.bergerkiller.bukkit.common.conversion.Conversion;
+import com.bergerkiller.bukkit.common.protocol.PacketFields;
+import com.bergerkiller.bukkit.common.reflection.classes.EntityPlayerRef;
+import com.bergerkiller.bukkit.common.reflection.classes.NetworkManagerRef;
+import com.bergerkiller.bukkit.common.reflection.classes.PlayerConnectionRef;
+import com.bergerkiller.bukkit.common.utils.CommonUtil;
+
+/**
+ * Samples how much data is waiting in the outbound queue of every player's network manager.<br>
+ * The queue grows when a client reads slower than the server sends, for example on a bad connection.
+ * A player is congested when the amount of queued bytes exceeds the threshold; while congested,
+ * low priority packets can be held back until the queue has drained.
+ */
+class BackpressureMonitor {
+	/**
+	 * The weight of a new sample in the average queue size
+	 */
+	private static final double SAMPLE_WEIGHT = 0.1;
+	private final ConcurrentMap<Player, Sample> samples = new ConcurrentHashMap<Player, Sample>();
+	private volatile boolean throttling = false;
+	private volatile int threshold = 256 * 1024;
+	private volatile int maxDeferredBytes = 1024 * 1024;
+
+	public boolean isThrottling() {
+		return throttling;
+	}
+
+	public void setThrottling(boolean throttling) {
+		this.throttling = throttling;
+	}
+
+	public int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Sets the amount of queued bytes above which a player is congested
+	 * 
+	 * @param threshold in bytes
+	 */
+	public void setThreshold(int threshold) {
+		this.threshold = threshold;
+	}
+
+	public int getMaxDeferredBytes() {
+		return maxDeferredBytes;
+	}
+
+	/**
+	 * Sets the maximum estimated amount of bytes of low priority packets held back for a single player.
+	 * When exceeded, map chunk bulk packets are no longer held back but dropped and their chunks requested again.
+	 * 
+	 * @param maxDeferredBytes in bytes
+	 */
+	public void setMaxDeferredBytes(int maxDeferredBytes) {
+		this.maxDeferredBytes = maxDeferredBytes;
+	}
+
+	/**
+	 * Estimates the amount of bytes a packet uses once sent.
+	 * Map chunk bulk packets are only compressed while they are written,
+	 * for these the uncompressed chunk data length is used.
+	 * 
+	 * @param packet to estimate
+	 * @return estimated size in bytes
+	 */
+	public static int getEstimatedSize(Object packet) {
+		if (PacketFields.MAP_CHUNK_BULK.isInstance(packet)) {
+			final byte[][] buffers = PacketFields.MAP_CHUNK_BULK.inflatedBuffers.get(packet);
+			int size = 8;
+			if (buffers != null) {
+				for (byte[] buffer : buffers) {
+					size += 12 + (buffer == null ? 0 : buffer.length);
+				}
+			}
+			return size;
+		}
+		return PacketFields.DEFAULT.getPacketSize(packet) + 1;
+	}
+
+	/**
+	 * Samples the outbound queues of all online players
+	 */
+	public void sample() {
+		for (Player player : CommonUtil.getOnlinePlayers()) {
+			final int bytes = getQueuedBytes(getNetworkManager(player));
+			Sample sample = samples.get(player);
+			if (sample == null) {
+				sample = new Sample(bytes);
+				samples.put(player, sample);
+			}
+			sample.update(bytes);
+		}
+	}
+
+	/**
+	 * Removes all samples of a player
+	 * 
+	 * @param player to remove
+	 */
+	public void remove(Player player) {
+		samples.remove(player);
+	}
+
+	/**
+	 * Gets the average amount of bytes queued for a player, sampled every tick
+	 * 
+	 * @param player to get it of
+	 * @return average queued bytes
+	 */
+	public double getAverageQueuedBytes(Player player) {
+		final Sample sample = samples.get(player);
+		return sample == null ? 0.0 : sample.average;
+	}
+
+	/**
+	 * Gets the most amount of bytes ever sampled in the queue of a player
+	 * 
+	 * @param player to get it of
+	 * @return peak queued bytes
+	 */
+	public int getPeakQueuedBytes(Player player) {
+		final Sample sample = samples.get(player);
+		return sample == null ? 0 : sample.peak;
+	}
+
+	/**
+	 * Checks whether the outbound queue of a network manager exceeds the congestion threshold
+	 * 
+	 * @param networkManager to check
+	 * @return True if congested, False if not
+	 */
+	public boolean isCongested(Object networkManager) {
+		return getQueuedBytes(networkManager) > threshold;
+	}
+
+	/**
+	 * Gets the network manager of a player
+	 * 
+	 * @param player to get it of
+	 * @return network manager, or null if the player has no connection
+	 */
+	public static Object getNetworkManager(Player player) {
+		final Object handle = Conversion.toEntityHandle.convert(player);
+		if (handle == null) {
+			return null;
+		}
+		final Object connection = EntityPlayerRef.playerConnection.get(handle);
+		return connection == null ? null : PlayerConnectionRef.networkManager.get(connection);
+	}
+
+	/**
+	 * Gets the amount of bytes waiting in the outbound queue of a network manager
+	 * 
+	 * @param networkManager to read, null or a network manager not writing to a socket result in 0
+	 * @return queued bytes
+	 */
+	public static int getQueuedBytes(Object networkManager) {
+		if (!NetworkManagerRef.TEMPLATE.isInstance(networkManager)) {
+			return 0;
+		}
+		return NetworkManagerRef.queueSize.get(networkManager);
+	}
+
+	/**
+	 * Gets the amount of packets waiting in the outbound queue of a network manager
+	 * 
+	 * @param networkManager to read, null or a network manager not writing to a socket result in 0
+	 * @return queued packet count
+	 */
+	public static int getQueuedPackets(Object networkManager) {
+		if (!NetworkManagerRef.TEMPLATE.isInstance(networkManager)) {
+			return 0;
+		}
+		synchronized (NetworkManagerRef.lockObject.get(networkManager)) {
+			final List<Object> low = NetworkManagerRef.lowPriorityQueue.get(networkManager);
+			final List<Object> high = NetworkManagerRef.highPriorityQueue.get(networkManager);
+			return low.size() + high.size();
+		}
+	}
+
+	private static class Sample {
+		public volatile double average;
+		public volatile int peak;
+
+		public Sample(int bytes) {
+			this.average = bytes;
+		}
+
+		public void update(int bytes) {
+			average += (bytes - average) * SAMPLE_WEIGHT;
+			if (bytes > peak) {
+				peak = bytes;
+			}
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package com.bergerkiller.bukkit.common.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.bukkit.entity.Player;
+
+import com.bergerkiller.bukkit.common.protocol.PacketFields;
+
+/**
+ * Counts the packets and bytes sent to every player for every packet id.<br>
+ * The counts are stored in per-second slots covering the last {@link #HISTORY} seconds,
+ * so the traffic of any window up to that length can be obtained.
+ * Recording a packet only uses atomic operations, no locks are taken on the send path.
+ */
+class BandwidthMonitor {
+	/**
+	 * The maximum window length in seconds
+	 */
+	public static final int HISTORY = 60;
+	private final ConcurrentMap<Player, PlayerTraffic> players = new ConcurrentHashMap<Player, PlayerTraffic>();
+	private volatile boolean enabled = false;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled) {
+			players.clear();
+		}
+	}
+
+	/**
+	 * Records a packet that is about to be sent to a player, if enabled.
+	 * This is called with the packet that is actually sent, after packets are merged or substituted.
+	 * Map chunk bulk packets are only compressed while they are written, so their length is not known yet.
+	 * For these a packet is returned that wraps the packet and records the length once written.
+	 * 
+	 * @param player the packet is sent to
+	 * @param packet that is about to be sent
+	 * @return the packet to send in place of the packet
+	 */
+	public Object record(Player player, Object packet) {
+		if (!enabled) {
+			return packet;
+		}
+		Object original = packet;
+		if (packet instanceof CommonEncodedPacket) {
+			original = ((CommonEncodedPacket) packet).getPacket();
+		} else if (packet instanceof CommonSilentPacket) {
+			original = ((CommonSilentPacket) packet).getPacket();
+		}
+		final int id = PacketFields.DEFAULT.packetIDInt.getInt(original);
+		if (PacketFields.MAP_CHUNK_BULK.isInstance(original)) {
+			return new CommonMeasuredPacket(packet, player, id, this);
+		}
+		// Packet size excludes the packet id byte, the encoded packet size is the exact encoded length
+		record(player, id, PacketFields.DEFAULT.getPacketSize(packet) + 1);
+		return packet;
+	}
+
+	/**
+	 * Records the bytes sent to a player, if enabled
+	 * 
+	 * @param player the bytes are sent to
+	 * @param id of the packet sent
+	 * @param size of the packet in bytes, including the packet id byte
+	 */
+	public void record(Player player, int id, int size) {
+		if (!enabled || id < 0 || id >= PacketListenerRegistry.PACKET_COUNT) {
+			return;
+		}
+		PlayerTraffic traffic = players.get(player);
+		if (traffic == null) {
+			traffic = new PlayerTraffic();
+			PlayerTraffic existing = players.putIfAbsent(player, traffic);
+			if (existing != null) {
+				traffic = existing;
+			}
+		}
+		traffic.get(id).record(size, getSecond());
+	}
+
+	/**
+	 * Removes all recorded traffic of a player
+	 * 
+	 * @param player to remove
+	 */
+	public void remove(Player player) {
+		players.remove(player);
+	}
+
+	/**
+	 * Gets the amount of bytes or packets sent to a player during the last seconds
+	 * 
+	 * @param player to get the traffic of, null for all players
+	 * @param id of the packet, -1 for all packets
+	 * @param seconds window length [1 - {@link #HISTORY}]
+	 * @param bytes True to get the amount of bytes, False to get the amount of packets
+	 * @return amount of bytes or packets sent
+	 */
+	public long getTraffic(Player player, int id, int seconds, boolean bytes) {
+		if (seconds < 1 || seconds > HISTORY) {
+			throw new IllegalArgumentException("Window length must be between 1 and " + HISTORY + " seconds");
+		}
+		final long now = getSecond();
+		if (player == null) {
+			long total = 0;
+			for (PlayerTraffic traffic : players.values()) {
+				total += traffic.sum(id, now, seconds, bytes);
+			}
+			return total;
+		}
+		PlayerTraffic traffic = players.get(player);
+		return traffic == null ? 0 : traffic.sum(id, now, seconds, bytes);
+	}
+
+	private static long getSecond() {
+		return System.currentTimeMillis() / 1000;
+	}
+
+	private static class PlayerTraffic {
+		private final AtomicReferenceArray<TypeTraffic> types = new AtomicReferenceArray<TypeTraffic>(PacketListenerRegistry.PACKET_COUNT);
+
+		public TypeTraffic get(int id) {
+			TypeTraffic traffic = types.get(id);
+			if (traffic == null) {
+				types.compareAndSet(id, null, new TypeTraffic());
+				traffic = types.get(id);
+			}
+			return traffic;
+		}
+
+		public long sum(int id, long now, int seconds, boolean bytes) {
+			if (id != -1) {
+				final TypeTraffic traffic = types.get(id);
+				return traffic == null ? 0 : traffic.sum(now, seconds, bytes);
+			}
+			long total = 0;
+			for (int i = 0; i < PacketListenerRegistry.PACKET_COUNT; i++) {
+				final TypeTraffic traffic = types.get(i);
+				if (traffic != null) {
+					total += traffic.sum(now, seconds, bytes);
+				}
+			}
+			return total;
+		}
+	}
+
+	private static class TypeTraffic {
+		private final AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<Slot>(HISTORY);
+
+		public void record(int size, long second) {
+			final int index = (int) (second % HISTORY);
+			Slot slot = slots.get(index);
+			while (slot == null || slot.second != second) {
+				if (slot != null && slot.second > second) {
+					// Slot already counts a later second
+					return;
+				}
+				// Slot belonged to an older second, replace it so no concurrent count is lost
+				final Slot created = new Slot(second);
+				if (slots.compareAndSet(index, slot, created)) {
+					slot = created;
+					break;
+				}
+				slot = slots.get(index);
+			}
+			slot.bytes.addAndGet(size);
+			slot.packets.incrementAndGet();
+		}
+
+		public long sum(long now, int count, boolean sumBytes) {
+			long total = 0;
+			for (long second = now - count + 1; second <= now; second++) {
+				final Slot slot = slots.get((int) (second % HISTORY));
+				if (slot != null && slot.second == second) {
+					total += (sumBytes ? slot.bytes : slot.packets).get();
+				}
+			}
+			return total;
+		}
+	}
+
+	private static class Slot {
+		public final long second;
+		public final AtomicLong bytes = new AtomicLong();
+		public final AtomicLong packets = new AtomicLong();
+
+		public Slot(long second) {
+			this.second = second;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package com.bergerkiller.bukkit.common.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import com.bergerkiller.bukkit.common.bases.LongHash;
+import com.bergerkiller.bukkit.common.protocol.PacketFields;
+import com.bergerkiller.bukkit.common.utils.PacketUtil;
+
+/**
+ * Collects the blocks changed in every chunk and sends them to nearby players once per tick.<br>
+ * A single change is sent as a block change packet, multiple changes as one multi-block change packet.
+ * When the amount of changes in a chunk reaches the threshold, the changed chunk sections are re-sent instead.
+ * The block types and data are read from the world at the moment the changes are sent.
+ */
+class BlockChangeAccumulator {
+	private final Map<World, Map<Long, DirtyChunk>> worlds = new HashMap<World, Map<Long, DirtyChunk>>();
+	private int threshold = 64;
+
+	/**
+	 * Sets the amount of changes in a single chunk at which the chunk sections are re-sent
+	 * instead of sending a multi-block change packet
+	 * 
+	 * @param threshold to set to
+	 */
+	public synchronized void setThreshold(int threshold) {
+		this.threshold = Math.max(2, threshold);
+	}
+
+	/**
+	 * Queues a changed block to be sent to the nearby players when this accumulator is flushed
+	 * 
+	 * @param world the block is in
+	 * @param x - coordinate of the block
+	 * @param y - coordinate of the block
+	 * @param z - coordinate of the block
+	 */
+	public synchronized void add(World world, int x, int y, int z) {
+		if (y < 0 || y >= world.getMaxHeight()) {
+			return;
+		}
+		Map<Long, DirtyChunk> chunks = worlds.get(world);
+		if (chunks == null) {
+			chunks = new HashMap<Long, DirtyChunk>();
+			worlds.put(world, chunks);
+		}
+		final int chunkX = x >> 4;
+		final int chunkZ = z >> 4;
+		final Long key = LongHash.toLong(chunkX, chunkZ);
+		DirtyChunk chunk = chunks.get(key);
+		if (chunk == null) {
+			chunk = new DirtyChunk(chunkX, chunkZ, threshold);
+			chunks.put(key, chunk);
+		}
+		chunk.add(x & 0xF, y, z & 0xF);
+	}
+
+	/**
+	 * Sends all queued block changes to the players near the changed chunks and clears the queue
+	 */
+	public void flush() {
+		final List<World> flushedWorlds;
+		final List<Map<Long, DirtyChunk>> flushedChunks;
+		synchronized (this) {
+			if (worlds.isEmpty()) {
+				return;
+			}
+			flushedWorlds = new ArrayList<World>(worlds.keySet());
+			flushedChunks = new ArrayList<Map<Long, DirtyChunk>>(worlds.values());
+			worlds.clear();
+		}
+		for (int i = 0; i < flushedWorlds.size(); i++) {
+			final World world = flushedWorlds.get(i);
+			if (Bukkit.getWorld(world.getUID()) != world) {
+				// World was unloaded in the meantime
+				continue;
+			}
+			for (DirtyChunk chunk : flushedChunks.get(i).values()) {
+				final Object packet = chunk.createPacket(world);
+				if (packet != null) {
+					PacketUtil.broadcastChunkPacket(world, chunk.chunkX, chunk.chunkZ, packet, true);
+				}
+			}
+		}
+	}
+
+	private static class DirtyChunk {
+		public final int chunkX, chunkZ;
+		private final short[] blocks;
+		private int count = 0;
+		private int sectionMask = 0;
+
+		public DirtyChunk(int chunkX, int chunkZ, int threshold) {
+			this.chunkX = chunkX;
+			this.chunkZ = chunkZ;
+			this.blocks = new short[threshold];
+		}
+
+		public void add(int x, int y, int z) {
+			this.sectionMask |= 1 << (y >> 4);
+			if (count >= blocks.length) {
+				// Whole sections will be re-sent
+				return;
+			}
+			final short block = (short) (x << 12 | z << 8 | y);
+			for (int i = 0; i < count; i++) {
+				if (blocks[i] == block) {
+					return;
+				}
+			}
+			blocks[count++] = block;
+		}
+
+		public Object createPacket(World world) {
+			if (count == 1) {
+				final int x = (chunkX << 4) + (blocks[0] >> 12 & 0xF);
+				final int z = (chunkZ << 4) + (blocks[0] >> 8 & 0xF);
+				final int y = blocks[0] & 0xFF;
+				return PacketFields.BLOCK_CHANGE.newInstance(world, x, y, z);
+			} else if (count < blocks.length) {
+				return PacketFields.MULTI_BLOCK_CHANGE.newInstance(world, chunkX, chunkZ, blocks, count);
+			} else if (world.isChunkLoaded(chunkX, chunkZ)) {
+				return PacketFields.MAP_CHUNK.newInstance(CommonNMS.getNative(world.getChunkAt(chunkX, chunkZ)), false, sectionMask);
+			} else {
+				return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,221 @@
+package com.bergerkiller.bukkit.common.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+
+import org.bukkit.World;
+
+import com.bergerkiller.bukkit.common.protocol.PacketFields;
+
+/**
+ * Stores compressed map chunk packets of complete chunks, so chunks sent to multiple players are only compressed once.<br>
+ * When a packet is requested that is not cached yet, it is queued to be built and the caller sends the chunk the normal way.
+ * Queued packets are built on the main thread at the end of the tick, because the map chunk packet constructor
+ * reads the live chunk sections and packs them into a buffer shared by all map chunk packets.
+ * A cached packet is dropped as soon as a block in the chunk changes, after which the next request builds a new one.
+ * Least recently used packets are dropped when the total size of the cached packets exceeds the memory limit.
+ */
+class ChunkPacketCache {
+	private static final int QUEUE_CAPACITY = 1024;
+	private static final int BUILDS_PER_TICK = 16;
+	private final LinkedHashMap<ChunkKey, Entry> entries = new LinkedHashMap<ChunkKey, Entry>(256, 0.75f, true);
+	private final LinkedHashSet<ChunkKey> queue = new LinkedHashSet<ChunkKey>();
+	private volatile boolean enabled = false;
+	private long maxMemory = 32L * 1024L * 1024L;
+	private long memory = 0;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public synchronized void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled) {
+			entries.clear();
+			queue.clear();
+			memory = 0;
+		}
+	}
+
+	/**
+	 * Sets the maximum total size of all cached packets
+	 * 
+	 * @param maxMemory in bytes
+	 */
+	public synchronized void setMaxMemory(long maxMemory) {
+		this.maxMemory = maxMemory;
+		evict();
+	}
+
+	/**
+	 * Gets the cached map chunk packet containing the complete chunk specified.
+	 * If the packet is not cached, it is queued to be built at the end of the tick and null is returned.
+	 * 
+	 * @param world the chunk is in
+	 * @param chunkX of the chunk
+	 * @param chunkZ of the chunk
+	 * @return map chunk packet, or null if it is not cached
+	 */
+	public synchronized Object getPacket(World world, int chunkX, int chunkZ) {
+		final ChunkKey key = new ChunkKey(world, chunkX, chunkZ);
+		final Entry entry = entries.get(key);
+		if (entry != null) {
+			return entry.packet;
+		}
+		if (enabled && queue.size() < QUEUE_CAPACITY) {
+			queue.add(key);
+		}
+		return null;
+	}
+
+	/**
+	 * Builds the packets of the chunks queued since the last time, at most a fixed amount per tick.
+	 * Must be called on the main thread, while no world is being ticked.
+	 */
+	public void buildQueued() {
+		for (int i = 0; i < BUILDS_PER_TICK; i++) {
+			final ChunkKey key;
+			synchronized (this) {
+				if (!enabled || queue.isEmpty()) {
+					return;
+				}
+				final Iterator<ChunkKey> iter = queue.iterator();
+				key = iter.next();
+				iter.remove();
+				if (entries.containsKey(key)) {
+					continue;
+				}
+			}
+			if (!key.world.isChunkLoaded(key.x, key.z)) {
+				continue;
+			}
+			final Object packet;
+			try {
+				packet = PacketFields.MAP_CHUNK.newInstance(CommonNMS.getNative(key.world.getChunkAt(key.x, key.z)));
+			} catch (Throwable t) {
+				// Not cached, the chunk is sent the normal way
+				continue;
+			}
+			final int size = PacketFields.DEFAULT.getPacketSize(packet);
+			synchronized (this) {
+				if (enabled) {
+					entries.put(key, new Entry(packet, size));
+					memory += size;
+					evict();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drops the cached packet of a chunk after a block in it changed
+	 * 
+	 * @param world the chunk is in
+	 * @param chunkX of the chunk
+	 * @param chunkZ of the chunk
+	 */
+	public void invalidate(World world, int chunkX, int chunkZ) {
+		if (!enabled) {
+			return;
+		}
+		synchronized (this) {
+			if (!entries.isEmpty()) {
+				remove(entries.remove(new ChunkKey(world, chunkX, chunkZ)));
+			}
+		}
+	}
+
+	/**
+	 * Drops the cached packets of all chunks in a range of chunks
+	 * 
+	 * @param world the chunks are in
+	 * @param minChunkX of the range
+	 * @param minChunkZ of the range
+	 * @param maxChunkX of the range
+	 * @param maxChunkZ of the range
+	 */
+	public void invalidate(World world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+		if (!enabled) {
+			return;
+		}
+		synchronized (this) {
+			for (int cx = minChunkX; cx <= maxChunkX && !entries.isEmpty(); cx++) {
+				for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+					remove(entries.remove(new ChunkKey(world, cx, cz)));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drops the cached packets of all chunks of a world
+	 * 
+	 * @param world to drop the packets of
+	 */
+	public synchronized void invalidate(World world) {
+		Iterator<ChunkKey> queueIter = queue.iterator();
+		while (queueIter.hasNext()) {
+			if (queueIter.next().world == world) {
+				queueIter.remove();
+			}
+		}
+		Iterator<java.util.Map.Entry<ChunkKey, Entry>> iter = entries.entrySet().iterator();
+		while (iter.hasNext()) {
+			java.util.Map.Entry<ChunkKey, Entry> entry = iter.next();
+			if (entry.getKey().world == world) {
+				memory -= entry.getValue().size;
+				iter.remove();
+			}
+		}
+	}
+
+	private void remove(Entry entry) {
+		if (entry != null) {
+			memory -= entry.size;
+		}
+	}
+
+	private void evict() {
+		Iterator<Entry> iter = entries.values().iterator();
+		while (memory > maxMemory && iter.hasNext()) {
+			memory -= iter.next().size;
+			iter.remove();
+		}
+	}
+
+	private static class Entry {
+		public final Object packet;
+		public final int size;
+
+		public Entry(Object packet, int size) {
+			this.packet = packet;
+			this.size = size;
+		}
+	}
+
+	private static class ChunkKey {
+		public final World world;
+		public final int x, z;
+
+		public ChunkKey(World world, int x, int z) {
+			this.world = world;
+			this.x = x;
+			this.z = z;
+		}
+
+		@Override
+		public int hashCode() {
+			return (x * 31 + z) * 31 + world.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (object instanceof ChunkKey) {
+				ChunkKey other = (ChunkKey) object;
+				return other.x == x && other.z == z && other.world == world;
+			}
+			return false;
+		}
+	}
+}
@@ -1,40 +1,92 @@
 package com.bergerkiller.bukkit.common.internal;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import com.bergerkiller.bukkit.common.Common;
 
 class CommonClasses {
-	/* 
+	/**
+	 * All reflection classes of this library, which resolve their fields and methods when they are initialized
+	 */
+	private static final String[] REFS = {"Block", "BlockState", "ChunkProviderServer", "Chunk", "ChunkRegionLoader", "ChunkSection",
+		"CraftItemStack", "CraftScheduler", "CraftServer", "CraftTask", "DataWatcher", "EntityHuman", "EntityMinecart", "EntityPlayer",
+		"Entity", "EntityTrackerEntry", "EntityTracker", "EntityTypes", "EnumGamemode", "IntHashMap", "LongHashMapEntry", "LongHashMap",
+		"LongHashSet", "MobEffect", "NBT", "NetworkManager", "NibbleArray", "Packet51MapChunk", "Packet", "PlayerAbilities",
+		"PlayerChunkMap", "PlayerChunk", "PlayerConnection", "PluginDescriptionFile", "Recipe", "RegionFileCache", "RegionFile",
+		"TileEntity", "WatchableObject", "World", "WorldServer", "WorldType"};
+
+	/*
 	 * In here we pre-load several classes to prevent unexpected ClassNotFound exceptions
 	 * This is required, as someone might be calling one of our classes from the main server thread
 	 * Then the main server thread class loader is used, which is unable to find (our) net.minecraft.server references
+	 * 
+	 * The classes are only loaded here, not initialized. The reflection classes look up their fields and methods
+	 * when initialize() is called on enable, or the first time they are used if lazy initialization is turned on.
 	 */
 	public static void init() {
 		// Conversion
-		Common.loadClasses(Common.COMMON_ROOT + ".conversion.Conversion");
+		load(Common.COMMON_ROOT + ".conversion.Conversion");
 		// Reflection classes
-		loadRef("BlockState", "ChunkProviderServer", "CraftScheduler", "CraftServer", "CraftTask", "EntityMinecart", "EntityPlayer");
-		loadRef("Entity", "EntityTrackerEntry", "EntityTracker", "EntityTypes", "LongHashMapEntry", "LongHashMap", "NetworkManager");
-		loadRef("Packet", "PlayerChunk", "PlayerChunkMap", "PluginDescriptionFile", "RegionFileCache", "ChunkRegionLoader", "Recipe");
-		loadRef("NBT", "RegionFile", "TileEntity", "WorldServer", "Chunk", "ChunkSection", "Block", "Chunk", "World", "WorldServer");
+		for (String ref : REFS) {
+			load(getRefName(ref));
+		}
 		// Utility classes (only those that interact with nms)
 		loadUtil("Block", "Chunk", "Common", "EntityProperty", "Entity", "Item", "Material", "Native", "NBT", "Packet");
 		loadUtil("Recipe", "Stream", "World");
 		// Remaining classes
-		Common.loadClasses(Common.COMMON_ROOT + ".nbt.NBTTagInfo");
-		Common.loadClasses(Common.COMMON_ROOT + ".reflection.classes.PacketFieldClasses");
+		load(Common.COMMON_ROOT + ".nbt.NBTTagInfo");
+		load(Common.COMMON_ROOT + ".reflection.classes.PacketFieldClasses");
+	}
+
+	/**
+	 * Initializes all the reflection classes that are not initialized yet, measuring the time taken by each.
+	 * Reflection classes used by another reflection class are initialized along with it,
+	 * and their time is included in the time of the class that used them first.
+	 * Classes that were already initialized take (next to) no time.
+	 * 
+	 * @return nanoseconds spent initializing every reflection class, in the order they were initialized
+	 */
+	public static Map<String, Long> initialize() {
+		final Map<String, Long> timings = new LinkedHashMap<String, Long>();
+		for (String ref : REFS) {
+			timings.put(ref + "Ref", Long.valueOf(initialize(getRefName(ref))));
+		}
+		timings.put("PacketFieldClasses", Long.valueOf(initialize(Common.COMMON_ROOT + ".reflection.classes.PacketFieldClasses")));
+		return timings;
 	}
 
-	private static void loadRef(String... classNames) {
-		for (int i = 0; i < classNames.length; i++) {
-			classNames[i] = Common.COMMON_ROOT + ".reflection.classes." + classNames[i] + "Ref";
+	private static long initialize(String className) {
+		final long start = System.nanoTime();
+		try {
+			Class.forName(className, true, CommonClasses.class.getClassLoader());
+		} catch (ClassNotFoundException ex) {
+			throw new RuntimeException("Could not load class '" + className + "' - Update needed?");
 		}
-		Common.loadClasses(classNames);
+		return System.nanoTime() - start;
+	}
+
+	private static String getRefName(String ref) {
+		return Common.COMMON_ROOT + ".reflection.classes." + ref + "Ref";
 	}
 
 	private static void loadUtil(String... classNames) {
-		for (int i = 0; i < classNames.length; i++) {
-			classNames[i] = Common.COMMON_ROOT + ".utils." + classNames[i] + "Util";
+		for (String className : classNames) {
+			load(Common.COMMON_ROOT + ".utils." + className + "Util");
+		}
+	}
+
+	private static void load(String className) {
+		try {
+			loadInner(Class.forName(className, false, CommonClasses.class.getClassLoader()));
+		} catch (ClassNotFoundException ex) {
+			throw new RuntimeException("Could not load class '" + className + "' - Update needed?");
+		}
+	}
+
+	private static void loadInner(Class<?> clazz) {
+		for (Class<?> subclass : clazz.getDeclaredClasses()) {
+			loadInner(subclass);
 		}
-		Common.loadClasses(classNames);
 	}
 }
@@ -0,0 +1,89 @@
+package com.bergerkiller.bukkit.common.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.bergerkiller.bukkit.common.protocol.PacketFields;
+import com.bergerkiller.bukkit.common.utils.PacketUtil;
+
+import net.minecraft.server.v1_4_R1.Connection;
+import net.minecraft.server.v1_4_R1.Packet;
+
+/**
+ * Stores the data of another packet, encoded once, to send the same bytes to multiple players.
+ * Like the silent packet, this packet is not passed to packet listeners when sent.
+ */
+class CommonEncodedPacket extends Packet {
+
+	static {
+		PacketUtil.registerPacketToId(CommonEncodedPacket.class, 0);
+	}
+
+	private final Packet packet;
+	private final byte[] data;
+
+	public CommonEncodedPacket(Object packet) throws IOException {
+		this.packet = (Packet) packet;
+		ByteArrayOutputStream stream = new ByteArrayOutputStream(Math.max(32, this.packet.a()));
+		this.packet.a(new DataOutputStream(stream));
+		this.data = stream.toByteArray();
+		PacketFields.DEFAULT.lowPriority.transfer(packet, this);
+	}
+
+	/**
+	 * Gets the packet that is encoded
+	 * 
+	 * @return encoded packet
+	 */
+	public Packet getPacket() {
+		return this.packet;
+	}
+
+	/**
+	 * This method is called NetworkManager.a(Packet packet, boolean flag) right before queuing.
+	 * 
+	 * @return something, probably has to do with whether the packet can be ignored
+	 */
+	@Override
+	public boolean e() {
+		PacketFields.DEFAULT.packetID.transfer(packet, this);
+		return this.packet.e();
+	}
+
+	@Override
+	public int a() {
+		return this.data.length;
+	}
+
+	@Override
+	public boolean a(Packet packet) {
+		return this.packet.a(packet);
+	}
+
+	@Override
+	public boolean a_() {
+		return this.packet.a_();
+	}
+
+	@Override
+	public String toString() {
+		return this.packet.toString();
+	}
+
+	@Override
+	public void a(DataInputStream in) throws IOException {
+		throw new UnsupportedOperationException("Can not load an encoded packet from a stream");
+	}
+
+	@Override
+	public void a(DataOutputStream out) throws IOException {
+		out.write(this.data);
+	}
+
+	@Override
+	public void handle(Connection arg0) {
+		// Nothing happens here to avoid problems
+	}
+}
@@ -12,10 +12,16 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.event.server.PluginEnableEvent;
+import org.bukkit.event.world.ChunkPopulateEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
 import org.bukkit.event.world.WorldInitEvent;
 import org.bukkit.event.world.WorldUnloadEvent;
 
@@ -50,11 +56,28 @@ class CommonListener implements Listener {
 		CommonPlugin.getInstance().notifyWorldAdded(event.getWorld());
 	}
 
+	@EventHandler(priority = EventPriority.MONITOR)
+	private void onChunkPopulate(ChunkPopulateEvent event) {
+		// Populating changes blocks in neighbouring chunks without notifying the world
+		final int x = event.getChunk().getX();
+		final int z = event.getChunk().getZ();
+		CommonPlugin.getInstance().chunkPackets.invalidate(event.getWorld(), x - 1, z - 1, x + 1, z + 1);
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	private void onChunkUnload(ChunkUnloadEvent event) {
+		if (!event.isCancelled()) {
+			CommonPlugin.getInstance().notifyChunkChanged(event.getChunk());
+		}
+	}
+
 	@EventHandler(priority = EventPriority.MONITOR)
 	private void onWorldUnload(WorldUnloadEvent event) {
 		if (event.isCancelled()) {
 			return;
 		}
+		CommonPlugin.getInstance().chunkPackets.invalidate(event.getWorld());
+		CommonPlugin.getInstance().playerIndex.remove(event.getWorld());
 		CommonWorldListener listener = CommonPlugin.getInstance().worldListeners.remove(event.getWorld());
 		if (listener != null) {
 			listener.disable();
@@ -66,5 +89,37 @@ class CommonListener implements Listener {
 		if (CommonPlugin.getInstance().isUsingFallBackPacketListener()) {
 			CommonPacketListener.bind(event.getPlayer());
 		}
+		CommonPlugin.getInstance().playerIndex.update(event.getPlayer(), event.getPlayer().getLocation());
+	}
+
+	@EventHandler (priority = EventPriority.MONITOR)
+	public void onPlayerQuit(PlayerQuitEvent event) {
+		CommonPlugin.getInstance().bandwidth.remove(event.getPlayer());
+		CommonPlugin.getInstance().playerIndex.remove(event.getPlayer());
+		CommonPlugin.getInstance().backpressure.remove(event.getPlayer());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerMove(PlayerMoveEvent event) {
+		if (!event.isCancelled()) {
+			CommonPlugin.getInstance().playerIndex.update(event.getPlayer(), event.getTo());
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerTeleport(PlayerTeleportEvent event) {
+		if (!event.isCancelled()) {
+			CommonPlugin.getInstance().playerIndex.update(event.getPlayer(), event.getTo());
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerRespawn(PlayerRespawnEvent event) {
+		CommonPlugin.getInstance().playerIndex.update(event.getPlayer(), event.getRespawnLocation());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+		CommonPlugin.getInstance().playerIndex.update(event.getPlayer(), event.getPlayer().getLocation());
 	}
 }
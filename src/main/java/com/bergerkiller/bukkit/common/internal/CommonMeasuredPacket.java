@@ -0,0 +1,88 @@
+package com.bergerkiller.bukkit.common.internal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.bukkit.entity.Player;
+
+import com.bergerkiller.bukkit.common.protocol.PacketFields;
+import com.bergerkiller.bukkit.common.utils.PacketUtil;
+
+import net.minecraft.server.v1_4_R1.Connection;
+import net.minecraft.server.v1_4_R1.Packet;
+
+/**
+ * Wraps around another packet to record the amount of bytes written for it.<br>
+ * This is used for packets of which the size is only known once written, such as map chunk bulk packets,
+ * which are compressed by the connection writer thread.
+ */
+class CommonMeasuredPacket extends Packet {
+
+	static {
+		PacketUtil.registerPacketToId(CommonMeasuredPacket.class, 0);
+	}
+
+	private final Packet packet;
+	private final Player player;
+	private final int id;
+	private final BandwidthMonitor monitor;
+
+	public CommonMeasuredPacket(Object packet, Player player, int id, BandwidthMonitor monitor) {
+		this.packet = (Packet) packet;
+		this.player = player;
+		this.id = id;
+		this.monitor = monitor;
+		PacketFields.DEFAULT.lowPriority.transfer(packet, this);
+	}
+
+	/**
+	 * This method is called NetworkManager.a(Packet packet, boolean flag) right before queuing.
+	 * 
+	 * @return something, probably has to do with whether the packet can be ignored
+	 */
+	@Override
+	public boolean e() {
+		final boolean result = this.packet.e();
+		PacketFields.DEFAULT.packetID.transfer(packet, this);
+		return result;
+	}
+
+	@Override
+	public int a() {
+		return this.packet.a();
+	}
+
+	@Override
+	public boolean a(Packet packet) {
+		return this.packet.a(packet);
+	}
+
+	@Override
+	public boolean a_() {
+		return this.packet.a_();
+	}
+
+	@Override
+	public String toString() {
+		return this.packet.toString();
+	}
+
+	@Override
+	public void a(DataInputStream in) throws IOException {
+		throw new UnsupportedOperationException("Can not load a measured packet from a stream");
+	}
+
+	@Override
+	public void a(DataOutputStream out) throws IOException {
+		final int start = out.size();
+		this.packet.a(out);
+		// Include the packet id byte written before the packet
+		this.monitor.record(this.player, this.id, out.size() - start + 1);
+	}
+
+	@Override
+	public void handle(Connection arg0) {
+		// Nothing happens here to avoid problems
+	}
+}
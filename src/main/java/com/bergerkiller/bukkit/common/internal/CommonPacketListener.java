@@ -1,5 +1,6 @@
 package com.bergerkiller.bukkit.common.internal;
 
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.logging.Level;
@@ -7,6 +8,7 @@ import java.util.logging.Level;
 import org.bukkit.entity.Player;
 
 import com.bergerkiller.bukkit.common.Task;
+import com.bergerkiller.bukkit.common.protocol.PacketFields;
 import com.bergerkiller.bukkit.common.reflection.SafeField;
 import com.bergerkiller.bukkit.common.reflection.classes.PlayerConnectionRef;
 import com.bergerkiller.bukkit.common.utils.CommonUtil;
@@ -15,7 +17,20 @@ import net.minecraft.server.v1_4_R1.*;
 
 class CommonPacketListener extends PlayerConnection {
 	private static final List<PlayerConnection> serverPlayerConnections = SafeField.get(CommonUtil.getMCServer().ae(), "d");
+	private static final List<IUpdatePlayerListBox> serverTickables = SafeField.get(CommonUtil.getMCServer(), "p");
+	private static final IUpdatePlayerListBox tickEndHandler = new IUpdatePlayerListBox() {
+		public void a() {
+			final CommonPlugin instance = CommonPlugin.getInstance();
+			if (instance != null) {
+				instance.handleTickEnd();
+			}
+		}
+	};
 	private final PlayerConnection previous;
+	private final MovementPacketMerger movementMerger = new MovementPacketMerger();
+	private final ArrayDeque<Packet> deferred = new ArrayDeque<Packet>();
+	private final ArrayDeque<Integer> deferredSizes = new ArrayDeque<Integer>();
+	private int deferredBytes = 0;
 
 	public CommonPacketListener(MinecraftServer minecraftserver, EntityPlayer entityplayer) {
 		super(minecraftserver, entityplayer.playerConnection.networkManager, entityplayer);
@@ -35,6 +50,62 @@ class CommonPacketListener extends PlayerConnection {
 		}
 	}
 
+	/**
+	 * Starts calling {@link CommonPlugin#handleTickEnd()} at the end of every tick.
+	 * The server ticks these after all worlds and player connections are ticked,
+	 * so the packets of a tick are sent in the same tick instead of at the start of the next one.
+	 * 
+	 * @return True if handling the end of the tick is started, False if this is not possible
+	 */
+	public static boolean startTickEndHandler() {
+		if (serverTickables == null) {
+			return false;
+		}
+		synchronized (serverTickables) {
+			if (!serverTickables.contains(tickEndHandler)) {
+				serverTickables.add(tickEndHandler);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Stops calling {@link CommonPlugin#handleTickEnd()} at the end of every tick
+	 */
+	public static void stopTickEndHandler() {
+		if (serverTickables != null) {
+			synchronized (serverTickables) {
+				serverTickables.remove(tickEndHandler);
+			}
+		}
+	}
+
+	/**
+	 * Sends the merged movement packets held back for all players
+	 */
+	public static void flushAll() {
+		for (Player player : CommonUtil.getOnlinePlayers()) {
+			final PlayerConnection connection = CommonNMS.getNative(player).playerConnection;
+			if (connection instanceof CommonPacketListener) {
+				((CommonPacketListener) connection).flushMovement();
+			}
+		}
+	}
+
+	/**
+	 * Sends the low priority packets held back for all players
+	 * 
+	 * @param all True to send all held back packets, False to only send them to players that are no longer congested
+	 */
+	public static void flushAllDeferred(boolean all) {
+		for (Player player : CommonUtil.getOnlinePlayers()) {
+			final PlayerConnection connection = CommonNMS.getNative(player).playerConnection;
+			if (connection instanceof CommonPacketListener) {
+				((CommonPacketListener) connection).flushDeferred(all);
+			}
+		}
+	}
+
 	private static boolean isReplaceable(Object playerConnection) {
 		return playerConnection instanceof CommonPacketListener || playerConnection.getClass() == PlayerConnection.class;
 	}
@@ -100,6 +171,8 @@ class CommonPacketListener extends PlayerConnection {
 		final EntityPlayer ep = CommonNMS.getNative(player);
 		final PlayerConnection previous = ep.playerConnection;
 		if (previous instanceof CommonPacketListener) {
+			((CommonPacketListener) previous).flushMovement();
+			((CommonPacketListener) previous).flushDeferred(true);
 			PlayerConnection replacement = ((CommonPacketListener) previous).previous;
 			PlayerConnectionRef.TEMPLATE.transfer(previous, replacement);
 			setPlayerConnection(ep, replacement);
@@ -519,8 +592,129 @@ class CommonPacketListener extends PlayerConnection {
 	@Override
 	public void sendPacket(Packet packet) {
 		final CommonPlugin instance = CommonPlugin.getInstance();
-		if (instance == null || instance.onPacketSend(CommonNMS.getPlayer(this.player), packet)) {
+		if (instance == null) {
+			flushMovement();
+			flushDeferred(true);
 			super.sendPacket(packet);
+		} else if (instance.onPacketSend(CommonNMS.getPlayer(this.player), packet)) {
+			if (instance.isMergingMovementPackets() && MovementPacketMerger.isMovement(packet)) {
+				final Object unmerged = movementMerger.add(packet);
+				if (unmerged != null) {
+					send(instance, (Packet) unmerged);
+				}
+				return;
+			}
+			sendAll(movementMerger.prepare(packet));
+			if (packet.lowPriority && defer(instance.backpressure, packet)) {
+				return;
+			}
+			queue(instance, packet);
+		}
+	}
+
+	private void queue(CommonPlugin instance, Packet packet) {
+		final Object[] chunkPackets = instance == null ? null : instance.getCachedChunkPackets(CommonNMS.getPlayer(this.player), packet);
+		if (chunkPackets != null) {
+			for (Object chunkPacket : chunkPackets) {
+				send(instance, (Packet) chunkPacket);
+			}
+			return;
+		}
+		send(instance, packet);
+	}
+
+	/**
+	 * Sends a packet to the player, recording it in the bandwidth monitor
+	 * 
+	 * @param instance of the plugin, null if disabled
+	 * @param packet to send
+	 */
+	private void send(CommonPlugin instance, Packet packet) {
+		if (instance != null) {
+			packet = (Packet) instance.bandwidth.record(CommonNMS.getPlayer(this.player), packet);
+		}
+		super.sendPacket(packet);
+	}
+
+	/**
+	 * Holds back a low priority packet if the connection is congested.
+	 * Once packets are held back, all following low priority packets are held back as well to keep them in order.
+	 * When the held back packets exceed the byte budget, map chunk bulk packets are dropped
+	 * and their chunks are requested again, so they are sent once the connection has drained.
+	 * 
+	 * @param backpressure monitor
+	 * @param packet to hold back
+	 * @return True if the packet is held back or dropped, False if it should be sent
+	 */
+	private boolean defer(BackpressureMonitor backpressure, Packet packet) {
+		if (!backpressure.isThrottling()) {
+			return false;
+		}
+		synchronized (deferred) {
+			if (deferred.isEmpty() && !backpressure.isCongested(this.networkManager)) {
+				return false;
+			}
+			final int size = BackpressureMonitor.getEstimatedSize(packet);
+			if (!deferred.isEmpty() && deferredBytes + size > backpressure.getMaxDeferredBytes() && requestAgain(packet)) {
+				return true;
+			}
+			deferred.add(packet);
+			deferredSizes.add(size);
+			deferredBytes += size;
+			return true;
+		}
+	}
+
+	/**
+	 * Drops a map chunk bulk packet and adds the chunks it contains to the chunk queue of the player again
+	 * 
+	 * @param packet to drop
+	 * @return True if the packet was dropped, False if it can not be requested again
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean requestAgain(Packet packet) {
+		if (!PacketFields.MAP_CHUNK_BULK.isInstance(packet)) {
+			return false;
+		}
+		final int[] chunkX = PacketFields.MAP_CHUNK_BULK.bulk_x.get(packet);
+		final int[] chunkZ = PacketFields.MAP_CHUNK_BULK.bulk_z.get(packet);
+		if (chunkX == null || chunkZ == null) {
+			return false;
+		}
+		for (int i = 0; i < chunkX.length && i < chunkZ.length; i++) {
+			this.player.chunkCoordIntPairQueue.add(new ChunkCoordIntPair(chunkX[i], chunkZ[i]));
+		}
+		return true;
+	}
+
+	/**
+	 * Sends the low priority packets held back because the connection was congested
+	 * 
+	 * @param all True to send all held back packets, False to send them until the connection is congested again
+	 */
+	public void flushDeferred(boolean all) {
+		final CommonPlugin instance = CommonPlugin.getInstance();
+		synchronized (deferred) {
+			while (!deferred.isEmpty() && (all || instance == null || !instance.backpressure.isCongested(this.networkManager))) {
+				deferredBytes -= deferredSizes.poll();
+				queue(instance, deferred.poll());
+			}
+		}
+	}
+
+	/**
+	 * Sends the merged movement packets held back during the current tick
+	 */
+	public void flushMovement() {
+		sendAll(movementMerger.flush());
+	}
+
+	private void sendAll(List<Object> packets) {
+		if (packets != null) {
+			final CommonPlugin instance = CommonPlugin.getInstance();
+			for (Object packet : packets) {
+				send(instance, (Packet) packet);
+			}
 		}
 	}
 }
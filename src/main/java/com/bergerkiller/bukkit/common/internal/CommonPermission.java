@@ -0,0 +1,16 @@
+package com.bergerkiller.bukkit.common.internal;
+
+import org.bukkit.permissions.PermissionDefault;
+
+import com.bergerkiller.bukkit.common.permissions.PermissionEnum;
+
+/**
+ * The permissions used by the BKCommonLib commands
+ */
+public class CommonPermission extends PermissionEnum {
+	public static final CommonPermission DEBUG = new CommonPermission("bkcommonlib.debug", PermissionDefault.OP, "Allows the use of the BKCommonLib diagnostic commands");
+
+	private CommonPermission(String node, PermissionDefault def, String description) {
+		super(node, def, description);
+	}
+}
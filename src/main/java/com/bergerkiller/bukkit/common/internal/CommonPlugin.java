@@ -1,17 +1,25 @@
 package com.bergerkiller.bukkit.common.internal;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 import java.util.logging.Level;
 
 import me.snowleo.bleedingmobs.BleedingMobs;
@@ -19,6 +27,8 @@ import net.milkbowl.vault.permission.Permission;
 import net.minecraft.server.v1_4_R1.Entity;
 
 import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Item;
@@ -29,8 +39,10 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import com.bergerkiller.bukkit.common.Common;
 import com.bergerkiller.bukkit.common.PluginBase;
+import com.bergerkiller.bukkit.common.AsyncTask;
 import com.bergerkiller.bukkit.common.Task;
 import com.bergerkiller.bukkit.common.collections.EntityMap;
+import com.bergerkiller.bukkit.common.config.FileConfiguration;
 import com.bergerkiller.bukkit.common.conversion.Conversion;
 import com.bergerkiller.bukkit.common.events.EntityMoveEvent;
 import com.bergerkiller.bukkit.common.events.EntityRemoveFromServerEvent;
@@ -38,13 +50,24 @@ import com.bergerkiller.bukkit.common.events.PacketReceiveEvent;
 import com.bergerkiller.bukkit.common.events.PacketSendEvent;
 import com.bergerkiller.bukkit.common.metrics.MyDependingPluginsGraph;
 import com.bergerkiller.bukkit.common.metrics.SoftDependenciesGraph;
+import com.bergerkiller.bukkit.common.protocol.AsyncPacketListener;
 import com.bergerkiller.bukkit.common.protocol.CommonPacket;
 import com.bergerkiller.bukkit.common.protocol.PacketFields;
+import com.bergerkiller.bukkit.common.protocol.PacketFilter;
 import com.bergerkiller.bukkit.common.protocol.PacketListener;
+import com.bergerkiller.bukkit.common.protocol.PacketListenerTiming;
+import com.bergerkiller.bukkit.common.protocol.PacketReplay;
+import com.bergerkiller.bukkit.common.protocol.PacketType;
+import com.bergerkiller.bukkit.common.reflection.AccessorProfile;
+import com.bergerkiller.bukkit.common.reflection.ReflectionProfiler;
+import com.bergerkiller.bukkit.common.reflection.ResolutionCache;
 import com.bergerkiller.bukkit.common.reflection.classes.EntityPlayerRef;
 import com.bergerkiller.bukkit.common.reflection.classes.PlayerConnectionRef;
 import com.bergerkiller.bukkit.common.utils.CommonUtil;
+import com.bergerkiller.bukkit.common.utils.EntityUtil;
 import com.bergerkiller.bukkit.common.utils.LogicUtil;
+import com.bergerkiller.bukkit.common.utils.MathUtil;
+import com.bergerkiller.bukkit.common.utils.ParseUtil;
 import com.bergerkiller.bukkit.common.utils.PlayerUtil;
 import com.bergerkiller.bukkit.common.utils.WorldUtil;
 import com.kellerkindt.scs.ShowCaseStandalone;
@@ -68,8 +91,17 @@ public class CommonPlugin extends PluginBase {
 	public final List<PluginBase> plugins = new ArrayList<PluginBase>();
 	protected final Map<World, CommonWorldListener> worldListeners = new HashMap<World, CommonWorldListener>();
 	protected final ArrayList<SoftReference<EntityMap>> maps = new ArrayList<SoftReference<EntityMap>>();
-	protected final List<PacketListener>[] listeners = new ArrayList[256];
-	protected final Map<Plugin, List<PacketListener>> listenerPlugins = new HashMap<Plugin, List<PacketListener>>();
+	protected final PacketListenerRegistry listeners = new PacketListenerRegistry();
+	protected final AsyncPacketDispatcher asyncListeners = new AsyncPacketDispatcher();
+	protected final BandwidthMonitor bandwidth = new BandwidthMonitor();
+	protected final ChunkPacketCache chunkPackets = new ChunkPacketCache();
+	private final PacketRecorder recorder = new PacketRecorder();
+	protected final BlockChangeAccumulator blockChanges = new BlockChangeAccumulator();
+	protected final PlayerChunkIndex playerIndex = new PlayerChunkIndex();
+	protected final BackpressureMonitor backpressure = new BackpressureMonitor();
+	private boolean blockChangeCoalescing = false;
+	private boolean mergeMovementPackets = false;
+	private boolean sharedBroadcasts = false;
 	private final List<Runnable> nextTickTasks = new ArrayList<Runnable>();
 	private final List<Runnable> nextTickSync = new ArrayList<Runnable>();
 	private final List<NextTickListener> nextTickListeners = new ArrayList<NextTickListener>(1);
@@ -80,6 +112,17 @@ public class CommonPlugin extends PluginBase {
 	private boolean isShowcaseEnabled = false;
 	private boolean isSCSEnabled = false;
 	private boolean isProtocolLibEnabled = false;
+	private boolean reusePacketEvents = false;
+	private boolean timingsEnabled = false;
+	private int timingsInterval = 1;
+	private final AtomicInteger timingsCountdown = new AtomicInteger(1);
+	private volatile boolean replaying = false;
+	private final ThreadLocal<PacketEventCache> packetEventCache = new ThreadLocal<PacketEventCache>() {
+		@Override
+		protected PacketEventCache initialValue() {
+			return new PacketEventCache();
+		}
+	};
 	private Plugin bleedingMobsInstance = null;
 	public List<Entity> entities = new ArrayList<Entity>();
 
@@ -91,6 +134,117 @@ public class CommonPlugin extends PluginBase {
 		return !isProtocolLibEnabled;
 	}
 
+	/**
+	 * Checks whether packet events and CommonPackets are re-used per thread while dispatching
+	 * 
+	 * @return True if packet events are re-used, False if they are constructed for every packet
+	 */
+	public boolean isReusingPacketEvents() {
+		return reusePacketEvents;
+	}
+
+	/**
+	 * Sets whether packet events and CommonPackets are re-used per thread while dispatching.
+	 * Listeners must not retain events or packets after handling them when this is enabled.
+	 * 
+	 * @param reuse option to set to
+	 */
+	public void setReusingPacketEvents(boolean reuse) {
+		this.reusePacketEvents = reuse;
+	}
+
+	/**
+	 * Checks whether entity movement and look packets sent to a player in the same tick are merged
+	 * 
+	 * @return True if movement packets are merged, False if not
+	 */
+	public boolean isMergingMovementPackets() {
+		return mergeMovementPackets;
+	}
+
+	/**
+	 * Sets whether entity movement and look packets sent to a player in the same tick are merged.
+	 * Merging delays these packets until the end of the tick and only works with the fallback packet listener.
+	 * 
+	 * @param merge option to set to
+	 */
+	public void setMergingMovementPackets(boolean merge) {
+		this.mergeMovementPackets = merge;
+	}
+
+	/**
+	 * Checks whether low priority packets are held back for players with a congested connection
+	 * 
+	 * @return True if low priority packets are throttled, False if not
+	 */
+	public boolean isThrottlingLowPriority() {
+		return backpressure.isThrottling();
+	}
+
+	/**
+	 * Sets whether low priority packets are held back for players with a congested connection.
+	 * Held back packets are sent in order once the outbound queue of the player has drained.
+	 * This only works with the fallback packet listener.
+	 * 
+	 * @param throttling option to set to
+	 */
+	public void setThrottlingLowPriority(boolean throttling) {
+		backpressure.setThrottling(throttling);
+		if (!throttling) {
+			CommonPacketListener.flushAllDeferred(true);
+		}
+	}
+
+	/**
+	 * Gets the amount of bytes waiting to be sent to a player
+	 * 
+	 * @param player to get it of
+	 * @return queued bytes
+	 */
+	public int getQueuedBytes(Player player) {
+		return BackpressureMonitor.getQueuedBytes(BackpressureMonitor.getNetworkManager(player));
+	}
+
+	/**
+	 * Gets the amount of packets waiting to be sent to a player
+	 * 
+	 * @param player to get it of
+	 * @return queued packet count
+	 */
+	public int getQueuedPackets(Player player) {
+		return BackpressureMonitor.getQueuedPackets(BackpressureMonitor.getNetworkManager(player));
+	}
+
+	/**
+	 * Gets the average amount of bytes waiting to be sent to a player, sampled every tick
+	 * 
+	 * @param player to get it of
+	 * @return average queued bytes
+	 */
+	public double getAverageQueuedBytes(Player player) {
+		return backpressure.getAverageQueuedBytes(player);
+	}
+
+	/**
+	 * Gets the most amount of bytes sampled waiting to be sent to a player since the player joined
+	 * 
+	 * @param player to get it of
+	 * @return peak queued bytes
+	 */
+	public int getPeakQueuedBytes(Player player) {
+		return backpressure.getPeakQueuedBytes(player);
+	}
+
+	/**
+	 * Checks whether the amount of bytes waiting to be sent to a player exceeds the congestion threshold
+	 * 
+	 * @param player to check
+	 * @return True if congested, False if not
+	 */
+	public boolean isCongested(Player player) {
+		return backpressure.isCongested(BackpressureMonitor.getNetworkManager(player));
+	}
+
 	/**
 	 * Handles the message and/or stack trace logging when something related to reflection is missing
 	 * 
@@ -110,6 +264,17 @@ public class CommonPlugin extends PluginBase {
 		ex.printStackTrace();
 	}
 
+	/**
+	 * Initializes all the reflection classes of this library that are not initialized yet.
+	 * This is done when the plugin enables, unless lazy initialization is turned on in the configuration,
+	 * in which case reflection classes look up their fields and methods the first time they are used.
+	 * 
+	 * @return nanoseconds spent initializing every reflection class, by class name
+	 */
+	public Map<String, Long> prewarmReflection() {
+		return CommonClasses.initialize();
+	}
+
 	public void registerMap(EntityMap map) {
 		this.maps.add(new SoftReference(map));
 	}
@@ -138,6 +303,67 @@ public class CommonPlugin extends PluginBase {
 		this.entitiesToRemove.add(e);
 	}
 	
+	/**
+	 * Notifies that the blocks of a chunk were changed without the world being notified
+	 * 
+	 * @param chunk that changed
+	 */
+	public void notifyChunkChanged(org.bukkit.Chunk chunk) {
+		chunkPackets.invalidate(chunk.getWorld(), chunk.getX(), chunk.getZ());
+	}
+
+	/**
+	 * Checks whether compressed map chunk packets are cached to send the same chunk to multiple players
+	 * 
+	 * @return True if chunk packets are cached, False if not
+	 */
+	public boolean isCachingChunkPackets() {
+		return chunkPackets.isEnabled();
+	}
+
+	/**
+	 * Sets whether compressed map chunk packets are cached to send the same chunk to multiple players
+	 * 
+	 * @param caching option to set to
+	 */
+	public void setCachingChunkPackets(boolean caching) {
+		chunkPackets.setEnabled(caching);
+	}
+
+	/**
+	 * Gets the map chunk packets to send instead of a map chunk bulk packet, using the chunk packet cache.
+	 * Returns null when the bulk packet should be sent as-is, which is when caching is disabled,
+	 * listeners handle map chunk packets or not all chunk packets are cached yet.
+	 * 
+	 * @param player the bulk packet is sent to
+	 * @param packet to replace
+	 * @return map chunk packets to send instead, or null
+	 */
+	public Object[] getCachedChunkPackets(Player player, Object packet) {
+		if (!chunkPackets.isEnabled() || !PacketFields.MAP_CHUNK_BULK.isInstance(packet)) {
+			return null;
+		}
+		// Listeners may change chunk data for every player, do not share packets then
+		final int mapChunkId = PacketType.MAP_CHUNK.getId();
+		final int mapChunkBulkId = PacketType.MAP_CHUNK_BULK.getId();
+		if (listeners.hasListeners(mapChunkId) || listeners.hasListeners(mapChunkBulkId) || 
+				asyncListeners.hasListeners(mapChunkId) || asyncListeners.hasListeners(mapChunkBulkId)) {
+			return null;
+		}
+		final int[] chunkX = PacketFields.MAP_CHUNK_BULK.bulk_x.get(packet);
+		final int[] chunkZ = PacketFields.MAP_CHUNK_BULK.bulk_z.get(packet);
+		final World world = player.getWorld();
+		final Object[] packets = new Object[chunkX.length];
+		boolean cached = true;
+		for (int i = 0; i < packets.length; i++) {
+			// Request all packets, so the missing ones are all built for the next time
+			if ((packets[i] = chunkPackets.getPacket(world, chunkX[i], chunkZ[i])) == null) {
+				cached = false;
+			}
+		}
+		return cached ? packets : null;
+	}
+
 	public void notifyWorldAdded(org.bukkit.World world) {
 		if (worldListeners.containsKey(world)) {
 			return;
@@ -198,92 +424,348 @@ public class CommonPlugin extends PluginBase {
 	}
 
 	public boolean onPacketSend(Player player, Object packet) {
-		if(player == null || packet == null) {
+		if(player == null || packet == null || packet instanceof CommonEncodedPacket) {
 			return true;
 		}
-		return onPacketSend(player, packet, PacketFields.DEFAULT.packetID.get(packet));
+		return onPacketSend(player, packet, PacketFields.DEFAULT.packetIDInt.getInt(packet));
 	}
 
 	public Collection<Plugin> getListening(int id) {
 		if (this.isProtocolLibEnabled) {
 			return CommonProtocolLibHandler.getListening(id);
-		} else if (!LogicUtil.isInBounds(listeners, id)) {
-			return Collections.emptySet();
-		}
-		List<PacketListener> list = listeners[id];
-		if (LogicUtil.nullOrEmpty(list)) {
-			return Collections.emptySet();
-		}
-		List<Plugin> plugins = new ArrayList<Plugin>();
-		for (Entry<Plugin, List<PacketListener>> entry : listenerPlugins.entrySet()) {
-			for (PacketListener listener : list) {
-				if (entry.getValue().contains(listener)) {
-					plugins.add(entry.getKey());
-					break;
-				}
-			}
+		} else if (asyncListeners.hasListeners(id)) {
+			Set<Plugin> plugins = new LinkedHashSet<Plugin>(listeners.get(id).plugins);
+			plugins.addAll(asyncListeners.getPlugins(id));
+			return plugins;
+		} else {
+			return listeners.get(id).plugins;
 		}
-		return plugins;
 	}
 
 	public void addPacketListener(Plugin plugin, PacketListener listener, int[] ids) {
+		addPacketListener(plugin, listener, ids, null);
+	}
+
+	public void addPacketListener(Plugin plugin, PacketListener listener, int[] ids, PacketFilter filter) {
 		if (listener == null) {
 			throw new IllegalArgumentException("Listener is not allowed to be null");
 		} else if (plugin == null) {
 			throw new IllegalArgumentException("Plugin is not allowed to be null");
 		}
 		// Registration in BKCommonLib
-		for (int id : ids) {
-			if (id < 0 || id >= listeners.length) {
-				throw new IllegalArgumentException("Unknown packet type Id: " + id);
-			}
-			// Map to listener array
-			if (listeners[id] == null) {
-				listeners[id] = new ArrayList<PacketListener>();
-			}
-			listeners[id].add(listener);
-			// Map to plugin list
-			List<PacketListener> list = listenerPlugins.get(plugin);
-			if (list == null) {
-				list = new ArrayList<PacketListener>(2);
-				listenerPlugins.put(plugin, list);
-			}
-			list.add(listener);
-		}
+		listeners.add(plugin, listener, ids, filter);
 		// If ProtocolLib is enabled, register a new listener
 		if (this.isProtocolLibEnabled) {
 			CommonProtocolLibHandler.register(ids);
 		}
 	}
 
+	public void addAsyncPacketListener(Plugin plugin, AsyncPacketListener listener, int[] ids) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Listener is not allowed to be null");
+		} else if (plugin == null) {
+			throw new IllegalArgumentException("Plugin is not allowed to be null");
+		}
+		asyncListeners.add(plugin, listener, ids);
+		if (this.isProtocolLibEnabled) {
+			CommonProtocolLibHandler.register(ids);
+		}
+	}
+
 	public void removePacketListeners(Plugin plugin) {
-		List<PacketListener> listeners = listenerPlugins.get(plugin);
-		if (listeners != null) {
-			for (PacketListener listener : listeners) {
-				removePacketListener(listener, false);
-			}
+		listeners.removeAll(plugin);
+		asyncListeners.removeAll(plugin);
+	}
+
+	public void removePacketListener(PacketListener listener) {
+		if (listener != null) {
+			listeners.remove(listener);
 		}
 	}
 
+	/**
+	 * Removes a packet listener. The plugin owning the listener is always unregistered along with it,
+	 * so the fromPlugins option no longer has any effect.
+	 *
+	 * @param listener to remove
+	 * @param fromPlugins ignored
+	 * @deprecated Use {@link #removePacketListener(PacketListener)} instead
+	 */
+	@Deprecated
 	public void removePacketListener(PacketListener listener, boolean fromPlugins) {
-		if(listener == null) {
-			return;
+		removePacketListener(listener);
+	}
+
+	public void removeAsyncPacketListener(AsyncPacketListener listener) {
+		if (listener != null) {
+			asyncListeners.remove(listener);
+		}
+	}
+
+	/**
+	 * Gets the amount of packets waiting to be handled by asynchronous packet listeners
+	 * 
+	 * @return asynchronous packet queue size
+	 */
+	public int getAsyncPacketQueueSize() {
+		return asyncListeners.getQueueSize();
+	}
+
+	/**
+	 * Gets the amount of packets that could not be handled by asynchronous packet listeners
+	 * because the queue was full
+	 * 
+	 * @return dropped packet count
+	 */
+	public long getAsyncPacketDropCount() {
+		return asyncListeners.getDropCount();
+	}
+
+	/**
+	 * Gets whether the time spent by packet listeners is measured
+	 * 
+	 * @return True if listener timings are enabled, False if not
+	 */
+	public boolean isListenerTimingsEnabled() {
+		return timingsEnabled;
+	}
+
+	/**
+	 * Sets whether the time spent by packet listeners is measured
+	 * 
+	 * @param enabled state to set to
+	 */
+	public void setListenerTimingsEnabled(boolean enabled) {
+		this.timingsEnabled = enabled;
+	}
+
+	/**
+	 * Gets the interval at which packets are sampled to measure listener timings
+	 * 
+	 * @return sample interval, 1 if every packet is measured
+	 */
+	public int getListenerTimingsInterval() {
+		return timingsInterval;
+	}
+
+	/**
+	 * Sets the interval at which packets are sampled to measure listener timings.
+	 * An interval of 10 measures one out of every 10 handled packets.
+	 * 
+	 * @param interval to set to, 1 to measure every packet
+	 */
+	public void setListenerTimingsInterval(int interval) {
+		if (interval < 1) {
+			throw new IllegalArgumentException("Sample interval must be at least 1");
+		}
+		this.timingsInterval = interval;
+		this.timingsCountdown.set(interval);
+	}
+
+	public List<PacketListenerTiming> getListenerTimings() {
+		return listeners.getTimings();
+	}
+
+	public void resetListenerTimings() {
+		listeners.resetTimings();
+	}
+
+	/**
+	 * Gets whether block changes broadcast through listeners are queued and sent once per tick,
+	 * combining multiple changes in the same chunk into a single packet
+	 * 
+	 * @return True if block changes are coalesced, False if not
+	 */
+	public boolean isBlockChangeCoalescing() {
+		return blockChangeCoalescing;
+	}
+
+	/**
+	 * Sets whether block changes broadcast through listeners are queued and sent once per tick
+	 * 
+	 * @param coalescing state to set to
+	 */
+	public void setBlockChangeCoalescing(boolean coalescing) {
+		if (!coalescing) {
+			blockChanges.flush();
+		}
+		this.blockChangeCoalescing = coalescing;
+	}
+
+	/**
+	 * Queues a changed block to be sent to all nearby players at the end of the tick.
+	 * The block type and data are read from the world when sent.
+	 * 
+	 * @param world the block is in
+	 * @param x - coordinate of the block
+	 * @param y - coordinate of the block
+	 * @param z - coordinate of the block
+	 */
+	public void queueBlockChange(World world, int x, int y, int z) {
+		blockChanges.add(world, x, y, z);
+	}
+
+	/**
+	 * Sends the block changes and movement packets queued during this tick, and builds the queued chunk packets.
+	 * Called at the end of every tick, after all worlds and player connections are ticked.
+	 * When the server does not allow that, it is called at the start of the next tick instead.
+	 */
+	void handleTickEnd() {
+		blockChanges.flush();
+		chunkPackets.buildQueued();
+		if (!isProtocolLibEnabled) {
+			CommonPacketListener.flushAll();
 		}
-		for(int i = 0; i < listeners.length; i++) {
-			if (!LogicUtil.nullOrEmpty(listeners[i])) {
-				listeners[i].remove(listener);
+	}
+
+	/**
+	 * Gets all players within a radius of a location
+	 * 
+	 * @param world of the location
+	 * @param x - coordinate of the location
+	 * @param y - coordinate of the location
+	 * @param z - coordinate of the location
+	 * @param radius around the location
+	 * @return players within the radius
+	 */
+	public List<Player> getPlayersNearby(World world, double x, double y, double z, double radius) {
+		List<Player> players = new ArrayList<Player>();
+		playerIndex.getPlayers(world, MathUtil.toChunk(x - radius) - 1, MathUtil.toChunk(z - radius) - 1, 
+				MathUtil.toChunk(x + radius) + 1, MathUtil.toChunk(z + radius) + 1, players);
+		final double radiusSquared = radius * radius;
+		Iterator<Player> iter = players.iterator();
+		while (iter.hasNext()) {
+			final Player player = iter.next();
+			final double dx = x - EntityUtil.getLocX(player);
+			final double dy = y - EntityUtil.getLocY(player);
+			final double dz = z - EntityUtil.getLocZ(player);
+			if (player.getWorld() != world || dx * dx + dy * dy + dz * dz >= radiusSquared) {
+				iter.remove();
 			}
 		}
-		if (fromPlugins) {
-			// Remove from plugin list
-			for (Plugin plugin : listenerPlugins.keySet().toArray(new Plugin[0])) {
-				List<PacketListener> list = listenerPlugins.get(plugin);
-				// If not null, remove the listener, if empty afterwards remove the entire entry
-				if (list != null && list.remove(listener) && list.isEmpty()) {
-					listenerPlugins.remove(plugin);
-				}
+		return players;
+	}
+
+	/**
+	 * Gets all players that can see a block
+	 * 
+	 * @param world of the block
+	 * @param x - coordinate of the block
+	 * @param z - coordinate of the block
+	 * @param blockView distance in blocks
+	 * @return players within view of the block
+	 */
+	public List<Player> getPlayersNearBlock(World world, int x, int z, int blockView) {
+		List<Player> players = new ArrayList<Player>();
+		playerIndex.getPlayers(world, ((x - blockView) >> 4) - 1, ((z - blockView) >> 4) - 1, 
+				((x + blockView) >> 4) + 1, ((z + blockView) >> 4) + 1, players);
+		Iterator<Player> iter = players.iterator();
+		while (iter.hasNext()) {
+			final Player player = iter.next();
+			if (player.getWorld() != world || !EntityUtil.isNearBlock(player, x, z, blockView)) {
+				iter.remove();
 			}
 		}
+		return players;
+	}
+
+	/**
+	 * Gets all players that can see a chunk
+	 * 
+	 * @param world of the chunk
+	 * @param chunkX of the chunk
+	 * @param chunkZ of the chunk
+	 * @param chunkView distance in chunks
+	 * @return players within view of the chunk
+	 */
+	public List<Player> getPlayersNearChunk(World world, int chunkX, int chunkZ, int chunkView) {
+		List<Player> players = new ArrayList<Player>();
+		playerIndex.getPlayers(world, chunkX - chunkView - 1, chunkZ - chunkView - 1, 
+				chunkX + chunkView + 1, chunkZ + chunkView + 1, players);
+		Iterator<Player> iter = players.iterator();
+		while (iter.hasNext()) {
+			final Player player = iter.next();
+			if (player.getWorld() != world || !EntityUtil.isNearChunk(player, chunkX, chunkZ, chunkView)) {
+				iter.remove();
+			}
+		}
+		return players;
+	}
+
+	private void updatePlayerIndex() {
+		for (Player player : CommonUtil.getOnlinePlayers()) {
+			playerIndex.update(player, player.getLocation());
+		}
+	}
+
+	/**
+	 * Gets whether the packets and bytes sent to every player are counted
+	 * 
+	 * @return True if bandwidth accounting is enabled, False if not
+	 */
+	public boolean isBandwidthAccountingEnabled() {
+		return bandwidth.isEnabled();
+	}
+
+	/**
+	 * Sets whether the packets and bytes sent to every player are counted.
+	 * Disabling clears all counted traffic.
+	 * 
+	 * @param enabled state to set to
+	 */
+	public void setBandwidthAccountingEnabled(boolean enabled) {
+		bandwidth.setEnabled(enabled);
+	}
+
+	/**
+	 * Gets the amount of bytes sent during the last seconds
+	 * 
+	 * @param player to get the sent bytes of, null for all players
+	 * @param id of the packet, -1 for all packets
+	 * @param seconds window length [1 - 60]
+	 * @return amount of bytes sent
+	 */
+	public long getSentBytes(Player player, int id, int seconds) {
+		return bandwidth.getTraffic(player, id, seconds, true);
+	}
+
+	/**
+	 * Gets the amount of packets sent during the last seconds
+	 * 
+	 * @param player to get the sent packets of, null for all players
+	 * @param id of the packet, -1 for all packets
+	 * @param seconds window length [1 - 60]
+	 * @return amount of packets sent
+	 */
+	public long getSentPackets(Player player, int id, int seconds) {
+		return bandwidth.getTraffic(player, id, seconds, false);
+	}
+
+	/**
+	 * Starts recording all sent and received packets to a capture file.
+	 * The capture can be replayed using {@link com.bergerkiller.bukkit.common.protocol.PacketReplay}.
+	 * 
+	 * @param file to record to
+	 * @throws IOException if the file could not be opened
+	 */
+	public void startPacketCapture(File file) throws IOException {
+		recorder.start(file);
+	}
+
+	/**
+	 * Stops recording packets and closes the capture file
+	 */
+	public void stopPacketCapture() {
+		recorder.stop();
+	}
+
+	/**
+	 * Checks whether sent and received packets are being recorded
+	 * 
+	 * @return True if recording, False if not
+	 */
+	public boolean isCapturingPackets() {
+		return recorder.isRecording();
 	}
 
 	public boolean onPacketSend(Player player, Object packet, int id) {
@@ -291,15 +773,86 @@ public class CommonPlugin extends PluginBase {
 			return true;
 		}
 
-		if (!LogicUtil.nullOrEmpty(listeners[id])) {
-			CommonPacket cp = new CommonPacket(packet, id);
-			PacketSendEvent ev = new PacketSendEvent(player, cp);
-			for(PacketListener listener : listeners[id]) {
-				listener.onPacketSend(ev);
+		recorder.record(packet, id, true);
+		final PacketListenerRegistry.Snapshot snapshot = listeners.get(id);
+		if (snapshot.listeners.length > 0 && !callSendListeners(snapshot, player, packet, id)) {
+			return false;
+		}
+		asyncListeners.dispatch(player, packet, id, true);
+		if (this.isProtocolLibEnabled) {
+			// Without ProtocolLib, packets are recorded by the connection when actually sent
+			bandwidth.record(player, id, PacketFields.DEFAULT.getPacketSize(packet) + 1);
+		}
+		return true;
+	}
+
+	private boolean callSendListeners(PacketListenerRegistry.Snapshot snapshot, Player player, Object packet, int id) {
+		// Filters are evaluated on the raw packet, no event is created if no listener handles it
+		if (snapshot.filtered && !snapshot.acceptsAny(player, packet, id)) {
+			return true;
+		}
+		final PacketEventCache cache = this.reusePacketEvents ? packetEventCache.get().acquire() : null;
+		final PacketSendEvent ev;
+		if (cache == null) {
+			ev = new PacketSendEvent(player, new CommonPacket(packet, id));
+		} else {
+			cache.packet.setHandle(packet, id);
+			ev = cache.sendEvent;
+			ev.reset(player, cache.packet);
+		}
+		try {
+			if (this.timingsEnabled && this.timingsCountdown.decrementAndGet() <= 0) {
+				this.timingsCountdown.set(this.timingsInterval);
+				final PacketListener[] list = snapshot.listeners;
+				for (int i = 0; i < list.length; i++) {
+					if (!snapshot.accepts(i, player, packet, id)) {
+						continue;
+					}
+					final boolean wasCancelled = ev.isCancelled();
+					final long startTime = System.nanoTime();
+					list[i].onPacketSend(ev);
+					snapshot.timings[i].record(System.nanoTime() - startTime, !wasCancelled && ev.isCancelled());
+				}
+			} else if (snapshot.filtered) {
+				final PacketListener[] list = snapshot.listeners;
+				for (int i = 0; i < list.length; i++) {
+					if (snapshot.accepts(i, player, packet, id)) {
+						list[i].onPacketSend(ev);
+					}
+				}
+			} else {
+				for (PacketListener listener : snapshot.listeners) {
+					listener.onPacketSend(ev);
+				}
 			}
 			return !ev.isCancelled();
-		} else {
+		} finally {
+			if (cache != null) {
+				ev.reset(null, null);
+				cache.release();
+			}
+		}
+	}
+
+	/**
+	 * Passes a packet through the synchronous packet listeners only.
+	 * The packet is not recorded, not passed to the asynchronous packet listeners and not counted as traffic.
+	 * This is used to replay captured packets.
+	 * 
+	 * @param player the packet is sent to or received from
+	 * @param packet to pass through the listeners
+	 * @param id of the packet
+	 * @param sent True if the packet is sent, False if it is received
+	 * @return True if the packet is allowed, False if a listener cancelled it
+	 */
+	public boolean callPacketListeners(Player player, Object packet, int id, boolean sent) {
+		final PacketListenerRegistry.Snapshot snapshot = listeners.get(id);
+		if (snapshot.listeners.length == 0) {
 			return true;
+		} else if (sent) {
+			return callSendListeners(snapshot, player, packet, id);
+		} else {
+			return callReceiveListeners(snapshot, player, packet, id);
 		}
 	}
 
@@ -307,7 +860,7 @@ public class CommonPlugin extends PluginBase {
 		if(player == null || packet == null) {
 			return true;
 		}
-		return onPacketReceive(player, packet, PacketFields.DEFAULT.packetID.get(packet));
+		return onPacketReceive(player, packet, PacketFields.DEFAULT.packetIDInt.getInt(packet));
 	}
 
 	public boolean onPacketReceive(Player player, Object packet, int id) {
@@ -315,15 +868,145 @@ public class CommonPlugin extends PluginBase {
 			return true;
 		}
 
-		if (!LogicUtil.nullOrEmpty(listeners[id])) {
-			CommonPacket cp = new CommonPacket(packet, id);
-			PacketReceiveEvent ev = new PacketReceiveEvent(player, cp);
-			for(PacketListener listener : listeners[id]) {
-				listener.onPacketReceive(ev);
+		recorder.record(packet, id, false);
+		final PacketListenerRegistry.Snapshot snapshot = listeners.get(id);
+		if (snapshot.listeners.length > 0 && !callReceiveListeners(snapshot, player, packet, id)) {
+			return false;
+		}
+		asyncListeners.dispatch(player, packet, id, false);
+		return true;
+	}
+
+	private boolean callReceiveListeners(PacketListenerRegistry.Snapshot snapshot, Player player, Object packet, int id) {
+		// Filters are evaluated on the raw packet, no event is created if no listener handles it
+		if (snapshot.filtered && !snapshot.acceptsAny(player, packet, id)) {
+			return true;
+		}
+		final PacketEventCache cache = this.reusePacketEvents ? packetEventCache.get().acquire() : null;
+		final PacketReceiveEvent ev;
+		if (cache == null) {
+			ev = new PacketReceiveEvent(player, new CommonPacket(packet, id));
+		} else {
+			cache.packet.setHandle(packet, id);
+			ev = cache.receiveEvent;
+			ev.reset(player, cache.packet);
+		}
+		try {
+			if (this.timingsEnabled && this.timingsCountdown.decrementAndGet() <= 0) {
+				this.timingsCountdown.set(this.timingsInterval);
+				final PacketListener[] list = snapshot.listeners;
+				for (int i = 0; i < list.length; i++) {
+					if (!snapshot.accepts(i, player, packet, id)) {
+						continue;
+					}
+					final boolean wasCancelled = ev.isCancelled();
+					final long startTime = System.nanoTime();
+					list[i].onPacketReceive(ev);
+					snapshot.timings[i].record(System.nanoTime() - startTime, !wasCancelled && ev.isCancelled());
+				}
+			} else if (snapshot.filtered) {
+				final PacketListener[] list = snapshot.listeners;
+				for (int i = 0; i < list.length; i++) {
+					if (snapshot.accepts(i, player, packet, id)) {
+						list[i].onPacketReceive(ev);
+					}
+				}
+			} else {
+				for (PacketListener listener : snapshot.listeners) {
+					listener.onPacketReceive(ev);
+				}
 			}
 			return !ev.isCancelled();
-		} else {
-			return true;
+		} finally {
+			if (cache != null) {
+				ev.reset(null, null);
+				cache.release();
+			}
+		}
+	}
+
+	/**
+	 * Checks whether packets broadcast to multiple players are encoded once and handled by global listeners once
+	 * 
+	 * @return True if broadcasts are shared, False if they are sent to every player separately
+	 */
+	public boolean isSharingBroadcasts() {
+		return sharedBroadcasts;
+	}
+
+	/**
+	 * Sets whether packets broadcast to multiple players are encoded once and handled by global listeners once
+	 * 
+	 * @param shared option to set to
+	 */
+	public void setSharingBroadcasts(boolean shared) {
+		this.sharedBroadcasts = shared;
+	}
+
+	/**
+	 * Sends a packet to multiple players.
+	 * When sharing broadcasts is enabled and all listeners of the packet are global listeners,
+	 * the listeners are called once and the encoded packet data is shared by all players.
+	 * Otherwise the packet is sent to every player separately.<br>
+	 * Packets the player connection handles differently for every player, such as chat messages, and packets
+	 * ordered by the movement packet merger are always sent separately.
+	 * 
+	 * @param players to send the packet to
+	 * @param packet to send
+	 * @param throughListeners whether to pass the packet through the packet listeners
+	 */
+	public void broadcastPacket(List<Player> players, Object packet, boolean throughListeners) {
+		if (players.size() > 1 && this.sharedBroadcasts && !this.isProtocolLibEnabled && canShare(packet)) {
+			final int id = PacketFields.DEFAULT.packetIDInt.getInt(packet);
+			final PacketListenerRegistry.Snapshot snapshot = listeners.get(id);
+			if (!throughListeners || snapshot.global) {
+				if (throughListeners && snapshot.listeners.length > 0 && !callSendListeners(snapshot, null, packet, id)) {
+					return;
+				}
+				final CommonEncodedPacket encoded;
+				try {
+					encoded = new CommonEncodedPacket(packet);
+				} catch (Throwable t) {
+					log(Level.WARNING, "Failed to encode broadcast packet " + PacketType.fromId(id) + ", it is sent to every player separately");
+					sendSeparately(players, packet, throughListeners);
+					return;
+				}
+				for (Player player : players) {
+					if (PlayerUtil.isDisconnected(player)) {
+						continue;
+					}
+					if (throughListeners) {
+						recorder.record(packet, id, true);
+						asyncListeners.dispatch(player, packet, id, true);
+					}
+					final Object connection = EntityPlayerRef.playerConnection.get(Conversion.toEntityHandle.convert(player));
+					PlayerConnectionRef.sendPacket(connection, encoded);
+				}
+				return;
+			}
+		}
+		sendSeparately(players, packet, throughListeners);
+	}
+
+	/**
+	 * Checks whether the encoded data of a packet can be shared by multiple players.
+	 * This is not possible for packets the player connection handles before sending:
+	 * chat messages are split and filtered for every player and the spawn position sets the compass target.
+	 * Movement, spawn and destroy packets are not shared when merging movement packets, so they stay ordered.
+	 * 
+	 * @param packet to check
+	 * @return True if the packet can be shared, False if not
+	 */
+	private boolean canShare(Object packet) {
+		if (!PacketFields.DEFAULT.isInstance(packet) || PacketFields.CHAT.isInstance(packet) || PacketFields.SPAWN_POSITION.isInstance(packet)) {
+			return false;
+		}
+		return !this.mergeMovementPackets || !MovementPacketMerger.isManaged(packet);
+	}
+
+	private void sendSeparately(List<Player> players, Object packet, boolean throughListeners) {
+		for (Player player : players) {
+			sendPacket(player, packet, throughListeners);
 		}
 	}
 
@@ -344,12 +1027,14 @@ public class CommonPlugin extends PluginBase {
 
 	@Override
 	public void permissions() {
+		this.loadPermissions(CommonPermission.class);
 	}
 
 	@Override
 	public void updateDependency(Plugin plugin, String pluginName, boolean enabled) {
 		if (!enabled) {
 			removePacketListeners(plugin);
+			Conversion.clearCache();
 		}
 		if (pluginName.equals("Showcase")) {
 			this.isShowcaseEnabled = enabled;
@@ -383,12 +1068,8 @@ public class CommonPlugin extends PluginBase {
 				//Unregister previous PlayerConnection hooks
 				CommonPacketListener.unbindAll();
 				//Register all packets in ProtocolLib
-				Set<Integer> packets = new HashSet<Integer>(10);
-				for (int i = 0; i < listeners.length; i++) {
-					if (!LogicUtil.nullOrEmpty(listeners[i])) {
-						packets.add(i);
-					}
-				}
+				Set<Integer> packets = listeners.getListenedIds();
+				packets.addAll(asyncListeners.getListenedIds());
 				CommonProtocolLibHandler.register(packets);
 			} else {
 				//Now uses the onPlayerJoin method (see CommonListener) to deal with this
@@ -428,10 +1109,70 @@ public class CommonPlugin extends PluginBase {
 	@Override
 	public void onLoad() {
 		instance = this;
+		// Reuse the reflection lookups made the last time this server started
+		try {
+			ResolutionCache.load(getResolutionCacheFile(), getServerFingerprint());
+		} catch (IOException ex) {
+			log(Level.WARNING, "Failed to load the reflection cache: " + ex.getMessage());
+		}
 		// Load the classes contained in this library
 		CommonClasses.init();
 	}
 
+	private void logReflectionTimings(Map<String, Long> timings) {
+		final List<Map.Entry<String, Long>> entries = new ArrayList<Map.Entry<String, Long>>(timings.entrySet());
+		Collections.sort(entries, new Comparator<Map.Entry<String, Long>>() {
+			@Override
+			public int compare(Map.Entry<String, Long> o1, Map.Entry<String, Long> o2) {
+				return o2.getValue().compareTo(o1.getValue());
+			}
+		});
+		long total = 0;
+		for (Map.Entry<String, Long> entry : entries) {
+			total += entry.getValue().longValue();
+		}
+		log(Level.INFO, "Initialized " + entries.size() + " reflection classes in " + MathUtil.round(total / 1E6, 2) + " ms:");
+		for (Map.Entry<String, Long> entry : entries) {
+			log(Level.INFO, "    " + entry.getKey() + ": " + MathUtil.round(entry.getValue().longValue() / 1E6, 2) + " ms");
+		}
+	}
+
+	private File getResolutionCacheFile() {
+		return new File(getDataFolder(), "resolution.cache");
+	}
+
+	/**
+	 * Identifies the server and library version reflection lookups are made on.
+	 * The server jar is hashed using the name, size and checksum of every entry,
+	 * which are read from the jar index without reading the contents.
+	 */
+	private String getServerFingerprint() {
+		final StringBuilder fingerprint = new StringBuilder(100);
+		fingerprint.append(Common.NMS_ROOT);
+		try {
+			fingerprint.append(';').append(Bukkit.getVersion());
+			fingerprint.append(';').append(getDescription().getVersion());
+			final File jar = new File(Bukkit.getServer().getClass().getProtectionDomain().getCodeSource().getLocation().toURI());
+			final JarFile jarFile = new JarFile(jar);
+			try {
+				long hash = 1;
+				final Enumeration<JarEntry> entries = jarFile.entries();
+				while (entries.hasMoreElements()) {
+					final JarEntry entry = entries.nextElement();
+					hash = 31 * hash + entry.getName().hashCode();
+					hash = 31 * hash + entry.getSize();
+					hash = 31 * hash + entry.getCrc();
+				}
+				fingerprint.append(';').append(Long.toHexString(hash));
+			} finally {
+				jarFile.close();
+			}
+		} catch (Throwable t) {
+			// Not running from a jar or without a server, what is known so far will have to do
+		}
+		return fingerprint.toString();
+	}
+
 	@Override
 	public void disable() {
 		instance = null;
@@ -444,8 +1185,20 @@ public class CommonPlugin extends PluginBase {
 			task.stop();
 		}
 		startedTasks.clear();
+		// Stop the asynchronous packet listener workers
+		asyncListeners.stop();
+		recorder.stop();
+		chunkPackets.setEnabled(false);
+		playerIndex.clear();
 		// Transfer PlayerConnection from players back to default
+		CommonPacketListener.stopTickEndHandler();
 		CommonPacketListener.unbindAll();
+		// Store new reflection lookups for the next start
+		try {
+			ResolutionCache.save(getResolutionCacheFile());
+		} catch (IOException ex) {
+			log(Level.WARNING, "Failed to save the reflection cache: " + ex.getMessage());
+		}
 	}
 
 	@Override
@@ -486,6 +1239,66 @@ public class CommonPlugin extends PluginBase {
 			return;
 		}
 
+		// Load configuration
+		FileConfiguration config = new FileConfiguration(this);
+		config.load();
+		config.setHeader("reusePacketEvents", "Whether packet send and receive events are re-used instead of constructed for every packet");
+		config.addHeader("reusePacketEvents", "This reduces garbage on busy servers, but packet listeners may not keep a reference to the event or packet");
+		this.reusePacketEvents = config.get("reusePacketEvents", false);
+		config.setHeader("packetListenerTimings", "\nMeasures the time spent by the packet listeners of every plugin, use /bkcommonlib timings to view them");
+		config.addHeader("packetListenerTimings", "The sample interval sets how many packets are handled for every packet that is measured");
+		this.timingsEnabled = config.get("packetListenerTimings.enabled", false);
+		setListenerTimingsInterval(Math.max(1, config.get("packetListenerTimings.sampleInterval", 1)));
+		config.setHeader("asyncPacketListeners", "\nSettings for the queue through which packets are passed to asynchronous packet listeners");
+		config.addHeader("asyncPacketListeners", "When blocking is true, the connection thread waits when the queue is full, otherwise the packet is dropped");
+		final int asyncWorkers = config.get("asyncPacketListeners.workerThreads", 1);
+		final int asyncCapacity = config.get("asyncPacketListeners.queueCapacity", 10000);
+		final boolean asyncBlocking = config.get("asyncPacketListeners.blocking", false);
+		config.setHeader("bandwidthAccounting", "\nWhether the packets and bytes sent to every player are counted, use /bkcommonlib bandwidth to view them");
+		bandwidth.setEnabled(config.get("bandwidthAccounting", false));
+		config.setHeader("chunkPacketCache", "\nWhether compressed chunk packets are cached and sent to all players instead of compressing chunks for every player");
+		config.addHeader("chunkPacketCache", "Cached chunks are dropped when blocks change, or the least recently used when the memory limit (in MB) is exceeded");
+		config.addHeader("chunkPacketCache", "This is not used when ProtocolLib is installed or plugins listen for chunk packets");
+		chunkPackets.setMaxMemory(Math.max(1, config.get("chunkPacketCache.maxMemory", 32)) * 1024L * 1024L);
+		chunkPackets.setEnabled(config.get("chunkPacketCache.enabled", false));
+		config.setHeader("shareBroadcastPackets", "\nWhether packets broadcast to multiple players are encoded only once and shared by all players");
+		config.addHeader("shareBroadcastPackets", "Only used when all listeners of the packet are global listeners, which are then called only once");
+		this.sharedBroadcasts = config.get("shareBroadcastPackets", false);
+		config.setHeader("mergeMovementPackets", "\nWhether entity movement and look packets sent to a player in the same tick are merged into one packet");
+		config.addHeader("mergeMovementPackets", "Merged packets are sent at the end of the tick, this is not used when ProtocolLib is installed");
+		this.mergeMovementPackets = config.get("mergeMovementPackets", false);
+		config.setHeader("backpressure", "\nWhether low priority packets, such as chunk data, are held back for players that can not keep up");
+		config.addHeader("backpressure", "A player can not keep up when more than congestionThreshold KB is waiting to be sent to the player");
+		config.addHeader("backpressure", "Held back packets are sent in order once the queue has drained");
+		config.addHeader("backpressure", "When more than maxDeferredKB is held back, chunk data is no longer held back but sent again later");
+		config.addHeader("backpressure", "This is not used when ProtocolLib is installed");
+		backpressure.setThreshold(Math.max(1, config.get("backpressure.congestionThreshold", 256)) * 1024);
+		backpressure.setMaxDeferredBytes(Math.max(1, config.get("backpressure.maxDeferredKB", 1024)) * 1024);
+		backpressure.setThrottling(config.get("backpressure.throttleLowPriority", false));
+		config.setHeader("blockChangeCoalescing", "\nWhether block changes in the same chunk are combined into a single packet sent once per tick");
+		config.addHeader("blockChangeCoalescing", "When the amount of changes in a chunk reaches the threshold, the changed chunk sections are re-sent instead");
+		this.blockChangeCoalescing = config.get("blockChangeCoalescing.enabled", false);
+		blockChanges.setThreshold(config.get("blockChangeCoalescing.threshold", 64));
+		config.setHeader("reflection", "\nAll reflection classes are initialized on startup, so missing fields and methods are reported right away");
+		config.addHeader("reflection", "When lazyInit is true, reflection classes are instead initialized the first time they are used");
+		config.addHeader("reflection", "When logTimings is true, the time spent initializing every reflection class is logged on startup");
+		final boolean lazyReflection = config.get("reflection.lazyInit", false);
+		final boolean logReflectionTimings = config.get("reflection.logTimings", false);
+		config.addHeader("reflection", "When profiler is true, the calls made to reflection fields and methods are measured, use /bkcommonlib reflection to view them");
+		ReflectionProfiler.setEnabled(config.get("reflection.profiler", false));
+		config.save();
+
+		// Initialize reflection classes up front
+		if (!lazyReflection || logReflectionTimings) {
+			final Map<String, Long> timings = prewarmReflection();
+			if (logReflectionTimings) {
+				logReflectionTimings(timings);
+			}
+		}
+
+		// Start handling asynchronous packet listeners
+		asyncListeners.start(asyncWorkers, asyncCapacity, asyncBlocking);
+
 		// Register packet listener if ProtocolLib is not detected
 		if (CommonUtil.getPlugin("ProtocolLib") == null) {
 			CommonPacketListener.bindAll();
@@ -496,6 +1309,13 @@ public class CommonPlugin extends PluginBase {
 		startedTasks.add(new NextTickHandler(this).start(1, 1));
 		startedTasks.add(new MoveEventHandler(this).start(1, 1));
 		startedTasks.add(new EntityRemovalHandler(this).start(1, 1));
+		if (!CommonPacketListener.startTickEndHandler()) {
+			// Fall back to handling the end of the tick at the start of the next tick
+			startedTasks.add(new TickEndHandler(this).start(1, 1));
+		}
+		startedTasks.add(new PlayerIndexHandler(this).start(1, 20));
+		startedTasks.add(new BackpressureHandler(this).start(1, 1));
+		updatePlayerIndex();
 
 		// Register world listeners
 		for (World world : WorldUtil.getWorlds()) {
@@ -526,6 +1346,67 @@ public class CommonPlugin extends PluginBase {
 		}
 	}
 
+	/**
+	 * Stores the packet event instances re-used by a single thread while dispatching packets.
+	 * Nested dispatching (a listener sending a packet) falls back to constructing new events.
+	 */
+	private static class PacketEventCache {
+		public final CommonPacket packet = new CommonPacket(null, -1);
+		public final PacketSendEvent sendEvent = new PacketSendEvent(null, null);
+		public final PacketReceiveEvent receiveEvent = new PacketReceiveEvent(null, null);
+		private boolean inUse = false;
+
+		public PacketEventCache acquire() {
+			if (this.inUse) {
+				return null;
+			}
+			this.inUse = true;
+			return this;
+		}
+
+		public void release() {
+			this.packet.setHandle(null, -1);
+			this.inUse = false;
+		}
+	}
+
+	private static class TickEndHandler extends Task {
+		public TickEndHandler(JavaPlugin plugin) {
+			super(plugin);
+		}
+
+		@Override
+		public void run() {
+			getInstance().handleTickEnd();
+		}
+	}
+
+	private static class BackpressureHandler extends Task {
+		public BackpressureHandler(JavaPlugin plugin) {
+			super(plugin);
+		}
+
+		@Override
+		public void run() {
+			getInstance().backpressure.sample();
+			if (!getInstance().isProtocolLibEnabled) {
+				CommonPacketListener.flushAllDeferred(false);
+			}
+		}
+	}
+
+	private static class PlayerIndexHandler extends Task {
+		public PlayerIndexHandler(JavaPlugin plugin) {
+			super(plugin);
+		}
+
+		@Override
+		public void run() {
+			// Catches movement that fires no event, such as riding a vehicle
+			getInstance().updatePlayerIndex();
+		}
+	}
+
 	private static class EntityRemovalHandler extends Task {
 		public EntityRemovalHandler(JavaPlugin plugin) {
 			super(plugin);
@@ -634,8 +1515,212 @@ public class CommonPlugin extends PluginBase {
 		}
 	}
 
+	private File getCaptureFile(String name) {
+		return new File(new File(getDataFolder(), "captures"), name.endsWith(".bkcap") ? name : name + ".bkcap");
+	}
+
 	@Override
 	public boolean command(CommandSender sender, String command, String[] args) {
+		if (args.length == 0) {
+			return false;
+		}
+		final String subCommand = args[0].toLowerCase(Locale.ENGLISH);
+		if (subCommand.equals("timings")) {
+			CommonPermission.DEBUG.handle(sender);
+			final String action = args.length >= 2 ? args[1].toLowerCase(Locale.ENGLISH) : "";
+			if (action.equals("on")) {
+				if (args.length >= 3) {
+					setListenerTimingsInterval(Math.max(1, ParseUtil.parseInt(args[2], 1)));
+				}
+				setListenerTimingsEnabled(true);
+				sender.sendMessage(ChatColor.GREEN + "Packet listener timings enabled, sampling 1 out of every " + getListenerTimingsInterval() + " packets");
+			} else if (action.equals("off")) {
+				setListenerTimingsEnabled(false);
+				sender.sendMessage(ChatColor.YELLOW + "Packet listener timings disabled");
+			} else if (action.equals("reset")) {
+				resetListenerTimings();
+				sender.sendMessage(ChatColor.YELLOW + "Packet listener timings have been reset");
+			} else {
+				final int limit = ParseUtil.parseInt(action, 10);
+				final List<PacketListenerTiming> timings = getListenerTimings();
+				sender.sendMessage(ChatColor.YELLOW + "Packet listener timings (" + (isListenerTimingsEnabled() ? "enabled" : "disabled") + 
+						", sampling 1 out of every " + getListenerTimingsInterval() + " packets):");
+				if (timings.isEmpty()) {
+					sender.sendMessage(ChatColor.RED + "No packet listener invocations were measured");
+				}
+				for (int i = 0; i < timings.size() && i < limit; i++) {
+					sender.sendMessage(ChatColor.WHITE + timings.get(i).toString());
+				}
+			}
+			return true;
+		} else if (subCommand.equals("reflection")) {
+			CommonPermission.DEBUG.handle(sender);
+			final String action = args.length >= 2 ? args[1].toLowerCase(Locale.ENGLISH) : "";
+			if (action.equals("on")) {
+				ReflectionProfiler.setEnabled(true);
+				sender.sendMessage(ChatColor.GREEN + "Reflection profiler enabled");
+			} else if (action.equals("off")) {
+				ReflectionProfiler.setEnabled(false);
+				sender.sendMessage(ChatColor.YELLOW + "Reflection profiler disabled");
+			} else if (action.equals("reset")) {
+				ReflectionProfiler.reset();
+				sender.sendMessage(ChatColor.YELLOW + "Reflection profiler has been reset");
+			} else {
+				final List<AccessorProfile> profiles = ReflectionProfiler.getTop(ParseUtil.parseInt(action, 10));
+				sender.sendMessage(ChatColor.YELLOW + "Reflection accessor timings (" + (ReflectionProfiler.isEnabled() ? "enabled" : "disabled") + "):");
+				if (profiles.isEmpty()) {
+					sender.sendMessage(ChatColor.RED + "No reflection accessor calls were measured");
+				}
+				for (AccessorProfile profile : profiles) {
+					sender.sendMessage(ChatColor.WHITE + profile.toString());
+				}
+			}
+			return true;
+		} else if (subCommand.equals("bandwidth")) {
+			CommonPermission.DEBUG.handle(sender);
+			final String action = args.length >= 2 ? args[1] : "";
+			if (action.equalsIgnoreCase("on")) {
+				setBandwidthAccountingEnabled(true);
+				sender.sendMessage(ChatColor.GREEN + "Bandwidth accounting enabled");
+				return true;
+			} else if (action.equalsIgnoreCase("off")) {
+				setBandwidthAccountingEnabled(false);
+				sender.sendMessage(ChatColor.YELLOW + "Bandwidth accounting disabled");
+				return true;
+			}
+			Player player = null;
+			if (action.length() > 0) {
+				player = Bukkit.getPlayer(action);
+				if (player == null) {
+					sender.sendMessage(ChatColor.RED + "Player '" + action + "' is not online");
+					return true;
+				}
+			}
+			if (!isBandwidthAccountingEnabled()) {
+				sender.sendMessage(ChatColor.RED + "Bandwidth accounting is disabled, use /bkcommonlib bandwidth on to enable it");
+				return true;
+			}
+			sender.sendMessage(ChatColor.YELLOW + "Sent to " + (player == null ? "all players" : player.getName()) + " (1s / 10s / 60s): " + ChatColor.WHITE + 
+					getSentBytes(player, -1, 1) + " / " + getSentBytes(player, -1, 10) + " / " + getSentBytes(player, -1, 60) + " bytes");
+			// Show the packet types with the most traffic during the last 10 seconds
+			final List<PacketType> types = new ArrayList<PacketType>();
+			final Map<PacketType, Long> typeBytes = new HashMap<PacketType, Long>();
+			for (PacketType type : PacketType.values()) {
+				if (type != PacketType.UNKNOWN) {
+					final long bytes = getSentBytes(player, type.getId(), 10);
+					if (bytes > 0) {
+						types.add(type);
+						typeBytes.put(type, bytes);
+					}
+				}
+			}
+			Collections.sort(types, new Comparator<PacketType>() {
+				@Override
+				public int compare(PacketType o1, PacketType o2) {
+					return typeBytes.get(o2).compareTo(typeBytes.get(o1));
+				}
+			});
+			for (int i = 0; i < types.size() && i < 10; i++) {
+				final PacketType type = types.get(i);
+				sender.sendMessage(ChatColor.WHITE + type.toString() + ": " + typeBytes.get(type) + " bytes, " + 
+						getSentPackets(player, type.getId(), 10) + " packets in the last 10s");
+			}
+			return true;
+		} else if (subCommand.equals("capture")) {
+			CommonPermission.DEBUG.handle(sender);
+			final String action = args.length >= 2 ? args[1].toLowerCase(Locale.ENGLISH) : "";
+			if (action.equals("start")) {
+				final File file = getCaptureFile(args.length >= 3 ? args[2] : "capture-" + System.currentTimeMillis());
+				try {
+					startPacketCapture(file);
+					sender.sendMessage(ChatColor.GREEN + "Recording packets to " + file.getPath());
+				} catch (IOException ex) {
+					sender.sendMessage(ChatColor.RED + "Failed to start packet capture: " + ex.getMessage());
+				}
+			} else if (action.equals("stop")) {
+				final File file = recorder.getFile();
+				stopPacketCapture();
+				if (file == null) {
+					sender.sendMessage(ChatColor.RED + "No packets are being recorded");
+				} else {
+					sender.sendMessage(ChatColor.YELLOW + "Recorded " + recorder.getRecordCount() + " packets to " + file.getPath());
+					if (recorder.getDropCount() > 0) {
+						sender.sendMessage(ChatColor.RED + "" + recorder.getDropCount() + " packets were not recorded because the capture writer could not keep up");
+					}
+				}
+			} else if (isCapturingPackets()) {
+				sender.sendMessage(ChatColor.YELLOW + "Recorded " + recorder.getRecordCount() + " packets to " + recorder.getFile().getPath() + " so far");
+			} else {
+				sender.sendMessage(ChatColor.YELLOW + "No packets are being recorded, use /bkcommonlib capture start [name] to start");
+			}
+			return true;
+		} else if (subCommand.equals("replay")) {
+			CommonPermission.DEBUG.handle(sender);
+			if (args.length < 2) {
+				sender.sendMessage(ChatColor.RED + "Please specify the name of the packet capture to replay");
+				return true;
+			}
+			if (isCapturingPackets()) {
+				sender.sendMessage(ChatColor.RED + "Can not replay packets while packets are being recorded");
+				return true;
+			}
+			if (replaying) {
+				sender.sendMessage(ChatColor.RED + "A packet capture is already being replayed");
+				return true;
+			}
+			final Location location;
+			if (sender instanceof Player) {
+				location = ((Player) sender).getLocation();
+			} else {
+				location = WorldUtil.getWorlds().iterator().next().getSpawnLocation();
+			}
+			final int runs = args.length >= 3 ? Math.max(1, ParseUtil.parseInt(args[2], 1)) : 1;
+			final PacketReplay replay;
+			try {
+				replay = new PacketReplay(getCaptureFile(args[1]));
+			} catch (IOException ex) {
+				sender.sendMessage(ChatColor.RED + "Failed to load packet capture: " + ex.getMessage());
+				return true;
+			}
+			// Replay on a separate thread, like packets are handled by the connection threads
+			final CommandSender replaySender = sender;
+			replaying = true;
+			sender.sendMessage(ChatColor.YELLOW + "Replaying " + replay.size() + " packets " + runs + " time(s)...");
+			new AsyncTask("BKCommonLib packet replay") {
+				public void run() {
+					String error = null;
+					try {
+						replay.replay(location, runs);
+					} catch (Throwable t) {
+						log(Level.SEVERE, "An error occurred while replaying packets:");
+						CommonUtil.filterStackTrace(t).printStackTrace();
+						error = t.toString();
+					}
+					final String replayError = error;
+					nextTick(new Runnable() {
+						public void run() {
+							replaying = false;
+							if (replayError != null) {
+								replaySender.sendMessage(ChatColor.RED + "Failed to replay packets: " + replayError);
+								return;
+							}
+							replaySender.sendMessage(ChatColor.YELLOW + "Replayed " + replay.getPacketCount() + " packets (" + replay.getCancelledCount() + " cancelled) in " + 
+									(replay.getTotalTime() / 1000000) + " ms");
+							replaySender.sendMessage(ChatColor.YELLOW + "Throughput: " + ChatColor.WHITE + Math.round(replay.getThroughput()) + " packets/s" + 
+									ChatColor.YELLOW + ", avg " + ChatColor.WHITE + Math.round(replay.getAverageTime() / 1E3) + " us" + 
+									ChatColor.YELLOW + ", max " + ChatColor.WHITE + (replay.getMaxTime() / 1000) + " us");
+						}
+					});
+				}
+			}.start();
+			return true;
+		} else if (subCommand.equals("async")) {
+			CommonPermission.DEBUG.handle(sender);
+			sender.sendMessage(ChatColor.YELLOW + "Asynchronous packet listener queue: " + ChatColor.WHITE + asyncListeners.getQueueSize() + 
+					"/" + asyncListeners.getQueueCapacity() + ChatColor.YELLOW + " packets, " + ChatColor.WHITE + asyncListeners.getDropCount() + 
+					ChatColor.YELLOW + " dropped");
+			return true;
+		}
 		return false;
 	}
 }
\ No newline at end of file
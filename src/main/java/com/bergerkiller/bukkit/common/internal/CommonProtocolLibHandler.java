@@ -85,7 +85,7 @@ class CommonProtocolLibHandler {
 
 	public static void sendPacket(Player player, Object packet, boolean throughListeners) {
 		ProtocolManager pm = ProtocolLibrary.getProtocolManager();
-		PacketContainer toSend = new PacketContainer(PacketFields.DEFAULT.packetID.get(packet), packet);
+		PacketContainer toSend = new PacketContainer(PacketFields.DEFAULT.packetIDInt.getInt(packet), packet);
 		try {
 			pm.sendServerPacket(player, toSend, throughListeners);
 		} catch (InvocationTargetException e) {
@@ -25,6 +25,15 @@ class CommonSilentPacket extends Packet {
 		this.packet = (Packet) packet;
 	}
 
+	/**
+	 * Gets the packet that is wrapped
+	 * 
+	 * @return wrapped packet
+	 */
+	public Packet getPacket() {
+		return this.packet;
+	}
+
 	/**
 	 * This method is called NetworkManager.a(Packet packet, boolean flag) right before queuing.
 	 * We expect this method to not be called before sending...if it is we have a BIG issue with compatibility here!
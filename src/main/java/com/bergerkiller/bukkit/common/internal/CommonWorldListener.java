@@ -84,6 +84,7 @@ class CommonWorldListener extends WorldManager {
 	@Override
 	public final void a(int arg0, int arg1, int arg2) {
 		// Block notify (physics)
+		CommonPlugin.getInstance().chunkPackets.invalidate(this.world.getWorld(), arg0 >> 4, arg2 >> 4);
 	}
 
 	@Override
@@ -104,6 +105,8 @@ class CommonWorldListener extends WorldManager {
 
 	@Override
 	public void b(int x, int y, int z) {
+		// Block render update (lighting)
+		CommonPlugin.getInstance().chunkPackets.invalidate(this.world.getWorld(), x >> 4, z >> 4);
 	}
 
 	@Override
@@ -112,5 +115,7 @@ class CommonWorldListener extends WorldManager {
 
 	@Override
 	public void a(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5) {
+		// Block range render update
+		CommonPlugin.getInstance().chunkPackets.invalidate(this.world.getWorld(), arg0 >> 4, arg2 >> 4, arg3 >> 4, arg5 >> 4);
 	}
 }
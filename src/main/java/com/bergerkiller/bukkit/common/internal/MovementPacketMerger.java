@@ -0,0 +1,220 @@
+package com.bergerkiller.bukkit.common.internal;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bergerkiller.bukkit.common.protocol.PacketFields;
+
+/**
+ * Holds back the entity movement and look packets sent to a single player during a tick.<br>
+ * Multiple movement and look packets for the same entity are merged into the single packet
+ * that results in the same final position and rotation. The merged packets are sent when flushed.
+ * Packets that spawn, destroy or attach entities are ordered with the held back packets.
+ */
+class MovementPacketMerger {
+	private final Map<Integer, Movement> pending = new LinkedHashMap<Integer, Movement>();
+
+	/**
+	 * Checks whether a packet is a movement or look packet that can be merged
+	 * 
+	 * @param packet to check
+	 * @return True if the packet can be merged, False if not
+	 */
+	public static boolean isMovement(Object packet) {
+		return PacketFields.REL_ENTITY_MOVE.isInstance(packet) || PacketFields.ENTITY_LOOK.isInstance(packet)
+				|| PacketFields.REL_ENTITY_MOVE_LOOK.isInstance(packet) || PacketFields.ENTITY_TELEPORT.isInstance(packet);
+	}
+
+	/**
+	 * Checks whether a packet is handled by the merger: a movement packet, or a packet that
+	 * spawns, destroys or attaches entities that is ordered with the held back movement packets
+	 * 
+	 * @param packet to check
+	 * @return True if the packet is handled by the merger, False if not
+	 */
+	public static boolean isManaged(Object packet) {
+		return isMovement(packet) || PacketFields.DESTROY_ENTITY.isInstance(packet) || PacketFields.NAMED_ENTITY_SPAWN.isInstance(packet)
+				|| PacketFields.VEHICLE_SPAWN.isInstance(packet) || PacketFields.MOB_SPAWN.isInstance(packet)
+				|| PacketFields.ENTITY_PAINTING.isInstance(packet) || PacketFields.ADD_EXP_ORB.isInstance(packet)
+				|| PacketFields.ATTACH_ENTITY.isInstance(packet) || PacketFields.RESPAWN.isInstance(packet);
+	}
+
+	private static Integer getEntityId(Object packet) {
+		if (PacketFields.REL_ENTITY_MOVE.isInstance(packet)) {
+			return PacketFields.REL_ENTITY_MOVE.entityId.get(packet);
+		} else if (PacketFields.ENTITY_LOOK.isInstance(packet)) {
+			return PacketFields.ENTITY_LOOK.entityId.get(packet);
+		} else if (PacketFields.REL_ENTITY_MOVE_LOOK.isInstance(packet)) {
+			return PacketFields.REL_ENTITY_MOVE_LOOK.entityId.get(packet);
+		} else {
+			return PacketFields.ENTITY_TELEPORT.entityId.get(packet);
+		}
+	}
+
+	/**
+	 * Holds back a movement or look packet, merging it with the packets held back for the same entity.
+	 * When the packet can not be merged, the previously held back packet is returned and should be sent right away.
+	 * 
+	 * @param packet to hold back
+	 * @return packet to send right away, or null if none
+	 */
+	public synchronized Object add(Object packet) {
+		final Integer entityId = getEntityId(packet);
+		Movement movement = pending.get(entityId);
+		if (movement == null) {
+			movement = new Movement(entityId);
+			movement.apply(packet);
+			pending.put(entityId, movement);
+			return null;
+		}
+		if (movement.apply(packet)) {
+			return null;
+		}
+		// Too large to merge: send what we have and start over
+		final Object merged = movement.createPacket();
+		movement = new Movement(entityId);
+		movement.apply(packet);
+		pending.put(entityId, movement);
+		return merged;
+	}
+
+	/**
+	 * Prepares for a packet that is not a movement packet being sent.
+	 * Held back packets of destroyed or (re)spawned entities are discarded.
+	 * When the packet changes how entities are positioned, all held back packets are returned to be sent first.
+	 * 
+	 * @param packet that is about to be sent
+	 * @return packets to send before the packet, or null if none
+	 */
+	public synchronized List<Object> prepare(Object packet) {
+		if (pending.isEmpty()) {
+			return null;
+		}
+		if (PacketFields.DESTROY_ENTITY.isInstance(packet)) {
+			for (int entityId : PacketFields.DESTROY_ENTITY.entityIds.get(packet)) {
+				pending.remove(entityId);
+			}
+		} else if (PacketFields.NAMED_ENTITY_SPAWN.isInstance(packet)) {
+			pending.remove(PacketFields.NAMED_ENTITY_SPAWN.entityId.get(packet));
+		} else if (PacketFields.VEHICLE_SPAWN.isInstance(packet)) {
+			pending.remove(PacketFields.VEHICLE_SPAWN.entityId.get(packet));
+		} else if (PacketFields.MOB_SPAWN.isInstance(packet)) {
+			pending.remove(PacketFields.MOB_SPAWN.entityId.get(packet));
+		} else if (PacketFields.ENTITY_PAINTING.isInstance(packet)) {
+			pending.remove(PacketFields.ENTITY_PAINTING.entityId.get(packet));
+		} else if (PacketFields.ADD_EXP_ORB.isInstance(packet)) {
+			pending.remove(PacketFields.ADD_EXP_ORB.entityId.get(packet));
+		} else if (PacketFields.ATTACH_ENTITY.isInstance(packet) || PacketFields.RESPAWN.isInstance(packet)) {
+			return flush();
+		}
+		return null;
+	}
+
+	/**
+	 * Removes all held back packets, merged into the minimal amount of packets
+	 * 
+	 * @return merged packets to send, or null if none
+	 */
+	public synchronized List<Object> flush() {
+		if (pending.isEmpty()) {
+			return null;
+		}
+		List<Object> packets = new ArrayList<Object>(pending.size());
+		Iterator<Movement> iter = pending.values().iterator();
+		while (iter.hasNext()) {
+			Object packet = iter.next().createPacket();
+			if (packet != null) {
+				packets.add(packet);
+			}
+			iter.remove();
+		}
+		return packets;
+	}
+
+	private static class Movement {
+		private final int entityId;
+		private boolean teleport, moved, looked;
+		private int x, y, z;
+		private byte yaw, pitch;
+
+		public Movement(int entityId) {
+			this.entityId = entityId;
+		}
+
+		/**
+		 * Applies a movement packet on top of the current movement
+		 * 
+		 * @param packet to apply
+		 * @return True if applied, False if the result can not be represented by a single packet
+		 */
+		public boolean apply(Object packet) {
+			if (PacketFields.ENTITY_TELEPORT.isInstance(packet)) {
+				teleport = true;
+				x = PacketFields.ENTITY_TELEPORT.x.get(packet);
+				y = PacketFields.ENTITY_TELEPORT.y.get(packet);
+				z = PacketFields.ENTITY_TELEPORT.z.get(packet);
+				yaw = PacketFields.ENTITY_TELEPORT.yaw.get(packet);
+				pitch = PacketFields.ENTITY_TELEPORT.pitch.get(packet);
+				return true;
+			}
+			if (PacketFields.REL_ENTITY_MOVE_LOOK.isInstance(packet)) {
+				if (!move(PacketFields.REL_ENTITY_MOVE_LOOK.dx.get(packet), PacketFields.REL_ENTITY_MOVE_LOOK.dy.get(packet),
+						PacketFields.REL_ENTITY_MOVE_LOOK.dz.get(packet))) {
+					return false;
+				}
+				look(PacketFields.REL_ENTITY_MOVE_LOOK.dyaw.get(packet), PacketFields.REL_ENTITY_MOVE_LOOK.dpitch.get(packet));
+			} else if (PacketFields.REL_ENTITY_MOVE.isInstance(packet)) {
+				return move(PacketFields.REL_ENTITY_MOVE.dx.get(packet), PacketFields.REL_ENTITY_MOVE.dy.get(packet),
+						PacketFields.REL_ENTITY_MOVE.dz.get(packet));
+			} else if (PacketFields.ENTITY_LOOK.isInstance(packet)) {
+				look(PacketFields.ENTITY_LOOK.dyaw.get(packet), PacketFields.ENTITY_LOOK.dpitch.get(packet));
+			}
+			return true;
+		}
+
+		private boolean move(int dx, int dy, int dz) {
+			if (!teleport && (!isByte(x + dx) || !isByte(y + dy) || !isByte(z + dz))) {
+				return false;
+			}
+			x += dx;
+			y += dy;
+			z += dz;
+			moved = true;
+			return true;
+		}
+
+		private void look(byte yaw, byte pitch) {
+			this.yaw = yaw;
+			this.pitch = pitch;
+			this.looked = true;
+		}
+
+		private static boolean isByte(int value) {
+			return value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE;
+		}
+
+		/**
+		 * Creates the single packet equivalent to all applied packets
+		 * 
+		 * @return merged packet, or null if the packets cancel out
+		 */
+		public Object createPacket() {
+			if (teleport) {
+				return PacketFields.ENTITY_TELEPORT.newInstance(entityId, x, y, z, yaw, pitch);
+			}
+			final boolean hasMovement = moved && (x != 0 || y != 0 || z != 0);
+			if (hasMovement && looked) {
+				return PacketFields.REL_ENTITY_MOVE_LOOK.newInstance(entityId, (byte) x, (byte) y, (byte) z, yaw, pitch);
+			} else if (hasMovement) {
+				return PacketFields.REL_ENTITY_MOVE.newInstance(entityId, (byte) x, (byte) y, (byte) z);
+			} else if (looked) {
+				return PacketFields.ENTITY_LOOK.newInstance(entityId, yaw, pitch);
+			} else {
+				return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,313 @@
+package com.bergerkiller.bukkit.common.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import com.bergerkiller.bukkit.common.protocol.GlobalPacketListener;
+import com.bergerkiller.bukkit.common.protocol.PacketFilter;
+import com.bergerkiller.bukkit.common.protocol.PacketListener;
+import com.bergerkiller.bukkit.common.protocol.PacketListenerTiming;
+import com.bergerkiller.bukkit.common.protocol.PacketType;
+
+/**
+ * Stores the packet listeners registered for every packet id.<br>
+ * Registering and unregistering copies the listeners of the affected packet ids into new arrays,
+ * which are then published. Threads handling packets read these arrays without locking.
+ */
+class PacketListenerRegistry {
+	public static final int PACKET_COUNT = 256;
+	private static final Snapshot EMPTY = new Snapshot(new PacketListener[0], new Plugin[0], new PacketListenerTiming[0], new PacketFilter[0]);
+	private final AtomicReferenceArray<Snapshot> snapshots = new AtomicReferenceArray<Snapshot>(PACKET_COUNT);
+	// The lists are unmodifiable and replaced as a whole, so they can be handed out safely
+	private final Map<Plugin, List<PacketListener>> listenerPlugins = new HashMap<Plugin, List<PacketListener>>();
+	private final Map<Plugin, PacketListenerTiming[]> timings = new HashMap<Plugin, PacketListenerTiming[]>();
+
+	public PacketListenerRegistry() {
+		for (int i = 0; i < PACKET_COUNT; i++) {
+			snapshots.set(i, EMPTY);
+		}
+	}
+
+	/**
+	 * Gets the current snapshot of listeners registered for a packet id.
+	 * The returned snapshot is never modified.
+	 * 
+	 * @param id of the packet
+	 * @return listener snapshot, empty if none are registered or the id is invalid
+	 */
+	public Snapshot get(int id) {
+		return (id >= 0 && id < PACKET_COUNT) ? snapshots.get(id) : EMPTY;
+	}
+
+	/**
+	 * Checks whether any listeners are registered for a packet id
+	 * 
+	 * @param id of the packet
+	 * @return True if listeners are registered, False if not
+	 */
+	public boolean hasListeners(int id) {
+		return get(id).listeners.length > 0;
+	}
+
+	/**
+	 * Gets all the packet ids for which at least one listener is registered
+	 * 
+	 * @return set of listened packet ids
+	 */
+	public Set<Integer> getListenedIds() {
+		Set<Integer> ids = new LinkedHashSet<Integer>();
+		for (int i = 0; i < PACKET_COUNT; i++) {
+			if (snapshots.get(i).listeners.length > 0) {
+				ids.add(i);
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Registers a listener owned by a plugin for the packet ids specified
+	 * 
+	 * @param plugin owning the listener
+	 * @param listener to register
+	 * @param ids of the packets to register the listener for
+	 * @param filter deciding which packets the listener handles, null to handle all packets
+	 */
+	public synchronized void add(Plugin plugin, PacketListener listener, int[] ids, PacketFilter filter) {
+		for (int id : ids) {
+			if (id < 0 || id >= PACKET_COUNT) {
+				throw new IllegalArgumentException("Unknown packet type Id: " + id);
+			}
+		}
+		for (int id : ids) {
+			Snapshot old = snapshots.get(id);
+			PacketListener[] listeners = Arrays.copyOf(old.listeners, old.listeners.length + 1);
+			Plugin[] owners = Arrays.copyOf(old.owners, old.owners.length + 1);
+			PacketListenerTiming[] timings = Arrays.copyOf(old.timings, old.timings.length + 1);
+			PacketFilter[] filters = Arrays.copyOf(old.filters, old.filters.length + 1);
+			listeners[old.listeners.length] = listener;
+			owners[old.owners.length] = plugin;
+			timings[old.timings.length] = getTiming(plugin, id);
+			filters[old.filters.length] = filter;
+			snapshots.set(id, new Snapshot(listeners, owners, timings, filters));
+		}
+		List<PacketListener> list = listenerPlugins.get(plugin);
+		if (list == null) {
+			listenerPlugins.put(plugin, Collections.singletonList(listener));
+		} else if (!list.contains(listener)) {
+			List<PacketListener> updated = new ArrayList<PacketListener>(list.size() + 1);
+			updated.addAll(list);
+			updated.add(listener);
+			listenerPlugins.put(plugin, Collections.unmodifiableList(updated));
+		}
+	}
+
+	/**
+	 * Unregisters a listener for all packet ids
+	 * 
+	 * @param listener to unregister
+	 */
+	public synchronized void remove(PacketListener listener) {
+		for (int id = 0; id < PACKET_COUNT; id++) {
+			Snapshot old = snapshots.get(id);
+			int count = 0;
+			for (PacketListener l : old.listeners) {
+				if (l != listener) {
+					count++;
+				}
+			}
+			if (count == old.listeners.length) {
+				continue;
+			}
+			PacketListener[] listeners = new PacketListener[count];
+			Plugin[] owners = new Plugin[count];
+			PacketListenerTiming[] timings = new PacketListenerTiming[count];
+			PacketFilter[] filters = new PacketFilter[count];
+			for (int i = 0, j = 0; i < old.listeners.length; i++) {
+				if (old.listeners[i] != listener) {
+					listeners[j] = old.listeners[i];
+					owners[j] = old.owners[i];
+					timings[j] = old.timings[i];
+					filters[j] = old.filters[i];
+					j++;
+				}
+			}
+			snapshots.set(id, count == 0 ? EMPTY : new Snapshot(listeners, owners, timings, filters));
+		}
+		// Remove from plugin list, if empty afterwards remove the entire entry
+		for (Plugin plugin : listenerPlugins.keySet().toArray(new Plugin[0])) {
+			List<PacketListener> list = listenerPlugins.get(plugin);
+			if (!list.contains(listener)) {
+				continue;
+			}
+			List<PacketListener> updated = new ArrayList<PacketListener>(list);
+			updated.remove(listener);
+			if (updated.isEmpty()) {
+				listenerPlugins.remove(plugin);
+			} else {
+				listenerPlugins.put(plugin, Collections.unmodifiableList(updated));
+			}
+		}
+	}
+
+	/**
+	 * Unregisters all the listeners owned by a plugin
+	 * 
+	 * @param plugin to unregister the listeners of
+	 */
+	public synchronized void removeAll(Plugin plugin) {
+		List<PacketListener> list = listenerPlugins.get(plugin);
+		if (list != null) {
+			for (PacketListener listener : list.toArray(new PacketListener[0])) {
+				remove(listener);
+			}
+		}
+		timings.remove(plugin);
+	}
+
+	private PacketListenerTiming getTiming(Plugin plugin, int id) {
+		PacketListenerTiming[] pluginTimings = timings.get(plugin);
+		if (pluginTimings == null) {
+			pluginTimings = new PacketListenerTiming[PACKET_COUNT];
+			timings.put(plugin, pluginTimings);
+		}
+		if (pluginTimings[id] == null) {
+			pluginTimings[id] = new PacketListenerTiming(plugin, PacketType.fromId(id));
+		}
+		return pluginTimings[id];
+	}
+
+	/**
+	 * Gets the listener timings of all plugins and packet types that were measured at least once
+	 * 
+	 * @return listener timings, sorted by total time spent
+	 */
+	public synchronized List<PacketListenerTiming> getTimings() {
+		List<PacketListenerTiming> result = new ArrayList<PacketListenerTiming>();
+		for (PacketListenerTiming[] pluginTimings : timings.values()) {
+			for (PacketListenerTiming timing : pluginTimings) {
+				if (timing != null && timing.getInvocations() > 0) {
+					result.add(timing);
+				}
+			}
+		}
+		Collections.sort(result, PacketListenerTiming.BY_TOTAL_TIME);
+		return result;
+	}
+
+	/**
+	 * Resets the listener timings of all plugins and packet types
+	 */
+	public synchronized void resetTimings() {
+		for (PacketListenerTiming[] pluginTimings : timings.values()) {
+			for (PacketListenerTiming timing : pluginTimings) {
+				if (timing != null) {
+					timing.reset();
+				}
+			}
+		}
+	}
+
+	/**
+	 * An immutable view on the listeners registered for a single packet id
+	 */
+	public static final class Snapshot {
+		/**
+		 * The listeners, in order of registration
+		 */
+		public final PacketListener[] listeners;
+		/**
+		 * The plugin owning the listener at the same index
+		 */
+		public final Plugin[] owners;
+		/**
+		 * The timing of the plugin owning the listener at the same index
+		 */
+		public final PacketListenerTiming[] timings;
+		/**
+		 * The filter of the listener at the same index, null if the listener handles all packets
+		 */
+		public final PacketFilter[] filters;
+		/**
+		 * Whether any of the listeners has a filter
+		 */
+		public final boolean filtered;
+		/**
+		 * All the distinct plugins listening
+		 */
+		public final Collection<Plugin> plugins;
+		/**
+		 * Whether all listeners are global packet listeners without a filter
+		 */
+		public final boolean global;
+
+		private Snapshot(PacketListener[] listeners, Plugin[] owners, PacketListenerTiming[] timings, PacketFilter[] filters) {
+			this.listeners = listeners;
+			this.owners = owners;
+			this.timings = timings;
+			this.filters = filters;
+			this.plugins = Collections.unmodifiableCollection(new LinkedHashSet<Plugin>(Arrays.asList(owners)));
+			boolean global = true;
+			for (PacketListener listener : listeners) {
+				if (!(listener instanceof GlobalPacketListener)) {
+					global = false;
+					break;
+				}
+			}
+			boolean filtered = false;
+			for (PacketFilter filter : filters) {
+				if (filter != null) {
+					filtered = true;
+					break;
+				}
+			}
+			this.filtered = filtered;
+			// Filters may depend on the player, which is unknown when sharing a broadcast
+			this.global = global && !filtered;
+		}
+
+		/**
+		 * Checks whether the listener at an index handles a packet
+		 * 
+		 * @param index of the listener
+		 * @param player the packet is sent to or received from
+		 * @param packet handle
+		 * @param id of the packet
+		 * @return True if the listener handles the packet, False if its filter rejects it
+		 */
+		public boolean accepts(int index, Player player, Object packet, int id) {
+			final PacketFilter filter = filters[index];
+			return filter == null || filter.accept(player, packet, id);
+		}
+
+		/**
+		 * Checks whether any of the listeners handles a packet
+		 * 
+		 * @param player the packet is sent to or received from
+		 * @param packet handle
+		 * @param id of the packet
+		 * @return True if at least one listener handles the packet, False if all filters reject it
+		 */
+		public boolean acceptsAny(Player player, Object packet, int id) {
+			if (!filtered) {
+				return listeners.length > 0;
+			}
+			for (int i = 0; i < filters.length; i++) {
+				if (accepts(i, player, packet, id)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
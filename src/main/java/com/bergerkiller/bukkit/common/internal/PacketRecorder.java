@@ -0,0 +1,219 @@
+package com.bergerkiller.bukkit.common.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import net.minecraft.server.v1_4_R1.Packet;
+
+import org.bukkit.Bukkit;
+
+import com.bergerkiller.bukkit.common.AsyncTask;
+import com.bergerkiller.bukkit.common.protocol.PacketReplay;
+
+/**
+ * Records the packets sent and received into a binary capture file that can be replayed using {@link PacketReplay}.<br>
+ * Packets are recorded before the packet listeners handle them, so a replay reproduces the full listener workload.
+ * Every record stores the direction, packet id, time since the capture started and the packet data
+ * as the packet itself writes it to the network.<br>
+ * Recording a packet encodes it right away on the calling thread, so later changes made by the listeners
+ * or the network thread do not end up in the capture. A separate writer thread writes the encoded packets to the file.
+ * When the writer can not keep up and the queue is full, packets are not recorded.
+ */
+class PacketRecorder {
+	private static final int QUEUE_CAPACITY = 8192;
+	private final AtomicLong recordCount = new AtomicLong();
+	private final AtomicLong dropCount = new AtomicLong();
+	private volatile Writer writer = null;
+	private File file = null;
+
+	/**
+	 * Checks whether packets are being recorded
+	 * 
+	 * @return True if recording, False if not
+	 */
+	public boolean isRecording() {
+		return writer != null;
+	}
+
+	/**
+	 * Gets the file packets are recorded to
+	 * 
+	 * @return capture file, or null if not recording
+	 */
+	public synchronized File getFile() {
+		return file;
+	}
+
+	/**
+	 * Gets the amount of packets written to the capture file since recording started
+	 * 
+	 * @return record count
+	 */
+	public long getRecordCount() {
+		return recordCount.get();
+	}
+
+	/**
+	 * Gets the amount of packets that were not recorded because the writer could not keep up
+	 * 
+	 * @return dropped packet count
+	 */
+	public long getDropCount() {
+		return dropCount.get();
+	}
+
+	/**
+	 * Starts recording packets to a file, stopping any previous recording
+	 * 
+	 * @param file to record to
+	 * @throws IOException if the file could not be opened
+	 */
+	public synchronized void start(File file) throws IOException {
+		stop();
+		File dir = file.getAbsoluteFile().getParentFile();
+		if (dir != null) {
+			dir.mkdirs();
+		}
+		DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536));
+		stream.writeInt(PacketReplay.MAGIC);
+		stream.writeShort(PacketReplay.VERSION);
+		stream.writeLong(System.currentTimeMillis());
+		this.recordCount.set(0);
+		this.dropCount.set(0);
+		this.file = file;
+		this.writer = new Writer(stream, file);
+		this.writer.start(true);
+	}
+
+	/**
+	 * Stops recording, writes the packets still queued and closes the capture file
+	 */
+	public synchronized void stop() {
+		final Writer writer = this.writer;
+		this.writer = null;
+		this.file = null;
+		if (writer != null) {
+			writer.stop();
+			writer.waitFinished();
+			writer.close();
+		}
+	}
+
+	/**
+	 * Records a packet, if recording
+	 * 
+	 * @param packet to record
+	 * @param id of the packet
+	 * @param sent True if the packet is sent, False if it is received
+	 */
+	public void record(Object packet, int id, boolean sent) {
+		final Writer writer = this.writer;
+		if (writer == null || !(packet instanceof Packet)) {
+			return;
+		}
+		final long time = System.nanoTime();
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+		try {
+			((Packet) packet).a(new DataOutputStream(buffer));
+		} catch (Throwable t) {
+			Bukkit.getLogger().log(Level.WARNING, "Failed to encode packet " + id + " for the packet capture:", t);
+			dropCount.incrementAndGet();
+			return;
+		}
+		if (!writer.queue.offer(new Record(buffer.toByteArray(), id, sent, time))) {
+			dropCount.incrementAndGet();
+		}
+	}
+
+	private static class Record {
+		public final byte[] data;
+		public final int id;
+		public final boolean sent;
+		public final long time;
+
+		public Record(byte[] data, int id, boolean sent, long time) {
+			this.data = data;
+			this.id = id;
+			this.sent = sent;
+			this.time = time;
+		}
+	}
+
+	private class Writer extends AsyncTask {
+		public final BlockingQueue<Record> queue = new ArrayBlockingQueue<Record>(QUEUE_CAPACITY);
+		private final DataOutputStream stream;
+		private final File file;
+		private final long startTime = System.nanoTime();
+		private boolean failed = false;
+
+		public Writer(DataOutputStream stream, File file) {
+			super("BKCommonLib packet capture writer");
+			this.stream = stream;
+			this.file = file;
+		}
+
+		@Override
+		public void run() {
+			final Record record;
+			try {
+				record = queue.poll(100, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException ex) {
+				return;
+			}
+			if (record != null) {
+				write(record);
+			}
+		}
+
+		/**
+		 * Writes the packets still queued and closes the capture file
+		 */
+		public void close() {
+			Record record;
+			while ((record = queue.poll()) != null) {
+				write(record);
+			}
+			closeStream();
+		}
+
+		private void closeStream() {
+			try {
+				stream.close();
+			} catch (IOException ex) {
+				Bukkit.getLogger().log(Level.WARNING, "Failed to close packet capture file " + file, ex);
+			}
+		}
+
+		private void write(Record record) {
+			if (failed) {
+				return;
+			}
+			try {
+				stream.writeByte(record.sent ? 1 : 0);
+				stream.writeByte(record.id);
+				stream.writeInt((int) ((record.time - startTime) / 1000000));
+				stream.writeInt(record.data.length);
+				stream.write(record.data);
+				recordCount.incrementAndGet();
+			} catch (Throwable t) {
+				Bukkit.getLogger().log(Level.SEVERE, "Failed to record packet " + record.id + ", packet capture stopped:", t);
+				failed = true;
+				if (writer == this) {
+					writer = null;
+				}
+				stop();
+				queue.clear();
+				closeStream();
+			}
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package com.bergerkiller.bukkit.common.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import com.bergerkiller.bukkit.common.utils.MathUtil;
+
+/**
+ * Keeps track of the chunk every online player is in, so players near a location can be found
+ * without going through all players on the server.<br>
+ * The index is updated from player events and re-synchronized periodically to catch movement
+ * that fires no event, such as riding a vehicle. Queries return candidates: callers should still
+ * check the actual distance, using a margin of one chunk to allow for movement since the last update.
+ */
+class PlayerChunkIndex {
+	private final Map<World, WorldIndex> worlds = new HashMap<World, WorldIndex>();
+	private final Map<Player, Entry> players = new HashMap<Player, Entry>();
+
+	/**
+	 * Updates the chunk a player is in
+	 * 
+	 * @param player to update
+	 * @param location of the player
+	 */
+	public void update(Player player, Location location) {
+		update(player, location.getWorld(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+	}
+
+	/**
+	 * Updates the chunk a player is in
+	 * 
+	 * @param player to update
+	 * @param world the player is in
+	 * @param chunkX the player is in
+	 * @param chunkZ the player is in
+	 */
+	public synchronized void update(Player player, World world, int chunkX, int chunkZ) {
+		Entry entry = players.get(player);
+		if (entry != null) {
+			if (entry.world == world && entry.chunkX == chunkX && entry.chunkZ == chunkZ) {
+				return;
+			}
+			getWorld(entry.world).remove(player, entry);
+		} else {
+			entry = new Entry();
+			players.put(player, entry);
+		}
+		entry.world = world;
+		entry.chunkX = chunkX;
+		entry.chunkZ = chunkZ;
+		getWorld(world).add(player, entry);
+	}
+
+	/**
+	 * Removes a player from the index
+	 * 
+	 * @param player to remove
+	 */
+	public synchronized void remove(Player player) {
+		final Entry entry = players.remove(player);
+		if (entry != null) {
+			getWorld(entry.world).remove(player, entry);
+		}
+	}
+
+	/**
+	 * Removes all players in a world from the index
+	 * 
+	 * @param world to remove
+	 */
+	public synchronized void remove(World world) {
+		final WorldIndex index = worlds.remove(world);
+		if (index != null) {
+			players.keySet().removeAll(index.players);
+		}
+	}
+
+	/**
+	 * Removes all players from the index
+	 */
+	public synchronized void clear() {
+		worlds.clear();
+		players.clear();
+	}
+
+	/**
+	 * Adds all players in a range of chunks to a list
+	 * 
+	 * @param world of the chunks
+	 * @param minChunkX of the range
+	 * @param minChunkZ of the range
+	 * @param maxChunkX of the range
+	 * @param maxChunkZ of the range
+	 * @param result to add the players to
+	 */
+	public synchronized void getPlayers(World world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ, List<Player> result) {
+		final WorldIndex index = worlds.get(world);
+		if (index == null) {
+			return;
+		}
+		final long area = (long) (maxChunkX - minChunkX + 1) * (long) (maxChunkZ - minChunkZ + 1);
+		if (area > index.players.size()) {
+			// Less work to go by all players in the world
+			for (Player player : index.players) {
+				final Entry entry = players.get(player);
+				if (entry.chunkX >= minChunkX && entry.chunkX <= maxChunkX && entry.chunkZ >= minChunkZ && entry.chunkZ <= maxChunkZ) {
+					result.add(player);
+				}
+			}
+			return;
+		}
+		for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+			for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+				final List<Player> bucket = index.buckets.get(MathUtil.longHashToLong(cx, cz));
+				if (bucket != null) {
+					result.addAll(bucket);
+				}
+			}
+		}
+	}
+
+	private WorldIndex getWorld(World world) {
+		WorldIndex index = worlds.get(world);
+		if (index == null) {
+			index = new WorldIndex();
+			worlds.put(world, index);
+		}
+		return index;
+	}
+
+	private static class Entry {
+		public World world;
+		public int chunkX, chunkZ;
+	}
+
+	private static class WorldIndex {
+		public final Map<Long, List<Player>> buckets = new HashMap<Long, List<Player>>();
+		public final Set<Player> players = new HashSet<Player>();
+
+		public void add(Player player, Entry entry) {
+			final Long key = MathUtil.longHashToLong(entry.chunkX, entry.chunkZ);
+			List<Player> bucket = buckets.get(key);
+			if (bucket == null) {
+				bucket = new ArrayList<Player>(2);
+				buckets.put(key, bucket);
+			}
+			bucket.add(player);
+			players.add(player);
+		}
+
+		public void remove(Player player, Entry entry) {
+			final Long key = MathUtil.longHashToLong(entry.chunkX, entry.chunkZ);
+			final List<Player> bucket = buckets.get(key);
+			if (bucket != null && bucket.remove(player) && bucket.isEmpty()) {
+				buckets.remove(key);
+			}
+			players.remove(player);
+		}
+	}
+}
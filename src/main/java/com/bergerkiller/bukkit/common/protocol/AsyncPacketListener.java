@@ -0,0 +1,23 @@
+package com.bergerkiller.bukkit.common.protocol;
+
+/**
+ * Observes packets being sent to and received from players without being able to alter or cancel them.<br>
+ * The listener methods are called on a BKCommonLib worker thread, not on the connection or main thread.
+ * Packets cancelled by a regular {@link PacketListener} are not passed to asynchronous listeners.
+ */
+public interface AsyncPacketListener {
+
+	/**
+	 * Gets called on a worker thread after a packet passed the packet listeners and is being received
+	 * 
+	 * @param packet snapshot of the received packet
+	 */
+	public void onPacketReceive(PacketSnapshot packet);
+
+	/**
+	 * Gets called on a worker thread after a packet passed the packet listeners and is being sent
+	 * 
+	 * @param packet snapshot of the sent packet
+	 */
+	public void onPacketSend(PacketSnapshot packet);
+}
@@ -19,7 +19,7 @@ public class CommonPacket {
 	}
 	
 	public CommonPacket(Object packet) {
-		int id = PacketFields.DEFAULT.packetID.get(packet);
+		int id = PacketFields.DEFAULT.packetIDInt.getInt(packet);
 		this.type = PacketType.fromId(id);
 		this.packet = packet;
 	}
@@ -29,6 +29,18 @@ public class CommonPacket {
 		this.packet = packet;
 	}
 	
+	/**
+	 * Sets the vanilla packet and packet type represented by this CommonPacket<br>
+	 * <b>Only called internally by the packet dispatcher to re-use this instance!</b>
+	 * 
+	 * @param packet vanilla object to represent
+	 * @param id of the packet
+	 */
+	public void setHandle(Object packet, int id) {
+		this.type = PacketType.fromId(id);
+		this.packet = packet;
+	}
+
 	/**
 	 * Get the packet type
 	 * 
@@ -64,6 +76,11 @@ public class CommonPacket {
 	 * @param value Value
 	 */
 	public void write(String field, Object value) {
+		final int slot = getSlot(field);
+		if (slot != -1) {
+			type.getSchema().set(packet, slot, value);
+			return;
+		}
 		try {
 			SafeField.set(packet, field, value);
 		} catch(Exception e) {
@@ -80,12 +97,7 @@ public class CommonPacket {
 	 * @throws IllegalArgumentException Invalid field index
 	 */
 	public void write(int index, Object value) throws IllegalArgumentException {
-		String field = type.getField(index);
-		if(field != null) {
-			this.write(field, value);
-		} else {
-			throw new IllegalArgumentException("Invalid field index: "+index);
-		}
+		getSchema(index).set(packet, index, value);
 	}
 
 	/**
@@ -105,6 +117,10 @@ public class CommonPacket {
 	 * @return Data
 	 */
 	public Object read(String field) {
+		final int slot = getSlot(field);
+		if (slot != -1) {
+			return type.getSchema().get(packet, slot);
+		}
 		try {
 			return SafeField.get(packet, field);
 		} catch(Exception e) {
@@ -121,12 +137,20 @@ public class CommonPacket {
 	 * @throws IllegalArgumentException Ivalid field index
 	 */
 	public Object read(int index) throws IllegalArgumentException {
-		String field = type.getField(index);
-		if(field != null) {
-			return this.read(field);
-		} else {
+		return getSchema(index).get(packet, index);
+	}
+
+	private int getSlot(String field) {
+		final PacketSchema schema = type.getSchema();
+		return schema == null ? -1 : schema.getSlot(field);
+	}
+
+	private PacketSchema getSchema(int index) throws IllegalArgumentException {
+		final PacketSchema schema = type.getSchema();
+		if (schema == null || index < 0 || index >= schema.size()) {
 			throw new IllegalArgumentException("Invalid field index: "+index);
 		}
+		return schema;
 	}
 
 	/**
@@ -157,7 +181,18 @@ public class CommonPacket {
 	 * @throws IllegalArgumentException Field index not found
 	 */
 	public int readInt(int index) throws IllegalArgumentException {
-		return (Integer) read(index);
+		return getSchema(index).getInt(packet, index);
+	}
+
+	/**
+	 * Write an integer to a packet
+	 * 
+	 * @param index Field index
+	 * @param value Integer
+	 * @throws IllegalArgumentException Field index not found
+	 */
+	public void writeInt(int index, int value) throws IllegalArgumentException {
+		getSchema(index).setInt(packet, index, value);
 	}
 	
 	/**
@@ -168,7 +203,18 @@ public class CommonPacket {
 	 * @throws IllegalArgumentException Field index not found
 	 */
 	public boolean readBoolean(int index) throws IllegalArgumentException {
-		return (Boolean) read(index);
+		return getSchema(index).getBoolean(packet, index);
+	}
+
+	/**
+	 * Write a boolean to a packet
+	 * 
+	 * @param index Field index
+	 * @param value Boolean
+	 * @throws IllegalArgumentException Field index not found
+	 */
+	public void writeBoolean(int index, boolean value) throws IllegalArgumentException {
+		getSchema(index).setBoolean(packet, index, value);
 	}
 	
 	/**
@@ -179,7 +225,18 @@ public class CommonPacket {
 	 * @throws IllegalArgumentException Field index not found
 	 */
 	public byte readByte(int index) throws IllegalArgumentException {
-		return (Byte) read(index);
+		return getSchema(index).getByte(packet, index);
+	}
+
+	/**
+	 * Write a byte to a packet
+	 * 
+	 * @param index Field index
+	 * @param value Byte
+	 * @throws IllegalArgumentException Field index not found
+	 */
+	public void writeByte(int index, byte value) throws IllegalArgumentException {
+		getSchema(index).setByte(packet, index, value);
 	}
 	
 	/**
@@ -201,6 +258,17 @@ public class CommonPacket {
 	 * @throws IllegalArgumentException Field index not found
 	 */
 	public double readDouble(int index) throws IllegalArgumentException {
-		return (Double) read(index);
+		return getSchema(index).getDouble(packet, index);
+	}
+
+	/**
+	 * Write a double to a packet
+	 * 
+	 * @param index Field index
+	 * @param value Double
+	 * @throws IllegalArgumentException Field index not found
+	 */
+	public void writeDouble(int index, double value) throws IllegalArgumentException {
+		getSchema(index).setDouble(packet, index, value);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.bergerkiller.bukkit.common.protocol;
+
+/**
+ * A packet listener that handles sent packets the same way regardless of the player receiving them.<br>
+ * When a packet is broadcast to multiple players and all listeners for that packet type are global,
+ * the listeners are called only once for all players and the packet is encoded only once.
+ * During such a broadcast, the player of the send event is <b>null</b>.
+ */
+public interface GlobalPacketListener extends PacketListener {
+}
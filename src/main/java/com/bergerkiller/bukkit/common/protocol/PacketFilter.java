@@ -0,0 +1,290 @@
+package com.bergerkiller.bukkit.common.protocol;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import com.bergerkiller.bukkit.common.utils.MathUtil;
+
+/**
+ * Decides whether a packet listener is called for a packet, before any packet event is created.<br>
+ * Filters are passed when registering a packet listener and read the raw packet fields directly,
+ * so packets rejected by the filters of all listeners do not cost an event or a {@link CommonPacket}.
+ * The filters created by the static methods in this class are immutable and thread-safe.
+ * Custom filters can be made by extending this class, implementations must be thread-safe as well.
+ */
+public abstract class PacketFilter {
+
+	/**
+	 * Checks whether the listener using this filter should handle a packet
+	 * 
+	 * @param player the packet is sent to or received from
+	 * @param packet handle of the packet
+	 * @param packetId of the packet
+	 * @return True to call the listener, False to skip it
+	 */
+	public abstract boolean accept(Player player, Object packet, int packetId);
+
+	/**
+	 * Creates a filter accepting only packets sent to or received from the players specified
+	 * 
+	 * @param players to accept
+	 * @return player filter
+	 */
+	public static PacketFilter players(Player... players) {
+		return players(Arrays.asList(players));
+	}
+
+	/**
+	 * Creates a filter accepting only packets sent to or received from the players specified.
+	 * Players are matched by name, so the filter keeps working after a player relogs.
+	 * 
+	 * @param players to accept
+	 * @return player filter
+	 */
+	public static PacketFilter players(Collection<? extends Player> players) {
+		final Set<String> names = new HashSet<String>(players.size());
+		for (Player player : players) {
+			names.add(player.getName());
+		}
+		return new PacketFilter() {
+			@Override
+			public boolean accept(Player player, Object packet, int packetId) {
+				return player != null && names.contains(player.getName());
+			}
+		};
+	}
+
+	/**
+	 * Creates a filter accepting only packets about one of the entities specified.
+	 * Packets that refer to multiple entities, such as the destroy and attach packets,
+	 * are accepted if any of them is one of the entities.
+	 * Packets that do not refer to an entity are accepted.
+	 * 
+	 * @param entityIds to accept
+	 * @return entity filter
+	 */
+	public static PacketFilter entityIds(int... entityIds) {
+		final int[] ids = entityIds.clone();
+		Arrays.sort(ids);
+		return new PacketFilter() {
+			@Override
+			public boolean accept(Player player, Object packet, int packetId) {
+				final int[] slots = Locations.getEntitySlots(packetId);
+				if (slots == null) {
+					return true;
+				}
+				final PacketSchema schema = PacketType.fromId(packetId).getSchema();
+				if (packetId == PacketType.DESTROY_ENTITY.getId()) {
+					for (int id : (int[]) schema.get(packet, slots[0])) {
+						if (Arrays.binarySearch(ids, id) >= 0) {
+							return true;
+						}
+					}
+					return false;
+				}
+				for (int slot : slots) {
+					if (Arrays.binarySearch(ids, schema.getInt(packet, slot)) >= 0) {
+						return true;
+					}
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Creates a filter accepting only packets about a location inside a range of chunks.
+	 * Packets that do not refer to a location are accepted.
+	 * Packets that do refer to a location are rejected if the player is not in the world specified.
+	 * Map chunk bulk packets are accepted if any of the chunks is inside the range.
+	 * 
+	 * @param world of the chunks
+	 * @param minChunkX of the range
+	 * @param minChunkZ of the range
+	 * @param maxChunkX of the range
+	 * @param maxChunkZ of the range
+	 * @return chunk region filter
+	 */
+	public static PacketFilter chunkRegion(final World world, final int minChunkX, final int minChunkZ, final int maxChunkX, final int maxChunkZ) {
+		return new PacketFilter() {
+			@Override
+			public boolean accept(Player player, Object packet, int packetId) {
+				final Location location = Locations.getLocation(packetId);
+				if (location == null) {
+					return true;
+				}
+				if (player == null || player.getWorld() != world) {
+					return false;
+				}
+				final PacketSchema schema = PacketType.fromId(packetId).getSchema();
+				if (location.type == Location.ARRAY) {
+					final int[] chunkX = (int[]) schema.get(packet, location.x);
+					final int[] chunkZ = (int[]) schema.get(packet, location.z);
+					for (int i = 0; i < chunkX.length; i++) {
+						if (contains(chunkX[i], chunkZ[i])) {
+							return true;
+						}
+					}
+					return false;
+				} else if (location.type == Location.DOUBLE) {
+					return contains(MathUtil.toChunk(schema.getDouble(packet, location.x)), MathUtil.toChunk(schema.getDouble(packet, location.z)));
+				} else {
+					return contains(schema.getInt(packet, location.x) >> location.shift, schema.getInt(packet, location.z) >> location.shift);
+				}
+			}
+
+			private boolean contains(int chunkX, int chunkZ) {
+				return chunkX >= minChunkX && chunkX <= maxChunkX && chunkZ >= minChunkZ && chunkZ <= maxChunkZ;
+			}
+		};
+	}
+
+	/**
+	 * Creates a filter accepting only packets accepted by all of the filters specified
+	 * 
+	 * @param filters to combine
+	 * @return combined filter
+	 */
+	public static PacketFilter all(PacketFilter... filters) {
+		final PacketFilter[] list = filters.clone();
+		return new PacketFilter() {
+			@Override
+			public boolean accept(Player player, Object packet, int packetId) {
+				for (PacketFilter filter : list) {
+					if (!filter.accept(player, packet, packetId)) {
+						return false;
+					}
+				}
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Creates a filter accepting only packets accepted by at least one of the filters specified
+	 * 
+	 * @param filters to combine
+	 * @return combined filter
+	 */
+	public static PacketFilter any(PacketFilter... filters) {
+		final PacketFilter[] list = filters.clone();
+		return new PacketFilter() {
+			@Override
+			public boolean accept(Player player, Object packet, int packetId) {
+				for (PacketFilter filter : list) {
+					if (filter.accept(player, packet, packetId)) {
+						return true;
+					}
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Where the position of a packet is stored and how to convert it to chunk coordinates
+	 */
+	private static class Location {
+		public static final int INT = 0;
+		public static final int DOUBLE = 1;
+		public static final int ARRAY = 2;
+		public final int type, x, z, shift;
+
+		public Location(int type, int x, int z, int shift) {
+			this.type = type;
+			this.x = x;
+			this.z = z;
+			this.shift = shift;
+		}
+	}
+
+	/**
+	 * Resolves the field slots storing the entity ids and positions of every packet type once
+	 */
+	private static class Locations {
+		private static final int[][] entitySlots = new int[256][];
+		private static final Location[] locations = new Location[256];
+
+		public static int[] getEntitySlots(int packetId) {
+			return (packetId >= 0 && packetId < 256) ? entitySlots[packetId] : null;
+		}
+
+		public static Location getLocation(int packetId) {
+			return (packetId >= 0 && packetId < 256) ? locations[packetId] : null;
+		}
+
+		private static void entity(PacketType type, String... names) {
+			final PacketSchema schema = type.getSchema();
+			if (schema == null) {
+				return;
+			}
+			final int[] slots = new int[names.length];
+			for (int i = 0; i < names.length; i++) {
+				if ((slots[i] = schema.getSlot(names[i])) == -1) {
+					return;
+				}
+			}
+			entitySlots[type.getId()] = slots;
+		}
+
+		private static void location(PacketType type, int locationType, String x, String z, int shift) {
+			final PacketSchema schema = type.getSchema();
+			if (schema == null) {
+				return;
+			}
+			final int slotX = schema.getSlot(x);
+			final int slotZ = schema.getSlot(z);
+			if (slotX != -1 && slotZ != -1) {
+				locations[type.getId()] = new Location(locationType, slotX, slotZ, shift);
+			}
+		}
+
+		static {
+			// Entity ids
+			for (PacketType type : new PacketType[] {PacketType.ENTITY_EQUIPMENT, PacketType.ENTITY_LOCATION_ACTION,
+					PacketType.ANIMATION, PacketType.ENTITY_ACTION, PacketType.NAMED_ENTITY_SPAWN, PacketType.VEHICLE_SPAWN,
+					PacketType.MOB_SPAWN, PacketType.ENTITY_PAINTING, PacketType.ADD_EXP_ORB, PacketType.ENTITY_VELOCITY,
+					PacketType.ENTITY, PacketType.ENTITY_MOVE, PacketType.ENTITY_LOOK, PacketType.ETITY_MOVE_LOOK,
+					PacketType.ENTITY_TELEPORT, PacketType.ENTITY_HEAD_ROTATION, PacketType.ENTITY_STATUS,
+					PacketType.ENTITY_METADATA, PacketType.MOB_EFFECT, PacketType.REMOVE_MOB_EFFECT, PacketType.WEATHER}) {
+				entity(type, "a");
+			}
+			entity(PacketType.DESTROY_ENTITY, "a");
+			entity(PacketType.COLLECT, "a", "b");
+			entity(PacketType.ATTACH_ENTITY, "a", "b");
+			entity(PacketType.USE_ENTITY, "a", "target");
+
+			// Block coordinates
+			location(PacketType.BLOCK_DIG, Location.INT, "a", "c", 4);
+			location(PacketType.PLACE, Location.INT, "a", "c", 4);
+			location(PacketType.SPAWN_POSITION, Location.INT, "x", "z", 4);
+			location(PacketType.ENTITY_LOCATION_ACTION, Location.INT, "c", "e", 4);
+			location(PacketType.ENTITY_PAINTING, Location.INT, "b", "d", 4);
+			location(PacketType.BLOCK_CHANGE, Location.INT, "a", "c", 4);
+			location(PacketType.PLAY_NOTEBLOCK, Location.INT, "a", "c", 4);
+			location(PacketType.WOLRD_EVENT, Location.INT, "c", "e", 4);
+			location(PacketType.UPDATE_SIGN, Location.INT, "x", "z", 4);
+			location(PacketType.TILE_ENTITY_DATA, Location.INT, "a", "c", 4);
+			// Chunk coordinates
+			location(PacketType.MAP_CHUNK, Location.INT, "a", "b", 0);
+			location(PacketType.MULTI_BLOCK_CHANGE, Location.INT, "a", "b", 0);
+			location(PacketType.MAP_CHUNK_BULK, Location.ARRAY, "c", "d", 0);
+			// Fixed-point coordinates of 1/32 block
+			location(PacketType.NAMED_ENTITY_SPAWN, Location.INT, "c", "e", 9);
+			location(PacketType.VEHICLE_SPAWN, Location.INT, "b", "d", 9);
+			location(PacketType.MOB_SPAWN, Location.INT, "c", "e", 9);
+			location(PacketType.ADD_EXP_ORB, Location.INT, "b", "d", 9);
+			location(PacketType.ENTITY_TELEPORT, Location.INT, "b", "d", 9);
+			location(PacketType.WEATHER, Location.INT, "b", "d", 9);
+			// Fixed-point coordinates of 1/8 block
+			location(PacketType.NAMED_SOUND_EFFECT, Location.INT, "b", "d", 7);
+			// Exact coordinates
+			location(PacketType.EXPLOSION, Location.DOUBLE, "a", "c", 0);
+		}
+	}
+}
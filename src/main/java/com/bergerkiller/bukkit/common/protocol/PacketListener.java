@@ -3,6 +3,14 @@ package com.bergerkiller.bukkit.common.protocol;
 import com.bergerkiller.bukkit.common.events.PacketReceiveEvent;
 import com.bergerkiller.bukkit.common.events.PacketSendEvent;
 
+/**
+ * Listens for packets being sent to and received from players<br><br>
+ * 
+ * <b>Events and packets passed to this listener are only valid while the listener method executes.</b>
+ * When event re-use is enabled in the BKCommonLib configuration, the same event and CommonPacket
+ * instances are handed to the listener for every packet handled by the same thread.
+ * Do not keep a reference to them; copy the data you need instead.
+ */
 public interface PacketListener {
 
 	/**
@@ -0,0 +1,152 @@
+package com.bergerkiller.bukkit.common.protocol;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Keeps track of the time spent by the packet listeners of a single plugin handling a single packet type<br>
+ * Only packets that were sampled while listener timings were enabled are counted
+ */
+public class PacketListenerTiming {
+	/**
+	 * Sorts timings by the total time spent, highest first
+	 */
+	public static final Comparator<PacketListenerTiming> BY_TOTAL_TIME = new Comparator<PacketListenerTiming>() {
+		@Override
+		public int compare(PacketListenerTiming o1, PacketListenerTiming o2) {
+			final long t1 = o1.getTotalTime();
+			final long t2 = o2.getTotalTime();
+			return t1 == t2 ? 0 : (t1 < t2 ? 1 : -1);
+		}
+	};
+	private final Plugin plugin;
+	private final PacketType type;
+	private final AtomicLong invocations = new AtomicLong();
+	private final AtomicLong cancellations = new AtomicLong();
+	private final AtomicLong totalTime = new AtomicLong();
+	private final AtomicLong maxTime = new AtomicLong();
+
+	public PacketListenerTiming(Plugin plugin, PacketType type) {
+		this.plugin = plugin;
+		this.type = type;
+	}
+
+	/**
+	 * Records a single listener invocation<br>
+	 * <b>Only called internally by the packet dispatcher!</b>
+	 * 
+	 * @param nanoTime the listener took to handle the packet
+	 * @param cancelled whether the listener cancelled the packet
+	 */
+	public void record(long nanoTime, boolean cancelled) {
+		invocations.incrementAndGet();
+		totalTime.addAndGet(nanoTime);
+		if (cancelled) {
+			cancellations.incrementAndGet();
+		}
+		long max;
+		while (nanoTime > (max = maxTime.get())) {
+			if (maxTime.compareAndSet(max, nanoTime)) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Resets all the measured values back to zero
+	 */
+	public void reset() {
+		invocations.set(0);
+		cancellations.set(0);
+		totalTime.set(0);
+		maxTime.set(0);
+	}
+
+	/**
+	 * Gets the plugin owning the measured listeners
+	 * 
+	 * @return listener Plugin
+	 */
+	public Plugin getPlugin() {
+		return plugin;
+	}
+
+	/**
+	 * Gets the packet type handled by the measured listeners
+	 * 
+	 * @return Packet type
+	 */
+	public PacketType getType() {
+		return type;
+	}
+
+	/**
+	 * Gets the amount of sampled listener invocations
+	 * 
+	 * @return invocation count
+	 */
+	public long getInvocations() {
+		return invocations.get();
+	}
+
+	/**
+	 * Gets the amount of sampled invocations in which the listener cancelled the packet
+	 * 
+	 * @return cancellation count
+	 */
+	public long getCancellations() {
+		return cancellations.get();
+	}
+
+	/**
+	 * Gets the fraction of sampled invocations in which the listener cancelled the packet
+	 * 
+	 * @return cancellation rate [0 - 1]
+	 */
+	public double getCancellationRate() {
+		final long count = getInvocations();
+		return count == 0 ? 0.0 : (double) getCancellations() / (double) count;
+	}
+
+	/**
+	 * Gets the total time spent in the sampled invocations
+	 * 
+	 * @return total time in nanoseconds
+	 */
+	public long getTotalTime() {
+		return totalTime.get();
+	}
+
+	/**
+	 * Gets the average time spent in a single invocation
+	 * 
+	 * @return average time in nanoseconds
+	 */
+	public double getAverageTime() {
+		final long count = getInvocations();
+		return count == 0 ? 0.0 : (double) getTotalTime() / (double) count;
+	}
+
+	/**
+	 * Gets the longest time spent in a single invocation
+	 * 
+	 * @return maximum time in nanoseconds
+	 */
+	public long getMaxTime() {
+		return maxTime.get();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(80);
+		builder.append(plugin.getName()).append(" - ").append(type);
+		builder.append(": ").append(getInvocations()).append(" calls");
+		builder.append(", avg ").append(Math.round(getAverageTime() / 1E3)).append(" us");
+		builder.append(", max ").append(getMaxTime() / 1000).append(" us");
+		builder.append(", total ").append(getTotalTime() / 1000000).append(" ms");
+		builder.append(", cancelled ").append(Math.round(getCancellationRate() * 100.0)).append("%");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,297 @@
+package com.bergerkiller.bukkit.common.protocol;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.server.v1_4_R1.Packet;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import com.bergerkiller.bukkit.common.internal.CommonPlugin;
+
+/**
+ * Feeds the packets of a binary packet capture through the registered packet listeners.<br>
+ * Captures are created using {@link com.bergerkiller.bukkit.common.utils.PacketUtil#startPacketCapture(File)}.
+ * Every replayed packet is decoded again before it is handled, so listeners modifying packets do not
+ * affect later runs. Only the time spent handling the packets is measured, decoding is excluded.<br>
+ * Packets are replayed for a stand-in player that is not connected: packets sent to it by listeners are discarded.
+ * Replayed packets only pass the synchronous packet listeners, they are not passed to the
+ * asynchronous packet listeners and not counted as traffic.
+ */
+public class PacketReplay {
+	/**
+	 * Identifies the start of a packet capture file
+	 */
+	public static final int MAGIC = 0x424B4350;
+	/**
+	 * The version of the packet capture file format
+	 */
+	public static final short VERSION = 1;
+	private static final String PLAYER_NAME = "PacketReplay";
+	private final List<Record> records = new ArrayList<Record>();
+	private final long captureTime;
+	private long packetCount, cancelledCount, totalTime, maxTime;
+
+	/**
+	 * Loads all the packets stored in a capture file
+	 * 
+	 * @param file to load
+	 * @throws IOException if the file could not be read or is not a packet capture
+	 */
+	public PacketReplay(File file) throws IOException {
+		DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 65536));
+		try {
+			if (stream.readInt() != MAGIC) {
+				throw new IOException("File " + file + " is not a packet capture");
+			}
+			final short version = stream.readShort();
+			if (version != VERSION) {
+				throw new IOException("Unsupported packet capture version: " + version);
+			}
+			this.captureTime = stream.readLong();
+			while (true) {
+				final int flags = stream.read();
+				if (flags == -1) {
+					break;
+				}
+				final int id = stream.readUnsignedByte();
+				final int time = stream.readInt();
+				final byte[] data = new byte[stream.readInt()];
+				stream.readFully(data);
+				records.add(new Record(PacketType.fromId(id), (flags & 1) == 1, time, data));
+			}
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Gets the time at which the capture was started
+	 * 
+	 * @return capture start time in milliseconds since epoch
+	 */
+	public long getCaptureTime() {
+		return captureTime;
+	}
+
+	/**
+	 * Gets the amount of packets stored in the capture
+	 * 
+	 * @return packet count
+	 */
+	public int size() {
+		return records.size();
+	}
+
+	/**
+	 * Gets the duration of the captured traffic
+	 * 
+	 * @return capture duration in milliseconds
+	 */
+	public int getDuration() {
+		return records.isEmpty() ? 0 : records.get(records.size() - 1).time;
+	}
+
+	/**
+	 * Feeds all captured packets through the packet listeners, in the order they were captured.
+	 * The packets are sent to or received from a stand-in player at the location specified.
+	 * 
+	 * @param location of the stand-in player
+	 * @param runs amount of times to replay the capture
+	 */
+	public void replay(Location location, int runs) {
+		replay(createPlayer(location), runs);
+	}
+
+	/**
+	 * Feeds all captured packets through the packet listeners, in the order they were captured
+	 * 
+	 * @param player to use as the player the packets are sent to or received from, should not be a player that is online
+	 * @param runs amount of times to replay the capture
+	 */
+	public void replay(Player player, int runs) {
+		final CommonPlugin plugin = CommonPlugin.getInstance();
+		for (int run = 0; run < runs; run++) {
+			for (Record record : records) {
+				final Object packet = record.decode();
+				if (packet == null) {
+					continue;
+				}
+				final int id = record.type.getId();
+				final long startTime = System.nanoTime();
+				final boolean allowed = plugin.callPacketListeners(player, packet, id, record.sent);
+				final long time = System.nanoTime() - startTime;
+				packetCount++;
+				totalTime += time;
+				maxTime = Math.max(maxTime, time);
+				if (!allowed) {
+					cancelledCount++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates a player that is not connected to the server, to replay packets for.
+	 * The player is located at the location specified and has no handle, so packets sent to it are discarded.
+	 * All other methods return null, zero or false.
+	 * 
+	 * @param location of the player
+	 * @return stand-in player
+	 */
+	public static Player createPlayer(final Location location) {
+		return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[] {Player.class}, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				final String name = method.getName();
+				if (name.equals("getName") || name.equals("getDisplayName") || name.equals("getPlayerListName")) {
+					return PLAYER_NAME;
+				} else if (name.equals("getWorld")) {
+					return location.getWorld();
+				} else if (name.equals("getLocation")) {
+					if (args == null || args.length == 0) {
+						return location.clone();
+					} else if (args[0] instanceof Location) {
+						final Location loc = (Location) args[0];
+						loc.setWorld(location.getWorld());
+						loc.setX(location.getX());
+						loc.setY(location.getY());
+						loc.setZ(location.getZ());
+						loc.setYaw(location.getYaw());
+						loc.setPitch(location.getPitch());
+						return loc;
+					}
+					return null;
+				} else if (name.equals("isOnline")) {
+					return Boolean.TRUE;
+				} else if (name.equals("equals")) {
+					return Boolean.valueOf(proxy == args[0]);
+				} else if (name.equals("hashCode")) {
+					return Integer.valueOf(System.identityHashCode(proxy));
+				} else if (name.equals("toString")) {
+					return "PacketReplayPlayer{" + PLAYER_NAME + "}";
+				}
+				return getDefault(method.getReturnType());
+			}
+		});
+	}
+
+	private static Object getDefault(Class<?> type) {
+		if (!type.isPrimitive() || type == void.class) {
+			return null;
+		} else if (type == boolean.class) {
+			return Boolean.FALSE;
+		} else if (type == char.class) {
+			return Character.valueOf((char) 0);
+		} else if (type == byte.class) {
+			return Byte.valueOf((byte) 0);
+		} else if (type == short.class) {
+			return Short.valueOf((short) 0);
+		} else if (type == int.class) {
+			return Integer.valueOf(0);
+		} else if (type == long.class) {
+			return Long.valueOf(0L);
+		} else if (type == float.class) {
+			return Float.valueOf(0.0f);
+		} else {
+			return Double.valueOf(0.0);
+		}
+	}
+
+	/**
+	 * Resets the measured replay results back to zero
+	 */
+	public void reset() {
+		packetCount = cancelledCount = totalTime = maxTime = 0;
+	}
+
+	/**
+	 * Gets the amount of packets replayed
+	 * 
+	 * @return replayed packet count
+	 */
+	public long getPacketCount() {
+		return packetCount;
+	}
+
+	/**
+	 * Gets the amount of replayed packets cancelled by the listeners
+	 * 
+	 * @return cancelled packet count
+	 */
+	public long getCancelledCount() {
+		return cancelledCount;
+	}
+
+	/**
+	 * Gets the total time spent by the listeners handling the replayed packets
+	 * 
+	 * @return total time in nanoseconds
+	 */
+	public long getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * Gets the longest time spent by the listeners handling a single replayed packet
+	 * 
+	 * @return maximum time in nanoseconds
+	 */
+	public long getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * Gets the average time spent by the listeners handling a single replayed packet
+	 * 
+	 * @return average time in nanoseconds
+	 */
+	public double getAverageTime() {
+		return packetCount == 0 ? 0.0 : (double) totalTime / (double) packetCount;
+	}
+
+	/**
+	 * Gets the amount of packets handled per second while replaying
+	 * 
+	 * @return packet throughput
+	 */
+	public double getThroughput() {
+		return totalTime == 0 ? 0.0 : (double) packetCount * 1E9 / (double) totalTime;
+	}
+
+	private static class Record {
+		public final PacketType type;
+		public final boolean sent;
+		public final int time;
+		private final byte[] data;
+
+		public Record(PacketType type, boolean sent, int time, byte[] data) {
+			this.type = type;
+			this.sent = sent;
+			this.time = time;
+			this.data = data;
+		}
+
+		public Object decode() {
+			final Object packet = type.getPacket();
+			if (!(packet instanceof Packet)) {
+				return null;
+			}
+			try {
+				((Packet) packet).a(new DataInputStream(new ByteArrayInputStream(data)));
+				return packet;
+			} catch (IOException ex) {
+				return null;
+			}
+		}
+	}
+}
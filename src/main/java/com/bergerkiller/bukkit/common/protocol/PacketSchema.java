@@ -0,0 +1,152 @@
+package com.bergerkiller.bukkit.common.protocol;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.bergerkiller.bukkit.common.reflection.SafeField;
+
+/**
+ * The fields of a packet type, resolved once and accessed by slot.<br>
+ * Slots are the same as the field indices used by {@link CommonPacket#read(int)} and {@link PacketType#getField(int)}.
+ * Resolve the slot of a field once using {@link #getSlot(String)} and keep it; the primitive getters and setters
+ * then access the field without name lookups or boxing the value.
+ * The slots use the fields of the packet class template, so errors are logged the same way as by a {@link SafeField}.
+ * Passing an invalid slot results in an ArrayIndexOutOfBoundsException.
+ */
+public final class PacketSchema {
+	private final PacketType type;
+	private final SafeField<?>[] fields;
+	private final String[] names;
+
+	PacketSchema(PacketType type, List<SafeField<?>> fields) {
+		this.type = type;
+		this.fields = fields.toArray(new SafeField<?>[0]);
+		this.names = new String[this.fields.length];
+		for (int i = 0; i < this.names.length; i++) {
+			this.names[i] = this.fields[i].getName();
+		}
+	}
+
+	/**
+	 * Gets the packet type described by this schema
+	 * 
+	 * @return Packet type
+	 */
+	public PacketType getType() {
+		return type;
+	}
+
+	/**
+	 * Gets the amount of field slots
+	 * 
+	 * @return slot count
+	 */
+	public int size() {
+		return fields.length;
+	}
+
+	/**
+	 * Gets the slot of a field by name
+	 * 
+	 * @param name of the field
+	 * @return field slot, or -1 if the field does not exist
+	 */
+	public int getSlot(String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the name of the field in a slot
+	 * 
+	 * @param slot of the field
+	 * @return field name
+	 */
+	public String getName(int slot) {
+		return names[slot];
+	}
+
+	/**
+	 * Gets the type of the value stored in a slot
+	 * 
+	 * @param slot of the field
+	 * @return field type
+	 */
+	public Class<?> getSlotType(int slot) {
+		return fields[slot].getType();
+	}
+
+	public Object get(Object packet, int slot) {
+		return fields[slot].get(packet);
+	}
+
+	@SuppressWarnings("unchecked")
+	public void set(Object packet, int slot, Object value) {
+		((SafeField<Object>) fields[slot]).set(packet, value);
+	}
+
+	public int getInt(Object packet, int slot) {
+		return fields[slot].getInt(packet);
+	}
+
+	public void setInt(Object packet, int slot, int value) {
+		fields[slot].setInt(packet, value);
+	}
+
+	public byte getByte(Object packet, int slot) {
+		return fields[slot].getByte(packet);
+	}
+
+	public void setByte(Object packet, int slot, byte value) {
+		fields[slot].setByte(packet, value);
+	}
+
+	public short getShort(Object packet, int slot) {
+		return fields[slot].getShort(packet);
+	}
+
+	public void setShort(Object packet, int slot, short value) {
+		fields[slot].setShort(packet, value);
+	}
+
+	public long getLong(Object packet, int slot) {
+		return fields[slot].getLong(packet);
+	}
+
+	public void setLong(Object packet, int slot, long value) {
+		fields[slot].setLong(packet, value);
+	}
+
+	public float getFloat(Object packet, int slot) {
+		return fields[slot].getFloat(packet);
+	}
+
+	public void setFloat(Object packet, int slot, float value) {
+		fields[slot].setFloat(packet, value);
+	}
+
+	public double getDouble(Object packet, int slot) {
+		return fields[slot].getDouble(packet);
+	}
+
+	public void setDouble(Object packet, int slot, double value) {
+		fields[slot].setDouble(packet, value);
+	}
+
+	public boolean getBoolean(Object packet, int slot) {
+		return fields[slot].getBoolean(packet);
+	}
+
+	public void setBoolean(Object packet, int slot, boolean value) {
+		fields[slot].setBoolean(packet, value);
+	}
+
+	@Override
+	public String toString() {
+		return type + " " + Arrays.toString(names);
+	}
+}
@@ -0,0 +1,96 @@
+package com.bergerkiller.bukkit.common.protocol;
+
+import org.bukkit.entity.Player;
+
+/**
+ * An immutable copy of the field values of a packet, taken at the moment it was sent or received.<br>
+ * Field values are copied shallowly: arrays and objects stored in the packet are shared and should not be modified.
+ */
+public final class PacketSnapshot {
+	private final Player player;
+	private final PacketType type;
+	private final boolean sent;
+	private final long time;
+	private final Object[] values;
+
+	/**
+	 * Takes a snapshot of the packet specified
+	 * 
+	 * @param player the packet is sent to or received from
+	 * @param packet to take a snapshot of
+	 * @param id of the packet
+	 * @param sent True if the packet is sent to the player, False if it is received from the player
+	 */
+	public PacketSnapshot(Player player, Object packet, int id, boolean sent) {
+		this.player = player;
+		this.type = PacketType.fromId(id);
+		this.sent = sent;
+		this.time = System.currentTimeMillis();
+		this.values = this.type.readFields(packet);
+	}
+
+	/**
+	 * Gets the player the packet was sent to or received from
+	 * 
+	 * @return the Player
+	 */
+	public Player getPlayer() {
+		return player;
+	}
+
+	/**
+	 * Gets the packet type
+	 * 
+	 * @return Packet type
+	 */
+	public PacketType getType() {
+		return type;
+	}
+
+	/**
+	 * Gets whether the packet was sent to the player, or received from the player
+	 * 
+	 * @return True if sent, False if received
+	 */
+	public boolean isSent() {
+		return sent;
+	}
+
+	/**
+	 * Gets the system time in milliseconds at which this snapshot was taken
+	 * 
+	 * @return snapshot time
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Read data from a field by index
+	 * 
+	 * @param index Index
+	 * @return Data
+	 * @throws IllegalArgumentException Invalid field index
+	 */
+	public Object read(int index) throws IllegalArgumentException {
+		if (index < 0 || index >= values.length) {
+			throw new IllegalArgumentException("Invalid field index: " + index);
+		}
+		return values[index];
+	}
+
+	/**
+	 * Read data from a field by name
+	 * 
+	 * @param field Field name
+	 * @return Data
+	 * @throws IllegalArgumentException Invalid field name
+	 */
+	public Object read(String field) throws IllegalArgumentException {
+		final int index = type.getFieldIndex(field);
+		if (index == -1) {
+			throw new IllegalArgumentException("Invalid field name: " + field);
+		}
+		return values[index];
+	}
+}
@@ -88,6 +88,8 @@ public enum PacketType {
 	private final int id;
 	private final ClassTemplate<?> template;
 	private final String[] fieldNames;
+	private final SafeField<?>[] fields;
+	private final PacketSchema schema;
 	private final String dataWatcherField;
 	private static final PacketType[] byId = new PacketType[256];
 
@@ -98,10 +100,14 @@ public enum PacketType {
 			this.template = null;
 			this.dataWatcherField = null;
 			this.fieldNames = new String[0];
+			this.fields = new SafeField<?>[0];
+			this.schema = null;
 			return;
 		}
 		this.template = ClassTemplate.create(type);
 		List<SafeField<?>> fields = this.template.getFields();
+		this.schema = new PacketSchema(this, fields);
+		this.fields = fields.toArray(new SafeField<?>[0]);
 		this.fieldNames = new String[fields.size()];
 		String dataWatcherField = null;
 		for (int i = 0; i < fields.size(); i++) {
@@ -132,6 +138,15 @@ public enum PacketType {
 		return template == null ? null : template.newInstance();
 	}
 
+	/**
+	 * Gets the schema with the pre-resolved fields of packets of this type
+	 * 
+	 * @return Packet schema, or null if this type is unknown
+	 */
+	public PacketSchema getSchema() {
+		return schema;
+	}
+
 	/**
 	 * Gets the Packet Id of this Packet type
 	 * 
@@ -152,6 +167,44 @@ public enum PacketType {
 		return (index >= 0 && index < fieldNames.length) ? fieldNames[index] : null;
 	}
 
+	/**
+	 * Gets the index of a field by name
+	 * 
+	 * @param name of the field
+	 * @return field index, or -1 if the field does not exist
+	 */
+	public int getFieldIndex(String name) {
+		for (int i = 0; i < fieldNames.length; i++) {
+			if (fieldNames[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the amount of fields declared in packets of this type
+	 * 
+	 * @return field count
+	 */
+	public int getFieldCount() {
+		return fieldNames.length;
+	}
+
+	/**
+	 * Reads the values of all fields of a packet of this type, in field index order
+	 * 
+	 * @param packet to read
+	 * @return field values
+	 */
+	Object[] readFields(Object packet) {
+		Object[] values = new Object[fields.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = fields[i].get(packet);
+		}
+		return values;
+	}
+
 	/**
 	 * Gets the Packet Type from a Packet Id
 	 * 
@@ -0,0 +1,118 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps track of the calls made to, and time spent in, all reflection accessors with the same label<br>
+ * Only calls made while the {@link ReflectionProfiler} is enabled are counted.
+ * The counters are striped by thread, so threads using the same accessor do not contend on a single counter.
+ */
+public class AccessorProfile {
+	/**
+	 * Sorts profiles by the total time spent, highest first
+	 */
+	public static final Comparator<AccessorProfile> BY_TOTAL_TIME = new Comparator<AccessorProfile>() {
+		@Override
+		public int compare(AccessorProfile o1, AccessorProfile o2) {
+			final long t1 = o1.getTotalTime();
+			final long t2 = o2.getTotalTime();
+			return t1 == t2 ? 0 : (t1 < t2 ? 1 : -1);
+		}
+	};
+	private static final int STRIPES = 16;
+	// Every stripe takes up 64 bytes, so stripes do not share a cache line
+	private static final int STRIPE_SIZE = 8;
+	private final String kind;
+	private final String label;
+	private final AtomicLongArray counters = new AtomicLongArray(STRIPES * STRIPE_SIZE);
+
+	AccessorProfile(String kind, String label) {
+		this.kind = kind;
+		this.label = label;
+	}
+
+	/**
+	 * Records a single call
+	 * 
+	 * @param nanoTime the call took
+	 */
+	void record(long nanoTime) {
+		final int index = ((int) Thread.currentThread().getId() & (STRIPES - 1)) * STRIPE_SIZE;
+		counters.incrementAndGet(index);
+		counters.addAndGet(index + 1, nanoTime);
+	}
+
+	/**
+	 * Resets all the measured values back to zero
+	 */
+	public void reset() {
+		for (int i = 0; i < counters.length(); i++) {
+			counters.set(i, 0);
+		}
+	}
+
+	/**
+	 * Gets the kind of accessor measured, such as Field, Method or Translator
+	 * 
+	 * @return accessor kind
+	 */
+	public String getKind() {
+		return kind;
+	}
+
+	/**
+	 * Gets the Class and member name of the accessors measured
+	 * 
+	 * @return accessor label
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * Gets the amount of measured calls
+	 * 
+	 * @return call count
+	 */
+	public long getCalls() {
+		return sum(0);
+	}
+
+	/**
+	 * Gets the total time spent in the measured calls
+	 * 
+	 * @return total time in nanoseconds
+	 */
+	public long getTotalTime() {
+		return sum(1);
+	}
+
+	/**
+	 * Gets the average time spent in a single call
+	 * 
+	 * @return average time in nanoseconds
+	 */
+	public double getAverageTime() {
+		final long calls = getCalls();
+		return calls == 0 ? 0.0 : (double) getTotalTime() / (double) calls;
+	}
+
+	private long sum(int offset) {
+		long total = 0;
+		for (int i = offset; i < counters.length(); i += STRIPE_SIZE) {
+			total += counters.get(i);
+		}
+		return total;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(80);
+		builder.append(kind).append(' ').append(label);
+		builder.append(": ").append(getCalls()).append(" calls");
+		builder.append(", avg ").append(Math.round(getAverageTime())).append(" ns");
+		builder.append(", total ").append(getTotalTime() / 1000000).append(" ms");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,23 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+/**
+ * Defines the methods to access a certain byte field without boxing the value
+ */
+public interface ByteFieldAccessor extends FieldAccessor<Byte> {
+	/**
+	 * Gets the value of a field from an instance
+	 * 
+	 * @param instance to get from
+	 * @return value of the field in the instance
+	 */
+	byte getByte(Object instance);
+
+	/**
+	 * Sets the value of a field of an instance
+	 * 
+	 * @param instance to set the field in
+	 * @param value to set to
+	 * @return True if setting was successful, False if not
+	 */
+	boolean setByte(Object instance, byte value);
+}
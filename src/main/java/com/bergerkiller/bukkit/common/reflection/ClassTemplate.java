@@ -7,6 +7,7 @@ import java.util.Collections;
 import java.util.List;
 
 import com.bergerkiller.bukkit.common.conversion.Converter;
+import com.bergerkiller.bukkit.common.internal.CommonPlugin;
 import com.bergerkiller.bukkit.common.reflection.SafeField;
 import com.bergerkiller.bukkit.common.utils.CommonUtil;
 
@@ -15,7 +16,8 @@ import com.bergerkiller.bukkit.common.utils.CommonUtil;
  */
 public class ClassTemplate<T> {
 	private Class<T> type;
-	private List<SafeField<?>> fields;
+	private volatile List<SafeField<?>> fields;
+	private FieldTransfer transfer;
 
 	/**
 	 * Initializes a new ClassTemplate not pointing to any Class<br>
@@ -40,17 +42,32 @@ public class ClassTemplate<T> {
 	 */
 	protected void setClass(Class<T> type) {
 		this.type = type;
-		this.fields = new ArrayList<SafeField<?>>();
-		if (this.type != null) {
-			try {
-				this.fillFields(type);
-			} catch (Throwable t) {
-				t.printStackTrace();
+		this.fields = null;
+		this.transfer = null;
+	}
+
+	/**
+	 * Gets the fields of the Class, which are only looked up the first time they are needed
+	 * 
+	 * @return Declared fields
+	 */
+	private List<SafeField<?>> fieldList() {
+		List<SafeField<?>> fields = this.fields;
+		if (fields == null) {
+			fields = new ArrayList<SafeField<?>>();
+			if (this.type != null) {
+				try {
+					fillFields(fields, this.type);
+				} catch (Throwable t) {
+					t.printStackTrace();
+				}
 			}
+			this.fields = fields;
 		}
+		return fields;
 	}
 
-	private void fillFields(Class<?> clazz) {
+	private static void fillFields(List<SafeField<?>> fields, Class<?> clazz) {
 		if (clazz == null) {
 			return;
 		}
@@ -58,11 +75,11 @@ public class ClassTemplate<T> {
 		ArrayList<SafeField<?>> newFields = new ArrayList<SafeField<?>>(declared.length);
 		for (Field field : declared) {
 			if (!Modifier.isStatic(field.getModifiers())) {
-				newFields.add(new SafeField<Object>(field));
+				newFields.add(PrimitiveFields.create(field));
 			}
 		}
-		this.fields.addAll(0, newFields);
-		this.fillFields(clazz.getSuperclass());
+		fields.addAll(0, newFields);
+		fillFields(fields, clazz.getSuperclass());
 	}
 
 	/**
@@ -80,7 +97,7 @@ public class ClassTemplate<T> {
 	 * @return Declared fields
 	 */
 	public List<SafeField<?>> getFields() {
-		return Collections.unmodifiableList(fields);
+		return Collections.unmodifiableList(fieldList());
 	}
 
 	/**
@@ -140,15 +157,65 @@ public class ClassTemplate<T> {
 	}
 
 	/**
-	 * Transfers all the fields from one class instance to the other
+	 * Transfers all the fields from one class instance to the other.
+	 * The fields are copied directly in memory where possible, see {@link FieldTransfer}.
 	 * 
 	 * @param from instance
 	 * @param to instance
 	 */
 	public void transfer(Object from, Object to) {
-		for (FieldAccessor<?> field : this.fields) {
-			field.transfer(from, to);
+		FieldTransfer transfer = this.transfer;
+		if (transfer == null) {
+			this.transfer = transfer = new FieldTransfer(this.type, fieldList());
+		}
+		transfer.transfer(from, to);
+	}
+
+	/**
+	 * Creates a transfer copying only the fields with the names specified from one class instance to the other.
+	 * Creating the transfer is expensive, so store it and use it every time the fields need to be copied.
+	 * 
+	 * @param names of the fields to transfer
+	 * @return field transfer
+	 */
+	public FieldTransfer getTransfer(String... names) {
+		final List<SafeField<?>> fields = new ArrayList<SafeField<?>>(names.length);
+		for (String name : names) {
+			boolean found = false;
+			for (SafeField<?> field : fieldList()) {
+				if (field.isValid() && field.getName().equals(name)) {
+					fields.add(field);
+					found = true;
+				}
+			}
+			if (!found) {
+				CommonPlugin.getInstance().handleReflectionMissing("Field", name, this.type);
+			}
+		}
+		return new FieldTransfer(this.type, fields);
+	}
+
+	/**
+	 * Creates a reader reading the fields with the names specified from a class instance in a single call.
+	 * Creating the reader is expensive, so store it and use it every time the fields need to be read.
+	 * 
+	 * @param names of the fields to read, the values are stored in the snapshot in this order
+	 * @return field snapshot reader
+	 */
+	public FieldSnapshotReader getSnapshotReader(String... names) {
+		final List<SafeField<?>> fields = new ArrayList<SafeField<?>>(names.length);
+		for (String name : names) {
+			SafeField<?> found = null;
+			for (SafeField<?> field : fieldList()) {
+				// Fields of sub classes come last and hide those of the super classes
+				if (field.isValid() && field.getName().equals(name)) {
+					found = field;
+				}
+			}
+			// A missing field is logged and read as null or 0, so the other fields keep their index
+			fields.add(found == null ? new SafeField<Object>(this.type, name) : found);
 		}
+		return new FieldSnapshotReader(this.type, fields);
 	}
 
 	/**
@@ -164,8 +231,9 @@ public class ClassTemplate<T> {
 	public String toString() {
 		StringBuilder builder = new StringBuilder(500);
 		builder.append("Class path: ").append(this.getType().getName()).append('\n');
-		builder.append("Fields (").append(this.fields.size()).append("):");
-		for (FieldAccessor<?> field : this.fields) {
+		final List<SafeField<?>> fields = fieldList();
+		builder.append("Fields (").append(fields.size()).append("):");
+		for (FieldAccessor<?> field : fields) {
 			builder.append("\n    ").append(field.toString());
 		}
 		return builder.toString();
@@ -187,8 +255,112 @@ public class ClassTemplate<T> {
 	 * @param name of the field
 	 * @return field
 	 */
+	@SuppressWarnings("unchecked")
 	public <K> SafeField<K> getField(String name) {
-		return new SafeField<K>(this.getType(), name);
+		final SafeField<K> field = new SafeField<K>(this.getType(), name);
+		if (field.isValid() && field.getType().isPrimitive()) {
+			// Implements the primitive accessor interface, such as IntFieldAccessor
+			return (SafeField<K>) PrimitiveFields.create(field.getField());
+		}
+		return field;
+	}
+
+	/**
+	 * Attempts to find the field by name, and generates a class accessing the field directly.<br>
+	 * Getting and setting the field then costs about as much as accessing it in code.
+	 * If no class can be generated for the field, for example because it is not public,
+	 * the field is accessed using reflection like {@link #getField(String)} does.
+	 * 
+	 * @param name of the field
+	 * @return field
+	 */
+	public <K> FieldAccessor<K> getDirectField(String name) {
+		return getDirectField(this.<K>getField(name), FieldAccessor.class);
+	}
+
+	/**
+	 * Attempts to find an int field by name, like {@link #getDirectField(String)} does.
+	 * The accessor can get and set the value without boxing it.
+	 * 
+	 * @param name of the field
+	 * @return field
+	 */
+	public IntFieldAccessor getIntField(String name) {
+		return (IntFieldAccessor) getDirectField(new PrimitiveFields.IntField(this.getType(), name), IntFieldAccessor.class);
+	}
+
+	/**
+	 * Attempts to find a long field by name, like {@link #getDirectField(String)} does.
+	 * The accessor can get and set the value without boxing it.
+	 * 
+	 * @param name of the field
+	 * @return field
+	 */
+	public LongFieldAccessor getLongField(String name) {
+		return (LongFieldAccessor) getDirectField(new PrimitiveFields.LongField(this.getType(), name), LongFieldAccessor.class);
+	}
+
+	/**
+	 * Attempts to find a double field by name, like {@link #getDirectField(String)} does.
+	 * The accessor can get and set the value without boxing it.
+	 * 
+	 * @param name of the field
+	 * @return field
+	 */
+	public DoubleFieldAccessor getDoubleField(String name) {
+		return (DoubleFieldAccessor) getDirectField(new PrimitiveFields.DoubleField(this.getType(), name), DoubleFieldAccessor.class);
+	}
+
+	/**
+	 * Attempts to find a float field by name, like {@link #getDirectField(String)} does.
+	 * The accessor can get and set the value without boxing it.
+	 * 
+	 * @param name of the field
+	 * @return field
+	 */
+	public FloatFieldAccessor getFloatField(String name) {
+		return (FloatFieldAccessor) getDirectField(new PrimitiveFields.FloatField(this.getType(), name), FloatFieldAccessor.class);
+	}
+
+	/**
+	 * Attempts to find a short field by name, like {@link #getDirectField(String)} does.
+	 * The accessor can get and set the value without boxing it.
+	 * 
+	 * @param name of the field
+	 * @return field
+	 */
+	public ShortFieldAccessor getShortField(String name) {
+		return (ShortFieldAccessor) getDirectField(new PrimitiveFields.ShortField(this.getType(), name), ShortFieldAccessor.class);
+	}
+
+	/**
+	 * Attempts to find a byte field by name, like {@link #getDirectField(String)} does.
+	 * The accessor can get and set the value without boxing it.
+	 * 
+	 * @param name of the field
+	 * @return field
+	 */
+	public ByteFieldAccessor getByteField(String name) {
+		return (ByteFieldAccessor) getDirectField(new PrimitiveFields.ByteField(this.getType(), name), ByteFieldAccessor.class);
+	}
+
+	/**
+	 * Attempts to find a boolean field by name, like {@link #getDirectField(String)} does.
+	 * The accessor can get and set the value without boxing it.
+	 * 
+	 * @param name of the field
+	 * @return field
+	 */
+	public BooleanFieldAccessor getBooleanField(String name) {
+		return (BooleanFieldAccessor) getDirectField(new PrimitiveFields.BooleanField(this.getType(), name), BooleanFieldAccessor.class);
+	}
+
+	private <K> FieldAccessor<K> getDirectField(SafeField<K> field, Class<?> accessorType) {
+		final FieldAccessor<K> generated = FieldAccessorGenerator.generate(field);
+		if (accessorType.isInstance(generated)) {
+			return generated;
+		}
+		return field;
 	}
 
 	/**
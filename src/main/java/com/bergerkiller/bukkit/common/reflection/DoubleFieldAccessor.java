@@ -0,0 +1,23 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+/**
+ * Defines the methods to access a certain double field without boxing the value
+ */
+public interface DoubleFieldAccessor extends FieldAccessor<Double> {
+	/**
+	 * Gets the value of a field from an instance
+	 * 
+	 * @param instance to get from
+	 * @return value of the field in the instance
+	 */
+	double getDouble(Object instance);
+
+	/**
+	 * Sets the value of a field of an instance
+	 * 
+	 * @param instance to set the field in
+	 * @param value to set to
+	 * @return True if setting was successful, False if not
+	 */
+	boolean setDouble(Object instance, double value);
+}
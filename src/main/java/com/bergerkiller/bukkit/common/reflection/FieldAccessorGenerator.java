@@ -0,0 +1,460 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+
+/**
+ * Generates {@link GeneratedFieldAccessor} classes accessing a single field using getfield and putfield.<br>
+ * For primitive fields the generated class also implements the primitive accessor interface, such as
+ * {@link IntFieldAccessor}, so the value can be accessed without boxing it.
+ * Only public, non-final instance fields of public classes can be accessed this way, because
+ * the generated classes are defined by their own class loader. Fields of classes loaded by other plugins are not
+ * accessed this way either, so the generated classes do not keep these loaded once the plugin is disabled.
+ * For all other fields null is returned, and the caller should use reflection instead.
+ */
+class FieldAccessorGenerator {
+	private static final String SUPER_CLASS = internalName(GeneratedFieldAccessor.class);
+	private static final String CLASS_PREFIX = "com/bergerkiller/bukkit/common/reflection/generated/FieldAccessor";
+	private static final Loader loader = new Loader(GeneratedFieldAccessor.class.getClassLoader());
+	private static int counter = 0;
+
+	/**
+	 * Generates an accessor for the field of a SafeField
+	 * 
+	 * @param field to generate an accessor for, is used when the generated access fails
+	 * @return generated accessor, or null if the field can not be accessed by a generated class
+	 */
+	@SuppressWarnings("unchecked")
+	public static synchronized <T> GeneratedFieldAccessor<T> generate(SafeField<T> field) {
+		final Field f = field.getField();
+		if (f == null) {
+			return null;
+		}
+		final int mod = f.getModifiers();
+		if (!Modifier.isPublic(mod) || Modifier.isStatic(mod) || Modifier.isFinal(mod)) {
+			return null;
+		}
+		if (!isVisible(f.getDeclaringClass()) || !isVisible(f.getType())) {
+			return null;
+		}
+		try {
+			final String name = CLASS_PREFIX + (counter++);
+			final byte[] data = build(name, f);
+			final Class<?> type = loader.define(name.replace('/', '.'), data);
+			return (GeneratedFieldAccessor<T>) type.getConstructor(SafeField.class).newInstance(field);
+		} catch (Throwable t) {
+			// Generation failed, reflection is used instead
+			return null;
+		}
+	}
+
+	/**
+	 * Defines a generated class using the class loader of the generated accessors
+	 * 
+	 * @param name of the class, using dots
+	 * @param data of the class file
+	 * @return defined class
+	 */
+	static Class<?> define(String name, byte[] data) {
+		return loader.define(name, data);
+	}
+
+	/**
+	 * Checks whether a class can be referenced from the generated classes.
+	 * Only classes of the server and of this library are referenced, the generated classes are never unloaded
+	 * and would otherwise keep the classes of other plugins loaded after these are disabled.
+	 */
+	static boolean isVisible(Class<?> type) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		if (type.isPrimitive()) {
+			return true;
+		}
+		if (!Modifier.isPublic(type.getModifiers())) {
+			return false;
+		}
+		final ClassLoader typeLoader = type.getClassLoader();
+		if (typeLoader != null && typeLoader != Bukkit.class.getClassLoader() && typeLoader != GeneratedFieldAccessor.class.getClassLoader()) {
+			return false;
+		}
+		try {
+			return loader.loadClass(type.getName()) == type;
+		} catch (ClassNotFoundException ex) {
+			return false;
+		}
+	}
+
+	static String internalName(Class<?> type) {
+		return type.getName().replace('.', '/');
+	}
+
+	static String descriptor(Class<?> type) {
+		if (type.isArray()) {
+			return internalName(type);
+		} else if (!type.isPrimitive()) {
+			return "L" + internalName(type) + ";";
+		} else if (type == int.class) {
+			return "I";
+		} else if (type == double.class) {
+			return "D";
+		} else if (type == boolean.class) {
+			return "Z";
+		} else if (type == byte.class) {
+			return "B";
+		} else if (type == float.class) {
+			return "F";
+		} else if (type == long.class) {
+			return "J";
+		} else if (type == short.class) {
+			return "S";
+		} else if (type == char.class) {
+			return "C";
+		} else if (type == void.class) {
+			return "V";
+		} else {
+			throw new IllegalArgumentException("Unsupported type: " + type);
+		}
+	}
+
+	static Class<?> getBoxType(Class<?> type) {
+		if (type == int.class) {
+			return Integer.class;
+		} else if (type == double.class) {
+			return Double.class;
+		} else if (type == boolean.class) {
+			return Boolean.class;
+		} else if (type == byte.class) {
+			return Byte.class;
+		} else if (type == float.class) {
+			return Float.class;
+		} else if (type == long.class) {
+			return Long.class;
+		} else if (type == short.class) {
+			return Short.class;
+		} else {
+			return Character.class;
+		}
+	}
+
+	private static byte[] build(String name, Field field) throws IOException {
+		final ConstantPool pool = new ConstantPool();
+		final Class<?> type = field.getType();
+		final String owner = internalName(field.getDeclaringClass());
+		final String safeField = "L" + internalName(SafeField.class) + ";";
+		final int thisClass = pool.classRef(name);
+		final int superClass = pool.classRef(SUPER_CLASS);
+		final int fieldRef = pool.memberRef(9, owner, field.getName(), descriptor(type));
+		final int ownerClass = pool.classRef(owner);
+		final List<Method> methods = new ArrayList<Method>(5);
+
+		// Constructor passing the fallback SafeField to the super class
+		Method method = new Method(pool, 0x0001, "<init>", "(" + safeField + ")V", 2, 2);
+		method.code.write(0x2a); // aload_0
+		method.code.write(0x2b); // aload_1
+		method.op(0xb7, pool.memberRef(10, SUPER_CLASS, "<init>", "(" + safeField + ")V")); // invokespecial
+		method.code.write(0xb1); // return
+		methods.add(method);
+
+		// Object read(Object instance)
+		method = new Method(pool, 0x0004, "read", "(Ljava/lang/Object;)Ljava/lang/Object;", 2, 2);
+		method.code.write(0x2b); // aload_1
+		method.op(0xc0, ownerClass); // checkcast
+		method.op(0xb4, fieldRef); // getfield
+		if (type.isPrimitive()) {
+			final Class<?> box = getBoxType(type);
+			method.op(0xb8, pool.memberRef(10, internalName(box), "valueOf", "(" + descriptor(type) + ")" + descriptor(box))); // invokestatic
+		}
+		method.code.write(0xb0); // areturn
+		methods.add(method);
+
+		// void write(Object instance, Object value)
+		method = new Method(pool, 0x0004, "write", "(Ljava/lang/Object;Ljava/lang/Object;)V", 3, 3);
+		method.code.write(0x2b); // aload_1
+		method.op(0xc0, ownerClass); // checkcast
+		method.code.write(0x2c); // aload_2
+		if (type.isPrimitive()) {
+			final Class<?> box = getBoxType(type);
+			method.op(0xc0, pool.classRef(internalName(box))); // checkcast
+			method.op(0xb6, pool.memberRef(10, internalName(box), type.getName() + "Value", "()" + descriptor(type))); // invokevirtual
+		} else if (type != Object.class) {
+			method.op(0xc0, pool.classRef(internalName(type))); // checkcast
+		}
+		method.op(0xb5, fieldRef); // putfield
+		method.code.write(0xb1); // return
+		methods.add(method);
+
+		// Primitive fields also implement the accessor interface for their type.
+		// When accessing the field fails, the same method of the fallback SafeField is called instead.
+		// While the reflection profiler is enabled the fallback is always called, so these calls are measured by it.
+		final Class<?> accessorType = PrimitiveFields.getAccessorType(type);
+		int accessorClass = 0;
+		if (accessorType != null) {
+			accessorClass = pool.classRef(internalName(accessorType));
+			final String typeName = Character.toUpperCase(type.getName().charAt(0)) + type.getName().substring(1);
+			final String getDesc = "(Ljava/lang/Object;)" + descriptor(type);
+			final String setDesc = "(Ljava/lang/Object;" + descriptor(type) + ")Z";
+			final int size = (type == long.class || type == double.class) ? 2 : 1;
+			final int returnOp = type == long.class ? 0xad : type == float.class ? 0xae : type == double.class ? 0xaf : 0xac;
+			final int loadOp = type == long.class ? 0x20 : type == float.class ? 0x24 : type == double.class ? 0x28 : 0x1c;
+			final int fallback = pool.memberRef(9, SUPER_CLASS, "fallback", safeField);
+			final int catchType = pool.classRef("java/lang/RuntimeException");
+			final int profilerEnabled = pool.memberRef(10, internalName(ReflectionProfiler.class), "isEnabled", "()Z");
+
+			// [type] get[Type](Object instance)
+			method = new Method(pool, 0x0001, "get" + typeName, getDesc, 1 + size, 2);
+			method.op(0xb8, profilerEnabled); // invokestatic
+			int branch = method.branch(0x9a); // ifne
+			int start = method.code.size();
+			method.code.write(0x2b); // aload_1
+			method.op(0xc0, ownerClass); // checkcast
+			method.op(0xb4, fieldRef); // getfield
+			method.code.write(returnOp);
+			method.handle(start, method.code.size(), catchType);
+			method.code.write(0x57); // pop
+			method.target(branch);
+			method.code.write(0x2a); // aload_0
+			method.op(0xb4, fallback); // getfield
+			method.code.write(0x2b); // aload_1
+			method.op(0xb6, pool.memberRef(10, internalName(SafeField.class), "get" + typeName, getDesc)); // invokevirtual
+			method.code.write(returnOp);
+			methods.add(method);
+
+			// boolean set[Type](Object instance, [type] value)
+			method = new Method(pool, 0x0001, "set" + typeName, setDesc, 2 + size, 2 + size);
+			method.op(0xb8, profilerEnabled); // invokestatic
+			branch = method.branch(0x9a); // ifne
+			start = method.code.size();
+			method.code.write(0x2b); // aload_1
+			method.op(0xc0, ownerClass); // checkcast
+			method.code.write(loadOp); // load value
+			method.op(0xb5, fieldRef); // putfield
+			method.code.write(0x04); // iconst_1
+			method.code.write(0xac); // ireturn
+			method.handle(start, method.code.size(), catchType);
+			method.code.write(0x57); // pop
+			method.target(branch);
+			method.code.write(0x2a); // aload_0
+			method.op(0xb4, fallback); // getfield
+			method.code.write(0x2b); // aload_1
+			method.code.write(loadOp); // load value
+			method.op(0xb6, pool.memberRef(10, internalName(SafeField.class), "set" + typeName, setDesc)); // invokevirtual
+			method.code.write(0xac); // ireturn
+			methods.add(method);
+		}
+		final int code = pool.utf8("Code");
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+		final DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0xCAFEBABE);
+		out.writeShort(0); // minor version
+		out.writeShort(49); // major version: Java 5, no stack map frames needed
+		pool.write(out);
+		out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+		out.writeShort(thisClass);
+		out.writeShort(superClass);
+		if (accessorType == null) {
+			out.writeShort(0); // interfaces
+		} else {
+			out.writeShort(1); // interfaces
+			out.writeShort(accessorClass);
+		}
+		out.writeShort(0); // fields
+		out.writeShort(methods.size());
+		for (Method m : methods) {
+			m.write(out, code);
+		}
+		out.writeShort(0); // attributes
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * A method of a class file being built
+	 */
+	static class Method {
+		public final Code code = new Code();
+		private final int access, name, desc, maxStack, maxLocals;
+		private final List<int[]> handlers = new ArrayList<int[]>(1);
+
+		public Method(ConstantPool pool, int access, String name, String desc, int maxStack, int maxLocals) throws IOException {
+			this.access = access;
+			this.name = pool.utf8(name);
+			this.desc = pool.utf8(desc);
+			this.maxStack = maxStack;
+			this.maxLocals = maxLocals;
+		}
+
+		/**
+		 * Writes an instruction with a constant pool index operand
+		 */
+		public void op(int opcode, int index) {
+			code.write(opcode);
+			code.write(index >> 8);
+			code.write(index);
+		}
+
+		/**
+		 * Writes a branch instruction, the position it jumps to is set later using {@link #target(int)}
+		 * 
+		 * @param opcode of the branch instruction
+		 * @return position of the branch instruction
+		 */
+		public int branch(int opcode) {
+			final int position = code.size();
+			code.write(opcode);
+			code.write(0);
+			code.write(0);
+			return position;
+		}
+
+		/**
+		 * Makes a branch instruction written before jump to the code written next
+		 * 
+		 * @param branch position of the branch instruction
+		 */
+		public void target(int branch) {
+			code.setShort(branch + 1, code.size() - branch);
+		}
+
+		/**
+		 * Starts an exception handler here, handling the exception type for all code written before it
+		 * 
+		 * @param catchType class constant of the exception type
+		 */
+		public void handle(int catchType) {
+			handle(0, code.size(), catchType);
+		}
+
+		/**
+		 * Starts an exception handler here, handling the exception type for a range of the code written before it
+		 * 
+		 * @param start of the handled code, inclusive
+		 * @param end of the handled code, exclusive
+		 * @param catchType class constant of the exception type, 0 to handle all exceptions
+		 */
+		public void handle(int start, int end, int catchType) {
+			handlers.add(new int[] {start, end, code.size(), catchType});
+		}
+
+		public void write(DataOutputStream out, int codeAttr) throws IOException {
+			out.writeShort(access);
+			out.writeShort(name);
+			out.writeShort(desc);
+			out.writeShort(1); // attributes
+			out.writeShort(codeAttr);
+			out.writeInt(12 + code.size() + 8 * handlers.size());
+			out.writeShort(maxStack);
+			out.writeShort(maxLocals);
+			out.writeInt(code.size());
+			code.writeTo(out);
+			out.writeShort(handlers.size());
+			for (int[] handler : handlers) {
+				for (int value : handler) {
+					out.writeShort(value);
+				}
+			}
+			out.writeShort(0); // attributes
+		}
+	}
+
+	/**
+	 * The code of a method being built, written instructions can be changed afterwards
+	 */
+	static class Code extends ByteArrayOutputStream {
+		public void setShort(int position, int value) {
+			buf[position] = (byte) (value >> 8);
+			buf[position + 1] = (byte) value;
+		}
+	}
+
+	/**
+	 * The constant pool of a class file being built, equal entries are only added once
+	 */
+	static class ConstantPool {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		private final DataOutputStream data = new DataOutputStream(bytes);
+		private final Map<String, Integer> entries = new HashMap<String, Integer>();
+		private int count = 1;
+
+		public int utf8(String value) throws IOException {
+			Integer index = entries.get("U" + value);
+			if (index == null) {
+				data.writeByte(1);
+				data.writeUTF(value);
+				index = add("U" + value);
+			}
+			return index.intValue();
+		}
+
+		public int classRef(String internalName) throws IOException {
+			Integer index = entries.get("C" + internalName);
+			if (index == null) {
+				final int name = utf8(internalName);
+				data.writeByte(7);
+				data.writeShort(name);
+				index = add("C" + internalName);
+			}
+			return index.intValue();
+		}
+
+		/**
+		 * Adds a field (tag 9) or method (tag 10) reference
+		 */
+		public int memberRef(int tag, String owner, String name, String desc) throws IOException {
+			final String key = tag + owner + "." + name + ":" + desc;
+			Integer index = entries.get(key);
+			if (index == null) {
+				final int ownerIndex = classRef(owner);
+				final int nameIndex = utf8(name);
+				final int descIndex = utf8(desc);
+				Integer nameAndType = entries.get("N" + name + ":" + desc);
+				if (nameAndType == null) {
+					data.writeByte(12);
+					data.writeShort(nameIndex);
+					data.writeShort(descIndex);
+					nameAndType = add("N" + name + ":" + desc);
+				}
+				data.writeByte(tag);
+				data.writeShort(ownerIndex);
+				data.writeShort(nameAndType.intValue());
+				index = add(key);
+			}
+			return index.intValue();
+		}
+
+		private Integer add(String key) {
+			final Integer index = Integer.valueOf(count++);
+			entries.put(key, index);
+			return index;
+		}
+
+		public void write(DataOutputStream out) throws IOException {
+			data.flush();
+			out.writeShort(count);
+			bytes.writeTo(out);
+		}
+	}
+
+	/**
+	 * Defines the generated classes, resolving all other classes through the plugin class loader
+	 */
+	private static class Loader extends ClassLoader {
+		public Loader(ClassLoader parent) {
+			super(parent);
+		}
+
+		public Class<?> define(String name, byte[] data) {
+			return defineClass(name, data, 0, data.length);
+		}
+	}
+}
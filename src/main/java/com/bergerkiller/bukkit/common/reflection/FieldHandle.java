@@ -0,0 +1,462 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Accesses a field directly at its memory offset, bound once when the field is loaded.<br>
+ * The JIT compiles these accesses to plain field reads and writes, unlike java.lang.reflect.Field,
+ * which performs access and type checks on every call.
+ * Handles never check anything themselves: callers must verify the instance using {@link #accepts(Object)}
+ * and the value using {@link #acceptsValue(Object)} before setting, and fall back to reflection otherwise.
+ */
+abstract class FieldHandle {
+	private static final UnsafeAccess unsafe = UnsafeAccess.get();
+	protected final Class<?> owner;
+	protected final Class<?> type;
+	protected final Object base;
+	protected final long offset;
+
+	private FieldHandle(Field field) {
+		this.owner = field.getDeclaringClass();
+		this.type = field.getType();
+		if (Modifier.isStatic(field.getModifiers())) {
+			// Reflection initializes the class before accessing a static field, so must we
+			unsafe.ensureClassInitialized(this.owner);
+			this.base = unsafe.staticFieldBase(field);
+			this.offset = unsafe.staticFieldOffset(field);
+		} else {
+			this.base = null;
+			this.offset = unsafe.objectFieldOffset(field);
+		}
+	}
+
+	/**
+	 * Checks whether the field can be accessed in an instance using this handle
+	 * 
+	 * @param instance to check
+	 * @return True if the instance declares the field, or if the field is static
+	 */
+	public final boolean accepts(Object instance) {
+		return base != null || owner.isInstance(instance);
+	}
+
+	/**
+	 * Checks whether the primitive get and set methods of a type can be used for an instance.
+	 * Only the methods of the exact field type can be used, reflection handles widening conversions.
+	 * 
+	 * @param instance to check
+	 * @param primitiveType of the get and set methods, such as int.class
+	 * @return True if the instance is accepted and the field is of the type
+	 */
+	public final boolean accepts(Object instance, Class<?> primitiveType) {
+		return type == primitiveType && accepts(instance);
+	}
+
+	/**
+	 * Checks whether a value can be stored in the field using this handle.
+	 * Primitive fields only accept their own wrapper type, reflection handles widening conversions.
+	 * 
+	 * @param value to check
+	 * @return True if the value can be set using this handle
+	 */
+	public abstract boolean acceptsValue(Object value);
+
+	/**
+	 * Gets the field value from an accepted instance
+	 * 
+	 * @param instance to get from, ignored for static fields
+	 * @return field value, primitives are boxed
+	 */
+	public abstract Object get(Object instance);
+
+	/**
+	 * Sets the field value in an accepted instance
+	 * 
+	 * @param instance to set in, ignored for static fields
+	 * @param value to set to, must be accepted
+	 */
+	public abstract void set(Object instance, Object value);
+
+	/**
+	 * Gets the value of an int field from an accepted instance without boxing it
+	 * 
+	 * @param instance to get from, ignored for static fields
+	 * @return field value
+	 */
+	public final int getInt(Object instance) {
+		return unsafe.getInt(target(instance), offset);
+	}
+
+	/**
+	 * Sets the value of an int field in an accepted instance without boxing it
+	 * 
+	 * @param instance to set in, ignored for static fields
+	 * @param value to set to
+	 */
+	public final void setInt(Object instance, int value) {
+		unsafe.putInt(target(instance), offset, value);
+	}
+
+	/**
+	 * Gets the value of a long field from an accepted instance without boxing it
+	 * 
+	 * @param instance to get from, ignored for static fields
+	 * @return field value
+	 */
+	public final long getLong(Object instance) {
+		return unsafe.getLong(target(instance), offset);
+	}
+
+	/**
+	 * Sets the value of a long field in an accepted instance without boxing it
+	 * 
+	 * @param instance to set in, ignored for static fields
+	 * @param value to set to
+	 */
+	public final void setLong(Object instance, long value) {
+		unsafe.putLong(target(instance), offset, value);
+	}
+
+	/**
+	 * Gets the value of a double field from an accepted instance without boxing it
+	 * 
+	 * @param instance to get from, ignored for static fields
+	 * @return field value
+	 */
+	public final double getDouble(Object instance) {
+		return unsafe.getDouble(target(instance), offset);
+	}
+
+	/**
+	 * Sets the value of a double field in an accepted instance without boxing it
+	 * 
+	 * @param instance to set in, ignored for static fields
+	 * @param value to set to
+	 */
+	public final void setDouble(Object instance, double value) {
+		unsafe.putDouble(target(instance), offset, value);
+	}
+
+	/**
+	 * Gets the value of a float field from an accepted instance without boxing it
+	 * 
+	 * @param instance to get from, ignored for static fields
+	 * @return field value
+	 */
+	public final float getFloat(Object instance) {
+		return unsafe.getFloat(target(instance), offset);
+	}
+
+	/**
+	 * Sets the value of a float field in an accepted instance without boxing it
+	 * 
+	 * @param instance to set in, ignored for static fields
+	 * @param value to set to
+	 */
+	public final void setFloat(Object instance, float value) {
+		unsafe.putFloat(target(instance), offset, value);
+	}
+
+	/**
+	 * Gets the value of a short field from an accepted instance without boxing it
+	 * 
+	 * @param instance to get from, ignored for static fields
+	 * @return field value
+	 */
+	public final short getShort(Object instance) {
+		return unsafe.getShort(target(instance), offset);
+	}
+
+	/**
+	 * Sets the value of a short field in an accepted instance without boxing it
+	 * 
+	 * @param instance to set in, ignored for static fields
+	 * @param value to set to
+	 */
+	public final void setShort(Object instance, short value) {
+		unsafe.putShort(target(instance), offset, value);
+	}
+
+	/**
+	 * Gets the value of a byte field from an accepted instance without boxing it
+	 * 
+	 * @param instance to get from, ignored for static fields
+	 * @return field value
+	 */
+	public final byte getByte(Object instance) {
+		return unsafe.getByte(target(instance), offset);
+	}
+
+	/**
+	 * Sets the value of a byte field in an accepted instance without boxing it
+	 * 
+	 * @param instance to set in, ignored for static fields
+	 * @param value to set to
+	 */
+	public final void setByte(Object instance, byte value) {
+		unsafe.putByte(target(instance), offset, value);
+	}
+
+	/**
+	 * Gets the value of a boolean field from an accepted instance without boxing it
+	 * 
+	 * @param instance to get from, ignored for static fields
+	 * @return field value
+	 */
+	public final boolean getBoolean(Object instance) {
+		return unsafe.getBoolean(target(instance), offset);
+	}
+
+	/**
+	 * Sets the value of a boolean field in an accepted instance without boxing it
+	 * 
+	 * @param instance to set in, ignored for static fields
+	 * @param value to set to
+	 */
+	public final void setBoolean(Object instance, boolean value) {
+		unsafe.putBoolean(target(instance), offset, value);
+	}
+
+
+	/**
+	 * Gets the Unsafe access used to access fields
+	 * 
+	 * @return Unsafe access, or null if it is not available on this JVM
+	 */
+	static UnsafeAccess getUnsafe() {
+		return unsafe;
+	}
+
+	protected final Object target(Object instance) {
+		return base == null ? instance : base;
+	}
+
+	/**
+	 * Creates a handle for a field
+	 * 
+	 * @param field to create a handle for
+	 * @return field handle, or null if the field has to be accessed using reflection
+	 */
+	public static FieldHandle create(Field field) {
+		final int mod = field.getModifiers();
+		if (unsafe == null || Modifier.isVolatile(mod) || (Modifier.isStatic(mod) && Modifier.isFinal(mod))) {
+			// Volatile needs ordering guarantees and static final fields can not be set, leave those to reflection
+			return null;
+		}
+		try {
+			final Class<?> type = field.getType();
+			if (!type.isPrimitive()) {
+				return new ObjectHandle(field);
+			} else if (type == int.class) {
+				return new IntHandle(field);
+			} else if (type == double.class) {
+				return new DoubleHandle(field);
+			} else if (type == boolean.class) {
+				return new BooleanHandle(field);
+			} else if (type == byte.class) {
+				return new ByteHandle(field);
+			} else if (type == float.class) {
+				return new FloatHandle(field);
+			} else if (type == long.class) {
+				return new LongHandle(field);
+			} else if (type == short.class) {
+				return new ShortHandle(field);
+			} else if (type == char.class) {
+				return new CharHandle(field);
+			}
+		} catch (Throwable t) {
+			// Offset could not be obtained, use reflection
+		}
+		return null;
+	}
+
+	private static final class ObjectHandle extends FieldHandle {
+		public ObjectHandle(Field field) {
+			super(field);
+		}
+
+		@Override
+		public boolean acceptsValue(Object value) {
+			return value == null || type.isInstance(value);
+		}
+
+		@Override
+		public Object get(Object instance) {
+			return unsafe.getObject(target(instance), offset);
+		}
+
+		@Override
+		public void set(Object instance, Object value) {
+			unsafe.putObject(target(instance), offset, value);
+		}
+	}
+
+	private static final class IntHandle extends FieldHandle {
+		public IntHandle(Field field) {
+			super(field);
+		}
+
+		@Override
+		public boolean acceptsValue(Object value) {
+			return value instanceof Integer;
+		}
+
+		@Override
+		public Object get(Object instance) {
+			return unsafe.getInt(target(instance), offset);
+		}
+
+		@Override
+		public void set(Object instance, Object value) {
+			unsafe.putInt(target(instance), offset, ((Integer) value).intValue());
+		}
+	}
+
+	private static final class DoubleHandle extends FieldHandle {
+		public DoubleHandle(Field field) {
+			super(field);
+		}
+
+		@Override
+		public boolean acceptsValue(Object value) {
+			return value instanceof Double;
+		}
+
+		@Override
+		public Object get(Object instance) {
+			return unsafe.getDouble(target(instance), offset);
+		}
+
+		@Override
+		public void set(Object instance, Object value) {
+			unsafe.putDouble(target(instance), offset, ((Double) value).doubleValue());
+		}
+	}
+
+	private static final class BooleanHandle extends FieldHandle {
+		public BooleanHandle(Field field) {
+			super(field);
+		}
+
+		@Override
+		public boolean acceptsValue(Object value) {
+			return value instanceof Boolean;
+		}
+
+		@Override
+		public Object get(Object instance) {
+			return unsafe.getBoolean(target(instance), offset);
+		}
+
+		@Override
+		public void set(Object instance, Object value) {
+			unsafe.putBoolean(target(instance), offset, ((Boolean) value).booleanValue());
+		}
+	}
+
+	private static final class ByteHandle extends FieldHandle {
+		public ByteHandle(Field field) {
+			super(field);
+		}
+
+		@Override
+		public boolean acceptsValue(Object value) {
+			return value instanceof Byte;
+		}
+
+		@Override
+		public Object get(Object instance) {
+			return unsafe.getByte(target(instance), offset);
+		}
+
+		@Override
+		public void set(Object instance, Object value) {
+			unsafe.putByte(target(instance), offset, ((Byte) value).byteValue());
+		}
+	}
+
+	private static final class FloatHandle extends FieldHandle {
+		public FloatHandle(Field field) {
+			super(field);
+		}
+
+		@Override
+		public boolean acceptsValue(Object value) {
+			return value instanceof Float;
+		}
+
+		@Override
+		public Object get(Object instance) {
+			return unsafe.getFloat(target(instance), offset);
+		}
+
+		@Override
+		public void set(Object instance, Object value) {
+			unsafe.putFloat(target(instance), offset, ((Float) value).floatValue());
+		}
+	}
+
+	private static final class LongHandle extends FieldHandle {
+		public LongHandle(Field field) {
+			super(field);
+		}
+
+		@Override
+		public boolean acceptsValue(Object value) {
+			return value instanceof Long;
+		}
+
+		@Override
+		public Object get(Object instance) {
+			return unsafe.getLong(target(instance), offset);
+		}
+
+		@Override
+		public void set(Object instance, Object value) {
+			unsafe.putLong(target(instance), offset, ((Long) value).longValue());
+		}
+	}
+
+	private static final class ShortHandle extends FieldHandle {
+		public ShortHandle(Field field) {
+			super(field);
+		}
+
+		@Override
+		public boolean acceptsValue(Object value) {
+			return value instanceof Short;
+		}
+
+		@Override
+		public Object get(Object instance) {
+			return unsafe.getShort(target(instance), offset);
+		}
+
+		@Override
+		public void set(Object instance, Object value) {
+			unsafe.putShort(target(instance), offset, ((Short) value).shortValue());
+		}
+	}
+
+	private static final class CharHandle extends FieldHandle {
+		public CharHandle(Field field) {
+			super(field);
+		}
+
+		@Override
+		public boolean acceptsValue(Object value) {
+			return value instanceof Character;
+		}
+
+		@Override
+		public Object get(Object instance) {
+			return unsafe.getChar(target(instance), offset);
+		}
+
+		@Override
+		public void set(Object instance, Object value) {
+			unsafe.putChar(target(instance), offset, ((Character) value).charValue());
+		}
+	}
+}
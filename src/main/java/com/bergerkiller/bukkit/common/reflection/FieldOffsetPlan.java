@@ -0,0 +1,111 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The memory offsets of a fixed set of fields, grouped by the size of their value.<br>
+ * Values of the same size are copied the same way, the field type only matters when converting the bits.
+ * Every offset is stored together with the index of its field in the set of fields the plan was created with.
+ * Fields that can not be accessed at their offset, such as volatile fields, are listed in {@link #reflected}
+ * and have to be accessed using their SafeField. Fields that failed to load are left out entirely.
+ */
+final class FieldOffsetPlan {
+	private static final long[] NO_OFFSETS = new long[0];
+	private static final int[] NO_INDICES = new int[0];
+	public final long[] references, longs, ints, shorts, bytes;
+	public final int[] referenceIndices, longIndices, intIndices, shortIndices, byteIndices;
+	public final int[] reflected;
+
+	public FieldOffsetPlan(SafeField<?>[] fields) {
+		final List<Integer> reflected = new ArrayList<Integer>();
+		final Offsets references = new Offsets();
+		final Offsets longs = new Offsets();
+		final Offsets ints = new Offsets();
+		final Offsets shorts = new Offsets();
+		final Offsets bytes = new Offsets();
+		final UnsafeAccess unsafe = FieldHandle.getUnsafe();
+		for (int i = 0; i < fields.length; i++) {
+			final Field field = fields[i].getField();
+			if (field == null) {
+				continue;
+			}
+			final int mod = field.getModifiers();
+			if (unsafe == null || Modifier.isStatic(mod) || Modifier.isVolatile(mod)) {
+				reflected.add(Integer.valueOf(i));
+				continue;
+			}
+			final long offset;
+			try {
+				offset = unsafe.objectFieldOffset(field);
+			} catch (Throwable t) {
+				reflected.add(Integer.valueOf(i));
+				continue;
+			}
+			final Class<?> fieldType = field.getType();
+			if (!fieldType.isPrimitive()) {
+				references.add(offset, i);
+			} else if (fieldType == long.class || fieldType == double.class) {
+				longs.add(offset, i);
+			} else if (fieldType == int.class || fieldType == float.class) {
+				ints.add(offset, i);
+			} else if (fieldType == short.class || fieldType == char.class) {
+				shorts.add(offset, i);
+			} else {
+				bytes.add(offset, i);
+			}
+		}
+		this.reflected = toArray(reflected);
+		this.references = references.getOffsets();
+		this.referenceIndices = references.getIndices();
+		this.longs = longs.getOffsets();
+		this.longIndices = longs.getIndices();
+		this.ints = ints.getOffsets();
+		this.intIndices = ints.getIndices();
+		this.shorts = shorts.getOffsets();
+		this.shortIndices = shorts.getIndices();
+		this.bytes = bytes.getOffsets();
+		this.byteIndices = bytes.getIndices();
+	}
+
+	private static int[] toArray(List<Integer> values) {
+		if (values.isEmpty()) {
+			return NO_INDICES;
+		}
+		final int[] result = new int[values.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = values.get(i).intValue();
+		}
+		return result;
+	}
+
+	/**
+	 * Collects the memory offsets of fields and the index of the field they belong to
+	 */
+	private static class Offsets {
+		private final List<Long> offsets = new ArrayList<Long>();
+		private final List<Integer> indices = new ArrayList<Integer>();
+
+		public void add(long offset, int index) {
+			offsets.add(Long.valueOf(offset));
+			indices.add(Integer.valueOf(index));
+		}
+
+		public long[] getOffsets() {
+			if (offsets.isEmpty()) {
+				return NO_OFFSETS;
+			}
+			final long[] result = new long[offsets.size()];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = offsets.get(i).longValue();
+			}
+			return result;
+		}
+
+		public int[] getIndices() {
+			return toArray(indices);
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+/**
+ * Holds the values of several fields of an instance, read at once by a {@link FieldSnapshotReader}<br>
+ * Primitive values are stored without boxing them. Values are accessed by the index of the field,
+ * which is the position of its name in the names the reader was created with.
+ * Use the get method matching the type of the field: the value is not checked or converted.<br><br>
+ * 
+ * A snapshot can be re-used for every read, and handed to another thread once it has been read.
+ */
+public class FieldSnapshot {
+	final long[] values;
+	final Object[] objects;
+
+	FieldSnapshot(int size) {
+		this.values = new long[size];
+		this.objects = new Object[size];
+	}
+
+	/**
+	 * Gets the amount of fields stored in this snapshot
+	 * 
+	 * @return field count
+	 */
+	public int size() {
+		return values.length;
+	}
+
+	/**
+	 * Gets the value of a field that is not of a primitive type
+	 * 
+	 * @param index of the field
+	 * @return field value
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(int index) {
+		return (T) objects[index];
+	}
+
+	/**
+	 * Gets the value of a double field
+	 * 
+	 * @param index of the field
+	 * @return field value
+	 */
+	public double getDouble(int index) {
+		return Double.longBitsToDouble(values[index]);
+	}
+
+	/**
+	 * Gets the value of a float field
+	 * 
+	 * @param index of the field
+	 * @return field value
+	 */
+	public float getFloat(int index) {
+		return Float.intBitsToFloat((int) values[index]);
+	}
+
+	/**
+	 * Gets the value of a long field
+	 * 
+	 * @param index of the field
+	 * @return field value
+	 */
+	public long getLong(int index) {
+		return values[index];
+	}
+
+	/**
+	 * Gets the value of an int field
+	 * 
+	 * @param index of the field
+	 * @return field value
+	 */
+	public int getInt(int index) {
+		return (int) values[index];
+	}
+
+	/**
+	 * Gets the value of a short field
+	 * 
+	 * @param index of the field
+	 * @return field value
+	 */
+	public short getShort(int index) {
+		return (short) values[index];
+	}
+
+	/**
+	 * Gets the value of a char field
+	 * 
+	 * @param index of the field
+	 * @return field value
+	 */
+	public char getChar(int index) {
+		return (char) values[index];
+	}
+
+	/**
+	 * Gets the value of a byte field
+	 * 
+	 * @param index of the field
+	 * @return field value
+	 */
+	public byte getByte(int index) {
+		return (byte) values[index];
+	}
+
+	/**
+	 * Gets the value of a boolean field
+	 * 
+	 * @param index of the field
+	 * @return field value
+	 */
+	public boolean getBoolean(int index) {
+		return values[index] != 0L;
+	}
+}
@@ -0,0 +1,140 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+import java.util.Collection;
+
+/**
+ * Reads a fixed set of fields of an instance into a {@link FieldSnapshot} in a single call.<br>
+ * Like a {@link FieldTransfer}, the fields are sorted by the size of their value once, when this reader is created.
+ * Reading then copies the memory of every field into the snapshot without reflection or boxing the values.
+ * Fields that can not be read this way, such as volatile fields, are read using their SafeField.<br><br>
+ * 
+ * The values in the snapshot are stored in the order of the field names the reader was created with.
+ * Obtain a reader using {@link ClassTemplate#getSnapshotReader(String...)}.
+ */
+public final class FieldSnapshotReader {
+	private final Class<?> type;
+	private final SafeField<?>[] fields;
+	private final FieldOffsetPlan plan;
+
+	FieldSnapshotReader(Class<?> type, Collection<SafeField<?>> fields) {
+		this.type = type;
+		this.fields = fields.toArray(new SafeField<?>[0]);
+		this.plan = new FieldOffsetPlan(this.fields);
+	}
+
+	/**
+	 * Gets the Class type of the instances this reader reads from
+	 * 
+	 * @return Class type
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * Gets the amount of fields read
+	 * 
+	 * @return field count
+	 */
+	public int size() {
+		return fields.length;
+	}
+
+	/**
+	 * Gets the name of a field read
+	 * 
+	 * @param index of the field in the snapshot
+	 * @return field name
+	 */
+	public String getName(int index) {
+		return fields[index].getName();
+	}
+
+	/**
+	 * Creates a new, empty snapshot that can hold the fields of this reader
+	 * 
+	 * @return new snapshot
+	 */
+	public FieldSnapshot newSnapshot() {
+		return new FieldSnapshot(fields.length);
+	}
+
+	/**
+	 * Reads all the fields of an instance into a new snapshot
+	 * 
+	 * @param instance to read from
+	 * @return snapshot containing the field values
+	 */
+	public FieldSnapshot read(Object instance) {
+		return read(instance, newSnapshot());
+	}
+
+	/**
+	 * Reads all the fields of an instance into an existing snapshot, overwriting the previous values.
+	 * The fields are read in a single call, but not atomically: fields changed by another thread
+	 * while reading may or may not be included.
+	 * 
+	 * @param instance to read from
+	 * @param snapshot to read into, created by this reader
+	 * @return the snapshot
+	 */
+	public FieldSnapshot read(Object instance, FieldSnapshot snapshot) {
+		if (snapshot.values.length != fields.length) {
+			throw new IllegalArgumentException("Snapshot holds " + snapshot.values.length + " fields, " + fields.length + " are read");
+		}
+		final long[] values = snapshot.values;
+		final Object[] objects = snapshot.objects;
+		if (type == null || !type.isInstance(instance)) {
+			// Let the SafeFields deal with (and log) invalid instances
+			for (int i = 0; i < fields.length; i++) {
+				readReflected(instance, i, values, objects);
+			}
+			return snapshot;
+		}
+		final UnsafeAccess unsafe = FieldHandle.getUnsafe();
+		final FieldOffsetPlan plan = this.plan;
+		for (int i = 0; i < plan.references.length; i++) {
+			objects[plan.referenceIndices[i]] = unsafe.getObject(instance, plan.references[i]);
+		}
+		for (int i = 0; i < plan.longs.length; i++) {
+			values[plan.longIndices[i]] = unsafe.getLong(instance, plan.longs[i]);
+		}
+		for (int i = 0; i < plan.ints.length; i++) {
+			values[plan.intIndices[i]] = unsafe.getInt(instance, plan.ints[i]);
+		}
+		for (int i = 0; i < plan.shorts.length; i++) {
+			values[plan.shortIndices[i]] = unsafe.getShort(instance, plan.shorts[i]);
+		}
+		for (int i = 0; i < plan.bytes.length; i++) {
+			values[plan.byteIndices[i]] = unsafe.getByte(instance, plan.bytes[i]);
+		}
+		for (int index : plan.reflected) {
+			readReflected(instance, index, values, objects);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Reads a single field using its SafeField, storing primitive values the same way memory reads do
+	 */
+	private void readReflected(Object instance, int index, long[] values, Object[] objects) {
+		final SafeField<?> field = fields[index];
+		final Object value = field.get(instance);
+		if (!field.isValid() || !field.getType().isPrimitive()) {
+			objects[index] = value;
+			values[index] = 0L;
+		} else if (value instanceof Double) {
+			values[index] = Double.doubleToRawLongBits(((Double) value).doubleValue());
+		} else if (value instanceof Float) {
+			values[index] = Float.floatToRawIntBits(((Float) value).floatValue());
+		} else if (value instanceof Boolean) {
+			values[index] = ((Boolean) value).booleanValue() ? 1L : 0L;
+		} else if (value instanceof Character) {
+			values[index] = ((Character) value).charValue();
+		} else if (value instanceof Number) {
+			values[index] = ((Number) value).longValue();
+		} else {
+			values[index] = 0L;
+		}
+	}
+}
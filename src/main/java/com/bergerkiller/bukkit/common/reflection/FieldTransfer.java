@@ -0,0 +1,77 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+import java.util.Collection;
+
+/**
+ * Copies a fixed set of fields from one instance of a Class to another.<br>
+ * The fields are sorted by the size of their value once, when this transfer is created.
+ * Transferring then copies the memory of every field without reflection or boxing the values.
+ * Fields that can not be copied this way, such as volatile fields, are transferred using their SafeField.<br><br>
+ * 
+ * Obtain a transfer using {@link ClassTemplate#getTransfer(String...)}.
+ */
+public final class FieldTransfer {
+	private final Class<?> type;
+	private final SafeField<?>[] fields;
+	private final FieldOffsetPlan plan;
+
+	FieldTransfer(Class<?> type, Collection<SafeField<?>> fields) {
+		this.type = type;
+		this.fields = fields.toArray(new SafeField<?>[0]);
+		this.plan = new FieldOffsetPlan(this.fields);
+	}
+
+	/**
+	 * Gets the Class type of the instances this transfer copies between
+	 * 
+	 * @return Class type
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * Gets the amount of fields transferred
+	 * 
+	 * @return field count
+	 */
+	public int size() {
+		return fields.length;
+	}
+
+	/**
+	 * Transfers all the fields of this transfer from one instance to the other
+	 * 
+	 * @param from instance
+	 * @param to instance
+	 */
+	public void transfer(Object from, Object to) {
+		if (type == null || !type.isInstance(from) || !type.isInstance(to)) {
+			// Let the SafeFields deal with (and log) invalid instances
+			for (SafeField<?> field : fields) {
+				field.transfer(from, to);
+			}
+			return;
+		}
+		final UnsafeAccess unsafe = FieldHandle.getUnsafe();
+		final FieldOffsetPlan plan = this.plan;
+		for (long offset : plan.references) {
+			unsafe.putObject(to, offset, unsafe.getObject(from, offset));
+		}
+		for (long offset : plan.longs) {
+			unsafe.putLong(to, offset, unsafe.getLong(from, offset));
+		}
+		for (long offset : plan.ints) {
+			unsafe.putInt(to, offset, unsafe.getInt(from, offset));
+		}
+		for (long offset : plan.shorts) {
+			unsafe.putShort(to, offset, unsafe.getShort(from, offset));
+		}
+		for (long offset : plan.bytes) {
+			unsafe.putByte(to, offset, unsafe.getByte(from, offset));
+		}
+		for (int index : plan.reflected) {
+			fields[index].transfer(from, to);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+/**
+ * Base class of the field accessors generated at runtime by {@link ClassTemplate#getDirectField(String)}.<br>
+ * The generated read and write methods access the field using plain getfield and putfield instructions.
+ * When these fail, for example because the instance or value is of the wrong type,
+ * the field is accessed using reflection instead so the usual errors are logged.<br><br>
+ * 
+ * This class is only public so generated classes can extend it, do not extend it yourself.
+ * 
+ * @param <T> type of the Field
+ */
+public abstract class GeneratedFieldAccessor<T> extends SafeDirectField<T> {
+	protected final SafeField<T> fallback;
+	private AccessorProfile profile;
+
+	protected GeneratedFieldAccessor(SafeField<T> fallback) {
+		this.fallback = fallback;
+	}
+
+	/**
+	 * Reads the field from an instance, primitive values are boxed
+	 * 
+	 * @param instance to read from
+	 * @return field value
+	 */
+	protected abstract Object read(Object instance);
+
+	/**
+	 * Writes the field of an instance, primitive values are unboxed
+	 * 
+	 * @param instance to write to
+	 * @param value to write
+	 */
+	protected abstract void write(Object instance, Object value);
+
+	@Override
+	public final T get(Object instance) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return getValue(instance);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return getValue(instance);
+	}
+
+	@SuppressWarnings("unchecked")
+	private T getValue(Object instance) {
+		try {
+			return (T) read(instance);
+		} catch (RuntimeException ex) {
+			return fallback.get(instance);
+		}
+	}
+
+	@Override
+	public final boolean set(Object instance, T value) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return setValue(instance, value);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return setValue(instance, value);
+	}
+
+	private boolean setValue(Object instance, T value) {
+		try {
+			write(instance, value);
+			return true;
+		} catch (RuntimeException ex) {
+			return fallback.set(instance, value);
+		}
+	}
+
+	private AccessorProfile profile() {
+		AccessorProfile profile = this.profile;
+		if (profile == null) {
+			this.profile = profile = ReflectionProfiler.getProfile("Generated field", this);
+		}
+		return profile;
+	}
+
+	/**
+	 * Gets the name of this field as declared in the Class
+	 * 
+	 * @return Field name
+	 */
+	public String getName() {
+		return fallback.getName();
+	}
+
+	/**
+	 * Gets the Class type of this field as declared in the Class
+	 * 
+	 * @return Field type
+	 */
+	public Class<?> getType() {
+		return fallback.getType();
+	}
+
+	@Override
+	public String toString() {
+		return fallback.toString();
+	}
+}
@@ -0,0 +1,35 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+/**
+ * Base class of the method invokers generated at runtime for {@link SafeMethod#invoke0(Object)} and the other arities.<br>
+ * A generated invoker overrides the method for the amount of arguments of the method,
+ * which casts the arguments and calls the method directly without creating an arguments array.
+ * All other methods, and the generated one when the instance or arguments are of the wrong type,
+ * invoke the method using reflection instead so the usual errors are thrown.
+ * Exceptions thrown by the method itself are wrapped in a RuntimeException, just like {@link SafeMethod#invoke(Object, Object...)} does.<br><br>
+ * 
+ * This class is only public so generated classes can extend it, do not extend it yourself.
+ */
+public abstract class GeneratedMethodInvoker {
+	protected final SafeMethod<?> fallback;
+
+	protected GeneratedMethodInvoker(SafeMethod<?> fallback) {
+		this.fallback = fallback;
+	}
+
+	public Object invoke0(Object instance) {
+		return fallback.invokeMethod(instance, new Object[] {});
+	}
+
+	public Object invoke1(Object instance, Object arg0) {
+		return fallback.invokeMethod(instance, new Object[] {arg0});
+	}
+
+	public Object invoke2(Object instance, Object arg0, Object arg1) {
+		return fallback.invokeMethod(instance, new Object[] {arg0, arg1});
+	}
+
+	public Object invoke3(Object instance, Object arg0, Object arg1, Object arg2) {
+		return fallback.invokeMethod(instance, new Object[] {arg0, arg1, arg2});
+	}
+}
@@ -0,0 +1,186 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import com.bergerkiller.bukkit.common.reflection.FieldAccessorGenerator.ConstantPool;
+
+/**
+ * Generates {@link GeneratedMethodInvoker} classes calling a single method using invokevirtual,
+ * invokeinterface or invokestatic, for methods with up to three parameters.<br>
+ * Like the generated field accessors, only public methods of public classes can be called this way.
+ * For all other methods an invoker using reflection is returned.
+ * Exceptions thrown by the method are wrapped the same way as when invoked using reflection.
+ */
+class MethodInvokerGenerator {
+	private static final String SUPER_CLASS = FieldAccessorGenerator.internalName(GeneratedMethodInvoker.class);
+	private static final String CLASS_PREFIX = "com/bergerkiller/bukkit/common/reflection/generated/MethodInvoker";
+	private static final String OBJECT = "Ljava/lang/Object;";
+	private static int counter = 0;
+
+	/**
+	 * Generates an invoker for the method of a SafeMethod
+	 * 
+	 * @param method to generate an invoker for, is used when the generated invoke fails
+	 * @return generated invoker, or an invoker using reflection if the method can not be called by a generated class
+	 */
+	public static synchronized GeneratedMethodInvoker generate(SafeMethod<?> method) {
+		final Method m = method.getMethod();
+		if (m != null && canGenerate(m)) {
+			try {
+				final String name = CLASS_PREFIX + (counter++);
+				final byte[] data = build(name, m);
+				final Class<?> type = FieldAccessorGenerator.define(name.replace('/', '.'), data);
+				return (GeneratedMethodInvoker) type.getConstructor(SafeMethod.class).newInstance(method);
+			} catch (Throwable t) {
+				// Generation failed, reflection is used instead
+			}
+		}
+		return new GeneratedMethodInvoker(method) {};
+	}
+
+	private static boolean canGenerate(Method method) {
+		final Class<?>[] params = method.getParameterTypes();
+		if (params.length > 3 || !Modifier.isPublic(method.getModifiers())) {
+			return false;
+		}
+		if (!FieldAccessorGenerator.isVisible(method.getDeclaringClass()) || !FieldAccessorGenerator.isVisible(method.getReturnType())) {
+			return false;
+		}
+		for (Class<?> param : params) {
+			if (!FieldAccessorGenerator.isVisible(param)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static byte[] build(String name, Method target) throws IOException {
+		final ConstantPool pool = new ConstantPool();
+		final Class<?> owner = target.getDeclaringClass();
+		final Class<?>[] params = target.getParameterTypes();
+		final Class<?> returnType = target.getReturnType();
+		final boolean isStatic = Modifier.isStatic(target.getModifiers());
+		final String safeMethod = "L" + FieldAccessorGenerator.internalName(SafeMethod.class) + ";";
+		final int thisClass = pool.classRef(name);
+		final int superClass = pool.classRef(SUPER_CLASS);
+
+		// Constructor passing the fallback SafeMethod to the super class
+		final FieldAccessorGenerator.Method init = new FieldAccessorGenerator.Method(pool, 0x0001, "<init>", "(" + safeMethod + ")V", 2, 2);
+		init.code.write(0x2a); // aload_0
+		init.code.write(0x2b); // aload_1
+		init.op(0xb7, pool.memberRef(10, SUPER_CLASS, "<init>", "(" + safeMethod + ")V")); // invokespecial
+		init.code.write(0xb1); // return
+
+		// Object invoke[N](Object instance, Object arg0, ...)
+		final StringBuilder invokeDesc = new StringBuilder("(").append(OBJECT);
+		final StringBuilder targetDesc = new StringBuilder("(");
+		int argSlots = 0;
+		for (Class<?> param : params) {
+			invokeDesc.append(OBJECT);
+			targetDesc.append(FieldAccessorGenerator.descriptor(param));
+			argSlots += (param == long.class || param == double.class) ? 2 : 1;
+		}
+		invokeDesc.append(')').append(OBJECT);
+		targetDesc.append(')').append(FieldAccessorGenerator.descriptor(returnType));
+		final String invokeName = "invoke" + params.length;
+		final int maxStack = Math.max(5 + argSlots, 2 + params.length);
+		final int exceptionSlot = 2 + params.length;
+		final FieldAccessorGenerator.Method method = new FieldAccessorGenerator.Method(pool, 0x0001, invokeName, invokeDesc.toString(), maxStack, exceptionSlot + 1);
+		final int ownerClass = pool.classRef(FieldAccessorGenerator.internalName(owner));
+		if (!isStatic) {
+			method.code.write(0x2b); // aload_1
+			method.op(0xc0, ownerClass); // checkcast
+			// Fail on a null instance here, where it is still handled by reflection
+			method.code.write(0x59); // dup
+			method.op(0xb6, pool.memberRef(10, "java/lang/Object", "getClass", "()Ljava/lang/Class;")); // invokevirtual
+			method.code.write(0x57); // pop
+		}
+		for (int i = 0; i < params.length; i++) {
+			loadArgument(method, i + 2);
+			final Class<?> param = params[i];
+			if (param.isPrimitive()) {
+				final Class<?> box = FieldAccessorGenerator.getBoxType(param);
+				final String boxName = FieldAccessorGenerator.internalName(box);
+				method.op(0xc0, pool.classRef(boxName)); // checkcast
+				method.op(0xb6, pool.memberRef(10, boxName, param.getName() + "Value", "()" + FieldAccessorGenerator.descriptor(param))); // invokevirtual
+			} else if (param != Object.class) {
+				method.op(0xc0, pool.classRef(FieldAccessorGenerator.internalName(param))); // checkcast
+			}
+		}
+		final int invokeStart = method.code.size();
+		if (isStatic) {
+			method.op(0xb8, pool.memberRef(10, FieldAccessorGenerator.internalName(owner), target.getName(), targetDesc.toString())); // invokestatic
+		} else if (owner.isInterface()) {
+			method.op(0xb9, pool.memberRef(11, FieldAccessorGenerator.internalName(owner), target.getName(), targetDesc.toString())); // invokeinterface
+			method.code.write(1 + argSlots);
+			method.code.write(0);
+		} else {
+			method.op(0xb6, pool.memberRef(10, FieldAccessorGenerator.internalName(owner), target.getName(), targetDesc.toString())); // invokevirtual
+		}
+		final int invokeEnd = method.code.size();
+		if (returnType == void.class) {
+			method.code.write(0x01); // aconst_null
+		} else if (returnType.isPrimitive()) {
+			final Class<?> box = FieldAccessorGenerator.getBoxType(returnType);
+			final String boxDesc = FieldAccessorGenerator.descriptor(box);
+			method.op(0xb8, pool.memberRef(10, FieldAccessorGenerator.internalName(box), "valueOf", "(" + FieldAccessorGenerator.descriptor(returnType) + ")" + boxDesc)); // invokestatic
+		}
+		method.code.write(0xb0); // areturn
+		// Wrong instance or argument types: invoke using reflection, which throws a descriptive exception
+		method.handle(0, invokeStart, pool.classRef("java/lang/RuntimeException"));
+		method.code.write(0x57); // pop
+		method.code.write(0x2a); // aload_0
+		for (int i = 1; i < 2 + params.length; i++) {
+			loadArgument(method, i);
+		}
+		method.op(0xb7, pool.memberRef(10, SUPER_CLASS, invokeName, invokeDesc.toString())); // invokespecial
+		method.code.write(0xb0); // areturn
+		// Thrown by the method itself: wrap it like reflection does, as SafeMethod.invoke throws it
+		final String runtimeException = "java/lang/RuntimeException";
+		final String invocationException = "java/lang/reflect/InvocationTargetException";
+		method.handle(invokeStart, invokeEnd, 0);
+		method.code.write(0x3a); // astore
+		method.code.write(exceptionSlot);
+		method.op(0xbb, pool.classRef(runtimeException)); // new
+		method.code.write(0x59); // dup
+		method.op(0xbb, pool.classRef(invocationException)); // new
+		method.code.write(0x59); // dup
+		method.code.write(0x19); // aload
+		method.code.write(exceptionSlot);
+		method.op(0xb7, pool.memberRef(10, invocationException, "<init>", "(Ljava/lang/Throwable;)V")); // invokespecial
+		method.op(0xb7, pool.memberRef(10, runtimeException, "<init>", "(Ljava/lang/Throwable;)V")); // invokespecial
+		method.code.write(0xbf); // athrow
+		final int code = pool.utf8("Code");
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+		final DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0xCAFEBABE);
+		out.writeShort(0); // minor version
+		out.writeShort(49); // major version: Java 5, no stack map frames needed
+		pool.write(out);
+		out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+		out.writeShort(thisClass);
+		out.writeShort(superClass);
+		out.writeShort(0); // interfaces
+		out.writeShort(0); // fields
+		out.writeShort(2); // methods
+		init.write(out, code);
+		method.write(out, code);
+		out.writeShort(0); // attributes
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static void loadArgument(FieldAccessorGenerator.Method method, int index) {
+		if (index <= 3) {
+			method.code.write(0x2a + index); // aload_[index]
+		} else {
+			method.code.write(0x19); // aload
+			method.code.write(index);
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contains the SafeField types exposing primitive fields without boxing the values
+ */
+class PrimitiveFields {
+	private static final Map<Class<?>, Class<?>> accessorTypes = new HashMap<Class<?>, Class<?>>();
+
+	static {
+		accessorTypes.put(int.class, IntFieldAccessor.class);
+		accessorTypes.put(long.class, LongFieldAccessor.class);
+		accessorTypes.put(double.class, DoubleFieldAccessor.class);
+		accessorTypes.put(float.class, FloatFieldAccessor.class);
+		accessorTypes.put(short.class, ShortFieldAccessor.class);
+		accessorTypes.put(byte.class, ByteFieldAccessor.class);
+		accessorTypes.put(boolean.class, BooleanFieldAccessor.class);
+	}
+
+	/**
+	 * Gets the accessor interface for fields of a primitive type
+	 * 
+	 * @param type of the field
+	 * @return accessor interface, or null if there is none for the type
+	 */
+	public static Class<?> getAccessorType(Class<?> type) {
+		return accessorTypes.get(type);
+	}
+
+	/**
+	 * Creates a SafeField for a field, implementing the primitive accessor interface if there is one
+	 * 
+	 * @param field to create a SafeField for
+	 * @return new SafeField
+	 */
+	public static SafeField<?> create(Field field) {
+		final Class<?> type = field.getType();
+		if (type == int.class) {
+			return new IntField(field);
+		} else if (type == long.class) {
+			return new LongField(field);
+		} else if (type == double.class) {
+			return new DoubleField(field);
+		} else if (type == float.class) {
+			return new FloatField(field);
+		} else if (type == short.class) {
+			return new ShortField(field);
+		} else if (type == byte.class) {
+			return new ByteField(field);
+		} else if (type == boolean.class) {
+			return new BooleanField(field);
+		} else {
+			return new SafeField<Object>(field);
+		}
+	}
+
+	public static final class IntField extends SafeField<Integer> implements IntFieldAccessor {
+		public IntField(Field field) {
+			super(field);
+		}
+
+		public IntField(Class<?> source, String name) {
+			super(source, name);
+		}
+	}
+
+	public static final class LongField extends SafeField<Long> implements LongFieldAccessor {
+		public LongField(Field field) {
+			super(field);
+		}
+
+		public LongField(Class<?> source, String name) {
+			super(source, name);
+		}
+	}
+
+	public static final class DoubleField extends SafeField<Double> implements DoubleFieldAccessor {
+		public DoubleField(Field field) {
+			super(field);
+		}
+
+		public DoubleField(Class<?> source, String name) {
+			super(source, name);
+		}
+	}
+
+	public static final class FloatField extends SafeField<Float> implements FloatFieldAccessor {
+		public FloatField(Field field) {
+			super(field);
+		}
+
+		public FloatField(Class<?> source, String name) {
+			super(source, name);
+		}
+	}
+
+	public static final class ShortField extends SafeField<Short> implements ShortFieldAccessor {
+		public ShortField(Field field) {
+			super(field);
+		}
+
+		public ShortField(Class<?> source, String name) {
+			super(source, name);
+		}
+	}
+
+	public static final class ByteField extends SafeField<Byte> implements ByteFieldAccessor {
+		public ByteField(Field field) {
+			super(field);
+		}
+
+		public ByteField(Class<?> source, String name) {
+			super(source, name);
+		}
+	}
+
+	public static final class BooleanField extends SafeField<Boolean> implements BooleanFieldAccessor {
+		public BooleanField(Field field) {
+			super(field);
+		}
+
+		public BooleanField(Class<?> source, String name) {
+			super(source, name);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the calls made to the reflection accessors of this library, to find the accessors that take the most time<br>
+ * Profiling is disabled by default. While it is disabled, accessors only check whether it is enabled.
+ * Enabled, the get and set calls of {@link SafeField}, {@link TranslatorFieldAccessor} and generated field accessors,
+ * and the invoke calls of {@link SafeMethod}, are counted and timed.
+ * This includes the primitive get and set methods, such as {@link SafeField#getInt(Object)}.
+ * Generated field accessors call these through their SafeField while profiling, so they are measured as a Field.
+ * Accessors for the same member share a single {@link AccessorProfile}.
+ * The time of a translator includes the time spent in the accessor it translates.
+ */
+public final class ReflectionProfiler {
+	static volatile boolean enabled = false;
+	private static final Map<String, AccessorProfile> profiles = new LinkedHashMap<String, AccessorProfile>();
+
+	private ReflectionProfiler() {
+	}
+
+	/**
+	 * Gets whether reflection accessor calls are being measured
+	 * 
+	 * @return True if profiling is enabled, False if not
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets whether reflection accessor calls are measured
+	 * 
+	 * @param enabled state to set to
+	 */
+	public static void setEnabled(boolean enabled) {
+		ReflectionProfiler.enabled = enabled;
+	}
+
+	/**
+	 * Resets the measured values of all accessors back to zero
+	 */
+	public static synchronized void reset() {
+		for (AccessorProfile profile : profiles.values()) {
+			profile.reset();
+		}
+	}
+
+	/**
+	 * Gets the profiles of the accessors that took the most time, highest first
+	 * 
+	 * @param limit of profiles to return
+	 * @return accessor profiles
+	 */
+	public static List<AccessorProfile> getTop(int limit) {
+		final List<AccessorProfile> result;
+		synchronized (ReflectionProfiler.class) {
+			result = new ArrayList<AccessorProfile>(profiles.values());
+		}
+		Collections.sort(result, AccessorProfile.BY_TOTAL_TIME);
+		while (result.size() > limit || (!result.isEmpty() && result.get(result.size() - 1).getCalls() == 0)) {
+			result.remove(result.size() - 1);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the profile for an accessor, creating it the first time
+	 * 
+	 * @param kind of accessor
+	 * @param accessor to get the profile of
+	 * @return accessor profile
+	 */
+	static synchronized AccessorProfile getProfile(String kind, Object accessor) {
+		final String label = getLabel(accessor);
+		final String key = kind + " " + label;
+		AccessorProfile profile = profiles.get(key);
+		if (profile == null) {
+			profile = new AccessorProfile(kind, label);
+			profiles.put(key, profile);
+		}
+		return profile;
+	}
+
+	private static String getLabel(Object accessor) {
+		if (accessor instanceof SafeField) {
+			final Field field = ((SafeField<?>) accessor).getField();
+			if (field != null) {
+				return field.getDeclaringClass().getSimpleName() + "." + field.getName();
+			}
+		} else if (accessor instanceof SafeMethod) {
+			final Method method = ((SafeMethod<?>) accessor).getMethod();
+			if (method != null) {
+				final StringBuilder label = new StringBuilder();
+				label.append(method.getDeclaringClass().getSimpleName()).append('.').append(method.getName()).append('(');
+				final Class<?>[] params = method.getParameterTypes();
+				for (int i = 0; i < params.length; i++) {
+					if (i > 0) {
+						label.append(", ");
+					}
+					label.append(params[i].getSimpleName());
+				}
+				return label.append(')').toString();
+			}
+		} else if (accessor instanceof GeneratedFieldAccessor) {
+			return getLabel(((GeneratedFieldAccessor<?>) accessor).fallback);
+		} else if (accessor instanceof TranslatorFieldAccessor) {
+			return getLabel(((TranslatorFieldAccessor<?>) accessor).getBase());
+		}
+		return accessor.getClass().getName();
+	}
+}
@@ -0,0 +1,161 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+
+/**
+ * Remembers in which class of a class hierarchy the fields and methods looked up by
+ * {@link SafeField} and {@link SafeMethod} are declared.<br>
+ * Finding a member declared in a super class otherwise takes a failed lookup, and thrown exception,
+ * for every class in between. The cache is stored in a file and reused on the next start,
+ * as long as the fingerprint of the server it was made for is the same.
+ * A cached entry is only a hint: if the member is not found where the entry says,
+ * the class hierarchy is searched again.<br><br>
+ * 
+ * The fingerprint only identifies the server jar, so only lookups in classes loaded from it are cached.
+ * Classes of plugins can change without the fingerprint changing, and an outdated entry could then point to
+ * a class further up that declares a member with the same name, which would be used instead.
+ */
+public final class ResolutionCache {
+	private static final int MAGIC = 0x424B5243;
+	private static final ClassLoader serverLoader = Bukkit.class.getClassLoader();
+	private static final Map<String, Integer> entries = new HashMap<String, Integer>();
+	private static String fingerprint = "";
+	private static boolean changed = false;
+
+	private ResolutionCache() {
+	}
+
+	/**
+	 * Loads the cache from a file, previously loaded entries are discarded.
+	 * If the file was saved for a different fingerprint, it is ignored.
+	 * 
+	 * @param file to load from
+	 * @param fingerprint identifying the server and library version the lookups are made on
+	 * @return True if the cache was loaded, False if it did not exist or was made for another server
+	 * @throws IOException if the file could not be read
+	 */
+	public static synchronized boolean load(File file, String fingerprint) throws IOException {
+		entries.clear();
+		ResolutionCache.fingerprint = fingerprint;
+		changed = false;
+		if (!file.exists()) {
+			return false;
+		}
+		final DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (stream.readInt() != MAGIC || !stream.readUTF().equals(fingerprint)) {
+				changed = true;
+				return false;
+			}
+			final int count = stream.readInt();
+			for (int i = 0; i < count; i++) {
+				final String key = stream.readUTF();
+				entries.put(key, Integer.valueOf(stream.readUnsignedByte()));
+			}
+			return true;
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Saves the cache to a file if new lookups were made since it was loaded
+	 * 
+	 * @param file to save to
+	 * @throws IOException if the file could not be written
+	 */
+	public static synchronized void save(File file) throws IOException {
+		if (!changed) {
+			return;
+		}
+		file.getAbsoluteFile().getParentFile().mkdirs();
+		final DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			stream.writeInt(MAGIC);
+			stream.writeUTF(fingerprint);
+			stream.writeInt(entries.size());
+			for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+				stream.writeUTF(entry.getKey());
+				stream.writeByte(entry.getValue().intValue());
+			}
+		} finally {
+			stream.close();
+		}
+		changed = false;
+	}
+
+	/**
+	 * Gets the amount of member lookups stored
+	 * 
+	 * @return entry count
+	 */
+	public static synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Gets the class a member was found in the last time it was looked up
+	 * 
+	 * @param source class the lookup started in
+	 * @param member key of the field or method
+	 * @return declaring class, or null if not known
+	 */
+	static Class<?> getOwner(Class<?> source, String member) {
+		if (source.getClassLoader() != serverLoader) {
+			return null;
+		}
+		final Integer depth;
+		synchronized (ResolutionCache.class) {
+			depth = entries.get(source.getName() + " " + member);
+		}
+		if (depth == null) {
+			return null;
+		}
+		Class<?> owner = source;
+		for (int i = depth.intValue(); i > 0; i--) {
+			owner = owner.getSuperclass();
+			if (owner == null || owner.getClassLoader() != serverLoader) {
+				return null;
+			}
+		}
+		return owner;
+	}
+
+	/**
+	 * Stores in which class a member was found
+	 * 
+	 * @param source class the lookup started in
+	 * @param member key of the field or method
+	 * @param depth amount of super classes between the source class and the class declaring the member
+	 */
+	static synchronized void store(Class<?> source, String member, int depth) {
+		if (depth <= 0xFF && isServerHierarchy(source, depth)) {
+			final Integer old = entries.put(source.getName() + " " + member, Integer.valueOf(depth));
+			changed |= old == null || old.intValue() != depth;
+		}
+	}
+
+	/**
+	 * Checks whether a class and the super classes up to a depth were all loaded from the server jar
+	 */
+	private static boolean isServerHierarchy(Class<?> type, int depth) {
+		for (int i = depth; i >= 0; i--) {
+			if (type == null || type.getClassLoader() != serverLoader) {
+				return false;
+			}
+			type = type.getSuperclass();
+		}
+		return true;
+	}
+}
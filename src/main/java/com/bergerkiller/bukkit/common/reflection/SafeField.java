@@ -13,12 +13,16 @@ import com.bergerkiller.bukkit.common.utils.StringUtil;
 
 /**
  * Wraps around the java.lang.reflect.Field class to provide an error-free alternative<br>
- * Exceptions are logged, isValid can be used to check if the Field is actually working
+ * Exceptions are logged, isValid can be used to check if the Field is actually working.
+ * Where possible the field is accessed at its memory offset instead of using reflection,
+ * values or instances of an unexpected type still go through reflection and fail the same way.
  * 
  * @param <T> type of the Field
  */
 public class SafeField<T> implements FieldAccessor<T> {
 	private Field field;
+	private FieldHandle handle;
+	private AccessorProfile profile;
 
 	public SafeField(Field field) {
 		if (!field.isAccessible()) {
@@ -30,6 +34,7 @@ public class SafeField<T> implements FieldAccessor<T> {
 			}
 		}
 		this.field = field;
+		this.handle = field == null ? null : FieldHandle.create(field);
 	}
 
 	public SafeField(String fieldPath) {
@@ -60,15 +65,33 @@ public class SafeField<T> implements FieldAccessor<T> {
 			new Exception("Can not load field '" + name + "' because the class is null!").printStackTrace();
 			return;
 		}
+		// try the class it was found in the last time first
+		final Class<?> owner = ResolutionCache.getOwner(source, name);
+		if (owner != null) {
+			try {
+				this.field = owner.getDeclaredField(name);
+				this.field.setAccessible(true);
+				this.handle = FieldHandle.create(this.field);
+				return;
+			} catch (Throwable t) {
+				this.field = null;
+			}
+		}
 		// try to find the field
 		Class<?> tmp = source;
+		int depth = 0;
 		while (tmp != null) {
 			try {
 				this.field = tmp.getDeclaredField(name);
 				this.field.setAccessible(true);
+				this.handle = FieldHandle.create(this.field);
+				if (depth > 0) {
+					ResolutionCache.store(source, name, depth);
+				}
 				return;
 			} catch (NoSuchFieldException ex) {
 				tmp = tmp.getSuperclass();
+				depth++;
 			} catch (SecurityException ex) {
 				new Exception("No permission to access field '" + name + "' in class file '" + source.getSimpleName() + "'").printStackTrace();
 				return;
@@ -93,33 +116,561 @@ public class SafeField<T> implements FieldAccessor<T> {
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public T get(Object object) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return getValue(object);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return getValue(object);
+	}
+
+	@SuppressWarnings("unchecked")
+	private T getValue(Object object) {
 		if (this.field == null)
 			return null;
+		final FieldHandle handle = this.handle;
+		if (handle != null && handle.accepts(object)) {
+			return (T) handle.get(object);
+		}
 		try {
 			return (T) this.field.get(object);
 		} catch (Throwable t) {
-			t.printStackTrace();
-			this.field = null;
+			invalidate(t);
 			return null;
 		}
 	}
 
 	@Override
 	public boolean set(Object object, T value) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return setValue(object, value);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return setValue(object, value);
+	}
+
+	private boolean setValue(Object object, T value) {
 		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object) && handle.acceptsValue(value)) {
+				handle.set(object, value);
+				return true;
+			}
 			try {
 				this.field.set(object, value);
 				return true;
 			} catch (Throwable t) {
-				t.printStackTrace();
-				this.field = null;
+				invalidate(t);
+			}
+		}
+		return false;
+	}
+
+	private AccessorProfile profile() {
+		AccessorProfile profile = this.profile;
+		if (profile == null) {
+			this.profile = profile = ReflectionProfiler.getProfile("Field", this);
+		}
+		return profile;
+	}
+
+	/**
+	 * Gets the value of an int field from an instance without boxing it
+	 * 
+	 * @param object to get from
+	 * @return value of the field, or 0 if an error occurred
+	 */
+	public int getInt(Object object) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return getIntValue(object);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return getIntValue(object);
+	}
+
+	private int getIntValue(Object object) {
+		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object, int.class)) {
+				return handle.getInt(object);
+			}
+			try {
+				return this.field.getInt(object);
+			} catch (Throwable t) {
+				invalidate(t);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Sets the value of an int field of an instance without boxing it
+	 * 
+	 * @param object to set the field in
+	 * @param value to set to
+	 * @return True if successful, False if not
+	 */
+	public boolean setInt(Object object, int value) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return setIntValue(object, value);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return setIntValue(object, value);
+	}
+
+	private boolean setIntValue(Object object, int value) {
+		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object, int.class)) {
+				handle.setInt(object, value);
+				return true;
+			}
+			try {
+				this.field.setInt(object, value);
+				return true;
+			} catch (Throwable t) {
+				invalidate(t);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the value of a long field from an instance without boxing it
+	 * 
+	 * @param object to get from
+	 * @return value of the field, or 0L if an error occurred
+	 */
+	public long getLong(Object object) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return getLongValue(object);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return getLongValue(object);
+	}
+
+	private long getLongValue(Object object) {
+		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object, long.class)) {
+				return handle.getLong(object);
+			}
+			try {
+				return this.field.getLong(object);
+			} catch (Throwable t) {
+				invalidate(t);
+			}
+		}
+		return 0L;
+	}
+
+	/**
+	 * Sets the value of a long field of an instance without boxing it
+	 * 
+	 * @param object to set the field in
+	 * @param value to set to
+	 * @return True if successful, False if not
+	 */
+	public boolean setLong(Object object, long value) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return setLongValue(object, value);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return setLongValue(object, value);
+	}
+
+	private boolean setLongValue(Object object, long value) {
+		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object, long.class)) {
+				handle.setLong(object, value);
+				return true;
+			}
+			try {
+				this.field.setLong(object, value);
+				return true;
+			} catch (Throwable t) {
+				invalidate(t);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the value of a double field from an instance without boxing it
+	 * 
+	 * @param object to get from
+	 * @return value of the field, or 0.0 if an error occurred
+	 */
+	public double getDouble(Object object) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return getDoubleValue(object);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return getDoubleValue(object);
+	}
+
+	private double getDoubleValue(Object object) {
+		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object, double.class)) {
+				return handle.getDouble(object);
+			}
+			try {
+				return this.field.getDouble(object);
+			} catch (Throwable t) {
+				invalidate(t);
+			}
+		}
+		return 0.0;
+	}
+
+	/**
+	 * Sets the value of a double field of an instance without boxing it
+	 * 
+	 * @param object to set the field in
+	 * @param value to set to
+	 * @return True if successful, False if not
+	 */
+	public boolean setDouble(Object object, double value) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return setDoubleValue(object, value);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return setDoubleValue(object, value);
+	}
+
+	private boolean setDoubleValue(Object object, double value) {
+		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object, double.class)) {
+				handle.setDouble(object, value);
+				return true;
+			}
+			try {
+				this.field.setDouble(object, value);
+				return true;
+			} catch (Throwable t) {
+				invalidate(t);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the value of a float field from an instance without boxing it
+	 * 
+	 * @param object to get from
+	 * @return value of the field, or 0.0f if an error occurred
+	 */
+	public float getFloat(Object object) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return getFloatValue(object);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return getFloatValue(object);
+	}
+
+	private float getFloatValue(Object object) {
+		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object, float.class)) {
+				return handle.getFloat(object);
+			}
+			try {
+				return this.field.getFloat(object);
+			} catch (Throwable t) {
+				invalidate(t);
+			}
+		}
+		return 0.0f;
+	}
+
+	/**
+	 * Sets the value of a float field of an instance without boxing it
+	 * 
+	 * @param object to set the field in
+	 * @param value to set to
+	 * @return True if successful, False if not
+	 */
+	public boolean setFloat(Object object, float value) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return setFloatValue(object, value);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return setFloatValue(object, value);
+	}
+
+	private boolean setFloatValue(Object object, float value) {
+		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object, float.class)) {
+				handle.setFloat(object, value);
+				return true;
+			}
+			try {
+				this.field.setFloat(object, value);
+				return true;
+			} catch (Throwable t) {
+				invalidate(t);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the value of a short field from an instance without boxing it
+	 * 
+	 * @param object to get from
+	 * @return value of the field, or 0 if an error occurred
+	 */
+	public short getShort(Object object) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return getShortValue(object);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return getShortValue(object);
+	}
+
+	private short getShortValue(Object object) {
+		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object, short.class)) {
+				return handle.getShort(object);
+			}
+			try {
+				return this.field.getShort(object);
+			} catch (Throwable t) {
+				invalidate(t);
+			}
+		}
+		return (short) 0;
+	}
+
+	/**
+	 * Sets the value of a short field of an instance without boxing it
+	 * 
+	 * @param object to set the field in
+	 * @param value to set to
+	 * @return True if successful, False if not
+	 */
+	public boolean setShort(Object object, short value) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return setShortValue(object, value);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return setShortValue(object, value);
+	}
+
+	private boolean setShortValue(Object object, short value) {
+		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object, short.class)) {
+				handle.setShort(object, value);
+				return true;
+			}
+			try {
+				this.field.setShort(object, value);
+				return true;
+			} catch (Throwable t) {
+				invalidate(t);
 			}
 		}
 		return false;
 	}
 
+	/**
+	 * Gets the value of a byte field from an instance without boxing it
+	 * 
+	 * @param object to get from
+	 * @return value of the field, or 0 if an error occurred
+	 */
+	public byte getByte(Object object) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return getByteValue(object);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return getByteValue(object);
+	}
+
+	private byte getByteValue(Object object) {
+		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object, byte.class)) {
+				return handle.getByte(object);
+			}
+			try {
+				return this.field.getByte(object);
+			} catch (Throwable t) {
+				invalidate(t);
+			}
+		}
+		return (byte) 0;
+	}
+
+	/**
+	 * Sets the value of a byte field of an instance without boxing it
+	 * 
+	 * @param object to set the field in
+	 * @param value to set to
+	 * @return True if successful, False if not
+	 */
+	public boolean setByte(Object object, byte value) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return setByteValue(object, value);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return setByteValue(object, value);
+	}
+
+	private boolean setByteValue(Object object, byte value) {
+		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object, byte.class)) {
+				handle.setByte(object, value);
+				return true;
+			}
+			try {
+				this.field.setByte(object, value);
+				return true;
+			} catch (Throwable t) {
+				invalidate(t);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the value of a boolean field from an instance without boxing it
+	 * 
+	 * @param object to get from
+	 * @return value of the field, or false if an error occurred
+	 */
+	public boolean getBoolean(Object object) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return getBooleanValue(object);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return getBooleanValue(object);
+	}
+
+	private boolean getBooleanValue(Object object) {
+		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object, boolean.class)) {
+				return handle.getBoolean(object);
+			}
+			try {
+				return this.field.getBoolean(object);
+			} catch (Throwable t) {
+				invalidate(t);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Sets the value of a boolean field of an instance without boxing it
+	 * 
+	 * @param object to set the field in
+	 * @param value to set to
+	 * @return True if successful, False if not
+	 */
+	public boolean setBoolean(Object object, boolean value) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return setBooleanValue(object, value);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return setBooleanValue(object, value);
+	}
+
+	private boolean setBooleanValue(Object object, boolean value) {
+		if (this.field != null) {
+			final FieldHandle handle = this.handle;
+			if (handle != null && handle.accepts(object, boolean.class)) {
+				handle.setBoolean(object, value);
+				return true;
+			}
+			try {
+				this.field.setBoolean(object, value);
+				return true;
+			} catch (Throwable t) {
+				invalidate(t);
+			}
+		}
+		return false;
+	}
+
+	private void invalidate(Throwable t) {
+		t.printStackTrace();
+		this.field = null;
+		this.handle = null;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder text = new StringBuilder(20);
@@ -146,6 +697,15 @@ public class SafeField<T> implements FieldAccessor<T> {
 		return field.getName();
 	}
 
+	/**
+	 * Gets the java.lang.reflect.Field this SafeField wraps around
+	 * 
+	 * @return Field, or null if this SafeField is not valid
+	 */
+	Field getField() {
+		return field;
+	}
+
 	/**
 	 * Gets the Class type of this field as declared inthe Class
 	 * 
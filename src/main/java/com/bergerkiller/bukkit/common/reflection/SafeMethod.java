@@ -19,6 +19,8 @@ public class SafeMethod<T> implements MethodAccessor<T> {
 	private Method method;
 	private Class<?>[] parameterTypes;
 	private boolean isStatic = false;
+	private volatile GeneratedMethodInvoker invoker;
+	private AccessorProfile profile;
 
 	public SafeMethod(String methodPath, Class<?>... parameterTypes) {
 		if (LogicUtil.nullOrEmpty(methodPath) || !methodPath.contains(".")) {
@@ -48,17 +50,43 @@ public class SafeMethod<T> implements MethodAccessor<T> {
 			new Exception("Can not load method '" + name + "' because the class is null!").printStackTrace();
 			return;
 		}
-		// try to find the field
+		// try the class it was found in the last time first
+		final StringBuilder member = new StringBuilder(name).append('(');
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (i > 0) {
+				member.append(',');
+			}
+			member.append(parameterTypes[i].getName());
+		}
+		member.append(')');
+		final Class<?> owner = ResolutionCache.getOwner(source, member.toString());
+		if (owner != null) {
+			try {
+				this.method = owner.getDeclaredMethod(name, parameterTypes);
+				this.method.setAccessible(true);
+				this.isStatic = Modifier.isStatic(this.method.getModifiers());
+				this.parameterTypes = parameterTypes;
+				return;
+			} catch (Throwable t) {
+				this.method = null;
+			}
+		}
+		// try to find the method
 		Class<?> tmp = source;
+		int depth = 0;
 		while (tmp != null) {
 			try {
 				this.method = tmp.getDeclaredMethod(name, parameterTypes);
 				this.method.setAccessible(true);
 				this.isStatic = Modifier.isStatic(this.method.getModifiers());
 				this.parameterTypes = parameterTypes;
+				if (depth > 0) {
+					ResolutionCache.store(source, member.toString(), depth);
+				}
 				return;
 			} catch (NoSuchMethodException ex) {
 				tmp = tmp.getSuperclass();
+				depth++;
 			} catch (SecurityException ex) {
 				new Exception("No permission to access method '" + name + "' in class file '" + source.getSimpleName() + "'").printStackTrace();
 				return;
@@ -84,6 +112,15 @@ public class SafeMethod<T> implements MethodAccessor<T> {
 		return method.getName();
 	}
 
+	/**
+	 * Gets the Method this SafeMethod invokes
+	 * 
+	 * @return Method, or null if it could not be found
+	 */
+	Method getMethod() {
+		return method;
+	}
+
 	/**
 	 * Checks whether this method is overrided in the Class specified
 	 * 
@@ -104,9 +141,132 @@ public class SafeMethod<T> implements MethodAccessor<T> {
 		return this.method != null;
 	}
 
-	@Override
+	private AccessorProfile profile() {
+		AccessorProfile profile = this.profile;
+		if (profile == null) {
+			this.profile = profile = ReflectionProfiler.getProfile("Method", this);
+		}
+		return profile;
+	}
+
+	/**
+	 * Gets the invoker used by the invoke methods for a fixed amount of arguments, generating it the first time
+	 * 
+	 * @return method invoker
+	 */
+	private GeneratedMethodInvoker getInvoker() {
+		GeneratedMethodInvoker invoker = this.invoker;
+		if (invoker == null) {
+			this.invoker = invoker = MethodInvokerGenerator.generate(this);
+		}
+		return invoker;
+	}
+
+	/**
+	 * Executes a method without arguments, without creating an arguments array.
+	 * The first time this is used, a class calling the method directly is generated if possible.
+	 * 
+	 * @param instance of the class the method is in, use null if it is a static method
+	 * @return A possible returned value from the method, is always null if the method is a void
+	 */
+	@SuppressWarnings("unchecked")
+	public T invoke0(Object instance) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return (T) getInvoker().invoke0(instance);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return (T) getInvoker().invoke0(instance);
+	}
+
+	/**
+	 * Executes a method with one argument, without creating an arguments array
+	 * 
+	 * @param instance of the class the method is in, use null if it is a static method
+	 * @param arg0 first argument
+	 * @return A possible returned value from the method, is always null if the method is a void
+	 */
+	@SuppressWarnings("unchecked")
+	public T invoke1(Object instance, Object arg0) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return (T) getInvoker().invoke1(instance, arg0);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return (T) getInvoker().invoke1(instance, arg0);
+	}
+
+	/**
+	 * Executes a method with two arguments, without creating an arguments array
+	 * 
+	 * @param instance of the class the method is in, use null if it is a static method
+	 * @param arg0 first argument
+	 * @param arg1 second argument
+	 * @return A possible returned value from the method, is always null if the method is a void
+	 */
+	@SuppressWarnings("unchecked")
+	public T invoke2(Object instance, Object arg0, Object arg1) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return (T) getInvoker().invoke2(instance, arg0, arg1);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return (T) getInvoker().invoke2(instance, arg0, arg1);
+	}
+
+	/**
+	 * Executes a method with three arguments, without creating an arguments array
+	 * 
+	 * @param instance of the class the method is in, use null if it is a static method
+	 * @param arg0 first argument
+	 * @param arg1 second argument
+	 * @param arg2 third argument
+	 * @return A possible returned value from the method, is always null if the method is a void
+	 */
 	@SuppressWarnings("unchecked")
+	public T invoke3(Object instance, Object arg0, Object arg1, Object arg2) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return (T) getInvoker().invoke3(instance, arg0, arg1, arg2);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return (T) getInvoker().invoke3(instance, arg0, arg1, arg2);
+	}
+
+	@Override
 	public T invoke(Object instance, Object... args) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return invokeMethod(instance, args);
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
+		return invokeMethod(instance, args);
+	}
+
+	/**
+	 * Executes the method using reflection, without measuring it
+	 * 
+	 * @param instance of the class the method is in, use null if it is a static method
+	 * @param args to use for the method
+	 * @return A possible returned value from the method, is always null if the method is a void
+	 */
+	@SuppressWarnings("unchecked")
+	T invokeMethod(Object instance, Object[] args) {
 		if (this.method != null) {
 			if (!this.isStatic && instance == null) {
 				throw new IllegalArgumentException("Non-static methods require a valid instance passed in - the instance was null");
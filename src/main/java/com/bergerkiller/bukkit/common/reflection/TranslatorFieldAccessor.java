@@ -11,6 +11,7 @@ import com.bergerkiller.bukkit.common.conversion.ConverterPair;
 public class TranslatorFieldAccessor<T> implements FieldAccessor<T> {
 	private final FieldAccessor<Object> base;
 	private final ConverterPair<Object, T> converterPair;
+	private AccessorProfile profile;
 
 	@SuppressWarnings("unchecked")
 	public TranslatorFieldAccessor(FieldAccessor<?> base, Converter<?> setConverter, Converter<T> getConverter) {
@@ -55,16 +56,49 @@ public class TranslatorFieldAccessor<T> implements FieldAccessor<T> {
 		return base.set(instance, value);
 	}
 
+	/**
+	 * Gets the accessor this translator translates the value of
+	 * 
+	 * @return base accessor
+	 */
+	FieldAccessor<Object> getBase() {
+		return base;
+	}
+
 	@Override
 	public T get(Object instance) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return converterPair.convertB(getInternal(instance));
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
 		return converterPair.convertB(getInternal(instance));
 	}
 
 	@Override
 	public boolean set(Object instance, T value) {
+		if (ReflectionProfiler.enabled) {
+			final long start = System.nanoTime();
+			try {
+				return setInternal(instance, converterPair.convertA(value));
+			} finally {
+				profile().record(System.nanoTime() - start);
+			}
+		}
 		return setInternal(instance, converterPair.convertA(value));
 	}
 
+	private AccessorProfile profile() {
+		AccessorProfile profile = this.profile;
+		if (profile == null) {
+			this.profile = profile = ReflectionProfiler.getProfile("Translator", this);
+		}
+		return profile;
+	}
+
 	@Override
 	public T transfer(Object from, Object to) {
 		return converterPair.convertB(base.transfer(from, to));
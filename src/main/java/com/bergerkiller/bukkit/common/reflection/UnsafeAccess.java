@@ -0,0 +1,225 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bergerkiller.bukkit.common.reflection.FieldAccessorGenerator.ConstantPool;
+
+/**
+ * Accesses memory directly using sun.misc.Unsafe, which is obtained reflectively in this one place.<br>
+ * The Unsafe type is not referenced by the sources, compiling against it produces proprietary API warnings.
+ * Instead, a generated subclass calls the Unsafe methods of the same name and signature,
+ * which the JIT compiles the same as direct calls. The subclass is defined in the class loader and package
+ * of this class, so this class does not have to be public.
+ */
+abstract class UnsafeAccess {
+	private static final String UNSAFE = "sun/misc/Unsafe";
+	private static final UnsafeAccess instance;
+
+	static {
+		UnsafeAccess found = null;
+		try {
+			final Class<?> unsafeType = Class.forName(UNSAFE.replace('/', '.'));
+			final Field field = unsafeType.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			final Object unsafe = field.get(null);
+			final String name = "com/bergerkiller/bukkit/common/reflection/GeneratedUnsafeAccess";
+			final Class<?> type = define(unsafe, name.replace('/', '.'), build(name));
+			found = (UnsafeAccess) type.getConstructor(Object.class).newInstance(unsafe);
+		} catch (Throwable t) {
+			// Not available on this JVM, reflection is used instead
+		}
+		instance = found;
+	}
+
+	/**
+	 * Defines the generated subclass in the class loader and package of this class
+	 */
+	private static Class<?> define(Object unsafe, String name, byte[] data) throws Exception {
+		final ClassLoader loader = UnsafeAccess.class.getClassLoader();
+		final Method defineClass;
+		try {
+			// Up to Java 8
+			defineClass = unsafe.getClass().getMethod("defineClass", String.class, byte[].class, int.class, int.class, ClassLoader.class, ProtectionDomain.class);
+		} catch (NoSuchMethodException ex) {
+			// Java 9 and later, where classes are defined in the package of a lookup instead
+			final Object lookup = MethodHandles.lookup();
+			return (Class<?>) lookup.getClass().getMethod("defineClass", byte[].class).invoke(lookup, data);
+		}
+		return (Class<?>) defineClass.invoke(unsafe, name, data, 0, data.length, loader, UnsafeAccess.class.getProtectionDomain());
+	}
+
+	protected UnsafeAccess() {
+	}
+
+	/**
+	 * Gets the Unsafe access instance
+	 * 
+	 * @return Unsafe access, or null if Unsafe is not available on this JVM
+	 */
+	static UnsafeAccess get() {
+		return instance;
+	}
+
+	public abstract long objectFieldOffset(Field field);
+
+	public abstract long staticFieldOffset(Field field);
+
+	public abstract Object staticFieldBase(Field field);
+
+	public abstract void ensureClassInitialized(Class<?> type);
+
+	public abstract Object allocateInstance(Class<?> type) throws InstantiationException;
+
+	public abstract Object getObject(Object instance, long offset);
+
+	public abstract void putObject(Object instance, long offset, Object value);
+
+	public abstract int getInt(Object instance, long offset);
+
+	public abstract void putInt(Object instance, long offset, int value);
+
+	public abstract long getLong(Object instance, long offset);
+
+	public abstract void putLong(Object instance, long offset, long value);
+
+	public abstract double getDouble(Object instance, long offset);
+
+	public abstract void putDouble(Object instance, long offset, double value);
+
+	public abstract float getFloat(Object instance, long offset);
+
+	public abstract void putFloat(Object instance, long offset, float value);
+
+	public abstract boolean getBoolean(Object instance, long offset);
+
+	public abstract void putBoolean(Object instance, long offset, boolean value);
+
+	public abstract byte getByte(Object instance, long offset);
+
+	public abstract void putByte(Object instance, long offset, byte value);
+
+	public abstract short getShort(Object instance, long offset);
+
+	public abstract void putShort(Object instance, long offset, short value);
+
+	public abstract char getChar(Object instance, long offset);
+
+	public abstract void putChar(Object instance, long offset, char value);
+
+	private static byte[] build(String name) throws IOException {
+		final ConstantPool pool = new ConstantPool();
+		final String superName = FieldAccessorGenerator.internalName(UnsafeAccess.class);
+		final String unsafeDesc = "L" + UNSAFE + ";";
+		final int thisClass = pool.classRef(name);
+		final int superClass = pool.classRef(superName);
+		final int unsafeField = pool.memberRef(9, name, "unsafe", unsafeDesc);
+		final List<FieldAccessorGenerator.Method> methods = new ArrayList<FieldAccessorGenerator.Method>();
+
+		// Constructor storing the Unsafe instance
+		FieldAccessorGenerator.Method method = new FieldAccessorGenerator.Method(pool, 0x0001, "<init>", "(Ljava/lang/Object;)V", 2, 2);
+		method.code.write(0x2a); // aload_0
+		method.op(0xb7, pool.memberRef(10, superName, "<init>", "()V")); // invokespecial
+		method.code.write(0x2a); // aload_0
+		method.code.write(0x2b); // aload_1
+		method.op(0xc0, pool.classRef(UNSAFE)); // checkcast
+		method.op(0xb5, unsafeField); // putfield
+		method.code.write(0xb1); // return
+		methods.add(method);
+
+		// Every abstract method calls the Unsafe method with the same name and signature
+		for (Method m : UnsafeAccess.class.getDeclaredMethods()) {
+			if (!Modifier.isAbstract(m.getModifiers())) {
+				continue;
+			}
+			final StringBuilder desc = new StringBuilder("(");
+			int slots = 1;
+			for (Class<?> param : m.getParameterTypes()) {
+				desc.append(FieldAccessorGenerator.descriptor(param));
+				slots += getSize(param);
+			}
+			final Class<?> returnType = m.getReturnType();
+			desc.append(')').append(FieldAccessorGenerator.descriptor(returnType));
+			method = new FieldAccessorGenerator.Method(pool, 0x0001, m.getName(), desc.toString(), Math.max(slots, 2), slots);
+			method.code.write(0x2a); // aload_0
+			method.op(0xb4, unsafeField); // getfield
+			int slot = 1;
+			for (Class<?> param : m.getParameterTypes()) {
+				method.code.write(getLoadOp(param));
+				method.code.write(slot);
+				slot += getSize(param);
+			}
+			method.op(0xb6, pool.memberRef(10, UNSAFE, m.getName(), desc.toString())); // invokevirtual
+			method.code.write(getReturnOp(returnType));
+			methods.add(method);
+		}
+		final int code = pool.utf8("Code");
+		final int fieldName = pool.utf8("unsafe");
+		final int fieldDesc = pool.utf8(unsafeDesc);
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+		final DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0xCAFEBABE);
+		out.writeShort(0); // minor version
+		out.writeShort(49); // major version: Java 5, no stack map frames needed
+		pool.write(out);
+		out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+		out.writeShort(thisClass);
+		out.writeShort(superClass);
+		out.writeShort(0); // interfaces
+		out.writeShort(1); // fields
+		out.writeShort(0x0002 | 0x0010); // private final
+		out.writeShort(fieldName);
+		out.writeShort(fieldDesc);
+		out.writeShort(0); // attributes
+		out.writeShort(methods.size());
+		for (FieldAccessorGenerator.Method m : methods) {
+			m.write(out, code);
+		}
+		out.writeShort(0); // attributes
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static int getSize(Class<?> type) {
+		return (type == long.class || type == double.class) ? 2 : 1;
+	}
+
+	private static int getLoadOp(Class<?> type) {
+		if (!type.isPrimitive()) {
+			return 0x19; // aload
+		} else if (type == long.class) {
+			return 0x16; // lload
+		} else if (type == float.class) {
+			return 0x17; // fload
+		} else if (type == double.class) {
+			return 0x18; // dload
+		} else {
+			return 0x15; // iload
+		}
+	}
+
+	private static int getReturnOp(Class<?> type) {
+		if (type == void.class) {
+			return 0xb1; // return
+		} else if (!type.isPrimitive()) {
+			return 0xb0; // areturn
+		} else if (type == long.class) {
+			return 0xad; // lreturn
+		} else if (type == float.class) {
+			return 0xae; // freturn
+		} else if (type == double.class) {
+			return 0xaf; // dreturn
+		} else {
+			return 0xac; // ireturn
+		}
+	}
+}
@@ -7,6 +7,7 @@ import com.bergerkiller.bukkit.common.conversion.Conversion;
 import com.bergerkiller.bukkit.common.conversion.ConversionPairs;
 import com.bergerkiller.bukkit.common.reflection.ClassTemplate;
 import com.bergerkiller.bukkit.common.reflection.FieldAccessor;
+import com.bergerkiller.bukkit.common.reflection.FieldTransfer;
 import com.bergerkiller.bukkit.common.reflection.NMSClassTemplate;
 import com.bergerkiller.bukkit.common.reflection.SafeConstructor;
 import com.bergerkiller.bukkit.common.reflection.TranslatorFieldAccessor;
@@ -18,6 +19,7 @@ public class EntityRef {
 	public static final FieldAccessor<Integer> chunkX = TEMPLATE.getField("ai");
 	public static final FieldAccessor<Integer> chunkY = TEMPLATE.getField("aj");
 	public static final FieldAccessor<Integer> chunkZ = TEMPLATE.getField("ak");
+	public static final FieldTransfer replacedState = TEMPLATE.getTransfer("locX", "locY", "locZ", "ai", "aj", "ak", "world", "id", "bukkitEntity");
 	public static final FieldAccessor<Boolean> positionChanged = TEMPLATE.getField("am");
 	public static final FieldAccessor<Boolean> velocityChanged = TEMPLATE.getField("velocityChanged");
 	public static final FieldAccessor<Double> locX = TEMPLATE.getField("locX");
@@ -4,8 +4,11 @@ import org.bukkit.entity.Entity;
 
 import com.bergerkiller.bukkit.common.conversion.ConversionPairs;
 import com.bergerkiller.bukkit.common.protocol.CommonPacket;
+import com.bergerkiller.bukkit.common.reflection.BooleanFieldAccessor;
 import com.bergerkiller.bukkit.common.reflection.ClassTemplate;
+import com.bergerkiller.bukkit.common.reflection.DoubleFieldAccessor;
 import com.bergerkiller.bukkit.common.reflection.FieldAccessor;
+import com.bergerkiller.bukkit.common.reflection.FieldSnapshotReader;
 import com.bergerkiller.bukkit.common.reflection.MethodAccessor;
 import com.bergerkiller.bukkit.common.reflection.NMSClassTemplate;
 import com.bergerkiller.bukkit.common.reflection.TranslatorFieldAccessor;
@@ -14,10 +17,18 @@ public class EntityTrackerEntryRef {
 	public static final ClassTemplate<?> TEMPLATE = NMSClassTemplate.create("EntityTrackerEntry");
 	public static final TranslatorFieldAccessor<Entity> tracker = TEMPLATE.getField("tracker").translate(ConversionPairs.entity);
 	public static final TranslatorFieldAccessor<Entity> vehicle = TEMPLATE.getField("v").translate(ConversionPairs.entity);
-	public static final FieldAccessor<Boolean> synched = TEMPLATE.getField("s");
-	public static final FieldAccessor<Double> prevX = TEMPLATE.getField("p");
-	public static final FieldAccessor<Double> prevY = TEMPLATE.getField("q");
-	public static final FieldAccessor<Double> prevZ = TEMPLATE.getField("r");
+	public static final BooleanFieldAccessor synchedBoolean = TEMPLATE.getBooleanField("s");
+	public static final DoubleFieldAccessor prevXDouble = TEMPLATE.getDoubleField("p");
+	public static final DoubleFieldAccessor prevYDouble = TEMPLATE.getDoubleField("q");
+	public static final DoubleFieldAccessor prevZDouble = TEMPLATE.getDoubleField("r");
+	public static final FieldAccessor<Boolean> synched = synchedBoolean;
+	public static final FieldAccessor<Double> prevX = prevXDouble;
+	public static final FieldAccessor<Double> prevY = prevYDouble;
+	public static final FieldAccessor<Double> prevZ = prevZDouble;
+	/**
+	 * Reads synched (0) and prevX, prevY and prevZ (1 - 3)
+	 */
+	public static final FieldSnapshotReader syncState = TEMPLATE.getSnapshotReader("s", "p", "q", "r");
 	private static final MethodAccessor<Object> getSpawnPacket = TEMPLATE.getMethod("b");
 
 	public static final CommonPacket getSpawnPacket(Object instance) {
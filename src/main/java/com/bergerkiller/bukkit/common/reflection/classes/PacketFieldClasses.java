@@ -22,10 +22,13 @@ import com.bergerkiller.bukkit.common.bases.IntVector3;
 import com.bergerkiller.bukkit.common.conversion.Conversion;
 import com.bergerkiller.bukkit.common.conversion.ConversionPairs;
 import com.bergerkiller.bukkit.common.conversion.util.ConvertingList;
+import com.bergerkiller.bukkit.common.reflection.BooleanFieldAccessor;
 import com.bergerkiller.bukkit.common.reflection.FieldAccessor;
-import com.bergerkiller.bukkit.common.reflection.MethodAccessor;
+import com.bergerkiller.bukkit.common.reflection.IntFieldAccessor;
+import com.bergerkiller.bukkit.common.reflection.LongFieldAccessor;
 import com.bergerkiller.bukkit.common.reflection.NMSClassTemplate;
 import com.bergerkiller.bukkit.common.reflection.SafeConstructor;
+import com.bergerkiller.bukkit.common.reflection.SafeMethod;
 import com.bergerkiller.bukkit.common.reflection.TranslatorFieldAccessor;
 import com.bergerkiller.bukkit.common.utils.CommonUtil;
 import com.bergerkiller.bukkit.common.wrappers.DataWatcher;
@@ -33,10 +36,13 @@ import com.bergerkiller.bukkit.common.wrappers.PlayerAbilities;
 
 public class PacketFieldClasses {
 	public static class NMSPacket extends NMSClassTemplate {
-		public final FieldAccessor<Integer> packetID = getField("packetID");
-		public final FieldAccessor<Boolean> lowPriority = getField("lowPriority");
-		public final FieldAccessor<Long> timestamp = getField("timestamp");
-		private final MethodAccessor<Integer> packetSize = getMethod("a");
+		public final IntFieldAccessor packetIDInt = getIntField("packetID");
+		public final BooleanFieldAccessor lowPriorityBoolean = getBooleanField("lowPriority");
+		public final LongFieldAccessor timestampLong = getLongField("timestamp");
+		public final FieldAccessor<Integer> packetID = packetIDInt;
+		public final FieldAccessor<Boolean> lowPriority = lowPriorityBoolean;
+		public final FieldAccessor<Long> timestamp = timestampLong;
+		private final SafeMethod<Integer> packetSize = getMethod("a");
 		private final SafeConstructor<Object> constructor0 = getConstructor();
 
 		@Override
@@ -45,72 +51,72 @@ public class PacketFieldClasses {
 		}
 
 		public int getPacketSize(Object packet) {
-			return packetSize.invoke(packet);
+			return packetSize.invoke0(packet);
 		}
 	}
 	public static class NMSPacket0KeepAlive extends NMSPacket {
-		public final FieldAccessor<Integer> key = getField("a");
+		public final FieldAccessor<Integer> key = getDirectField("a");
 	}
 	public static class NMSPacket1Login extends NMSPacket {
-		public final FieldAccessor<Integer> playerId = getField("a");
-		public final TranslatorFieldAccessor<WorldType> worldType = getField("b").translate(ConversionPairs.worldType);
-		public final FieldAccessor<Boolean> hardcore = getField("c");
-		public final TranslatorFieldAccessor<GameMode> gameMode = getField("d").translate(ConversionPairs.gameMode);
-		public final FieldAccessor<Integer> dimension = getField("e");
-		public final TranslatorFieldAccessor<Difficulty> difficulty = getField("f").translate(ConversionPairs.difficulty);
-		//public final FieldAccessor<Byte> unused = getField("g");
-		public final FieldAccessor<Byte> maxPlayers = getField("h");
+		public final FieldAccessor<Integer> playerId = getDirectField("a");
+		public final TranslatorFieldAccessor<WorldType> worldType = getDirectField("b").translate(ConversionPairs.worldType);
+		public final FieldAccessor<Boolean> hardcore = getDirectField("c");
+		public final TranslatorFieldAccessor<GameMode> gameMode = getDirectField("d").translate(ConversionPairs.gameMode);
+		public final FieldAccessor<Integer> dimension = getDirectField("e");
+		public final TranslatorFieldAccessor<Difficulty> difficulty = getDirectField("f").translate(ConversionPairs.difficulty);
+		//public final FieldAccessor<Byte> unused = getDirectField("g");
+		public final FieldAccessor<Byte> maxPlayers = getDirectField("h");
 	}
 	public static class NMSPacket2Handshake extends NMSPacket {
-		public final FieldAccessor<Integer> protocolVersion = getField("a");
-		public final FieldAccessor<String> playerName = getField("b");
-		public final FieldAccessor<String> serverName = getField("c");
-		public final FieldAccessor<Integer> serverPort = getField("d");
+		public final FieldAccessor<Integer> protocolVersion = getDirectField("a");
+		public final FieldAccessor<String> playerName = getDirectField("b");
+		public final FieldAccessor<String> serverName = getDirectField("c");
+		public final FieldAccessor<Integer> serverPort = getDirectField("d");
 	}
 	public static class NMSPacket3Chat extends NMSPacket {
-		public final FieldAccessor<Boolean> isFromServer = getField("c");
-		public final FieldAccessor<String> message = getField("message");
+		public final FieldAccessor<Boolean> isFromServer = getDirectField("c");
+		public final FieldAccessor<String> message = getDirectField("message");
 	}
 	public static class NMSPacket4UpdateTime extends NMSPacket {
-		public final FieldAccessor<Long> age = getField("a");
-		public final FieldAccessor<Long> timeOfDay = getField("b");
+		public final FieldAccessor<Long> age = getDirectField("a");
+		public final FieldAccessor<Long> timeOfDay = getDirectField("b");
 	}
 	public static class NMSPacket5EntityEquipment extends NMSPacket30Entity {
-		public final FieldAccessor<Integer> slot = getField("b");
-		public final TranslatorFieldAccessor<ItemStack> item = getField("c").translate(ConversionPairs.itemStack);
+		public final FieldAccessor<Integer> slot = getDirectField("b");
+		public final TranslatorFieldAccessor<ItemStack> item = getDirectField("c").translate(ConversionPairs.itemStack);
 	}
 	public static class NMSPacket6SpawnPosition extends NMSPacket {
-		public final FieldAccessor<Integer> x = getField("x");
-		public final FieldAccessor<Integer> y = getField("y");
-		public final FieldAccessor<Integer> z = getField("z");
+		public final FieldAccessor<Integer> x = getDirectField("x");
+		public final FieldAccessor<Integer> y = getDirectField("y");
+		public final FieldAccessor<Integer> z = getDirectField("z");
 	}
 	public static class NMSPacket7UseEntity extends NMSPacket {
-		public final FieldAccessor<Integer> playerId = getField("a");
-		public final FieldAccessor<Integer> targetEntityId = getField("target");
-		public final FieldAccessor<Integer> action = getField("action");
+		public final FieldAccessor<Integer> playerId = getDirectField("a");
+		public final FieldAccessor<Integer> targetEntityId = getDirectField("target");
+		public final FieldAccessor<Integer> action = getDirectField("action");
 	}
 	public static class NMSPacket8UpdateHealth extends NMSPacket {
-		public final FieldAccessor<Short> health = getField("a");
-		public final FieldAccessor<Short> food = getField("b");
-		public final FieldAccessor<Short> foodSaturation = getField("c");
+		public final FieldAccessor<Short> health = getDirectField("a");
+		public final FieldAccessor<Short> food = getDirectField("b");
+		public final FieldAccessor<Short> foodSaturation = getDirectField("c");
 	}
 	public static class NMSPacket9Respawn extends NMSPacket {
-		public final FieldAccessor<Integer> x = getField("a");
-		public final FieldAccessor<Integer> y = getField("b");
-		public final FieldAccessor<Integer> z = getField("c");
-		public final FieldAccessor<Object> gamemode = getField("d");
-		public final FieldAccessor<Object> worldType = getField("e");
+		public final FieldAccessor<Integer> x = getDirectField("a");
+		public final FieldAccessor<Integer> y = getDirectField("b");
+		public final FieldAccessor<Integer> z = getDirectField("c");
+		public final FieldAccessor<Object> gamemode = getDirectField("d");
+		public final FieldAccessor<Object> worldType = getDirectField("e");
 	}
 	public static class NMSPacket10Flying extends NMSPacket {
-		public final FieldAccessor<Double> x = getField("a");
-		public final FieldAccessor<Double> y = getField("b");
-		public final FieldAccessor<Double> z = getField("c");
-		public final FieldAccessor<Double> stance = getField("stance");
-		public final FieldAccessor<Float> yaw = getField("yaw");
-		public final FieldAccessor<Float> pitch = getField("pitch");
-		public final FieldAccessor<Boolean> onGround = getField("g");
-		public final FieldAccessor<Boolean> hasPos = getField("hasPos");
-		public final FieldAccessor<Boolean> hasLook = getField("hasLook");
+		public final FieldAccessor<Double> x = getDirectField("a");
+		public final FieldAccessor<Double> y = getDirectField("b");
+		public final FieldAccessor<Double> z = getDirectField("c");
+		public final FieldAccessor<Double> stance = getDirectField("stance");
+		public final FieldAccessor<Float> yaw = getDirectField("yaw");
+		public final FieldAccessor<Float> pitch = getDirectField("pitch");
+		public final FieldAccessor<Boolean> onGround = getDirectField("g");
+		public final FieldAccessor<Boolean> hasPos = getDirectField("hasPos");
+		public final FieldAccessor<Boolean> hasLook = getDirectField("hasLook");
 	}
 	public static class NMSPacket11PlayerPosition extends NMSPacket10Flying {
 	}
@@ -119,24 +125,24 @@ public class PacketFieldClasses {
 	public static class NMSPacket13PlayerLookMove extends NMSPacket10Flying {
 	}
 	public static class NMSPacket14BlockDig extends NMSPacket {
-		public final FieldAccessor<Integer> x = getField("a");
-		public final FieldAccessor<Integer> y = getField("b");
-		public final FieldAccessor<Integer> z = getField("c");
-		public final FieldAccessor<Integer> face = getField("face");
-		public final FieldAccessor<Integer> status = getField("e");
+		public final FieldAccessor<Integer> x = getDirectField("a");
+		public final FieldAccessor<Integer> y = getDirectField("b");
+		public final FieldAccessor<Integer> z = getDirectField("c");
+		public final FieldAccessor<Integer> face = getDirectField("face");
+		public final FieldAccessor<Integer> status = getDirectField("e");
 	}
 	public static class NMSPacket15Place extends NMSPacket {
-		public final FieldAccessor<Integer> x = getField("a");
-		public final FieldAccessor<Integer> y = getField("b");
-		public final FieldAccessor<Integer> z = getField("c");
-		public final FieldAccessor<Integer> direction = getField("d");
-		public final FieldAccessor<ItemStack> itemStack = getField("e").translate(ConversionPairs.itemStack);
-		public final FieldAccessor<Float> cursorX = getField("f");
-		public final FieldAccessor<Float> cursorY = getField("g");
-		public final FieldAccessor<Float> cursorZ = getField("h");
+		public final FieldAccessor<Integer> x = getDirectField("a");
+		public final FieldAccessor<Integer> y = getDirectField("b");
+		public final FieldAccessor<Integer> z = getDirectField("c");
+		public final FieldAccessor<Integer> direction = getDirectField("d");
+		public final FieldAccessor<ItemStack> itemStack = getDirectField("e").translate(ConversionPairs.itemStack);
+		public final FieldAccessor<Float> cursorX = getDirectField("f");
+		public final FieldAccessor<Float> cursorY = getDirectField("g");
+		public final FieldAccessor<Float> cursorZ = getDirectField("h");
 	}
 	public static class NMSPacket16BlockItemSwitch extends NMSPacket {
-		public final FieldAccessor<Integer> itemInHandIndex = getField("itemInHandIndex");
+		public final FieldAccessor<Integer> itemInHandIndex = getDirectField("itemInHandIndex");
 		private final SafeConstructor<Object> constructor1 = getConstructor(int.class);
 		
 		public Object newInstance(int itemInHandIndex) {
@@ -144,42 +150,42 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket17EntityLocationAction extends NMSPacket30Entity {
-		//public final FieldAccessor<Integer> unused = getField("b");
-		public final FieldAccessor<Integer> blockX = getField("c");
-		public final FieldAccessor<Integer> blockY = getField("d");
-		public final FieldAccessor<Integer> blockZ = getField("e");
+		//public final FieldAccessor<Integer> unused = getDirectField("b");
+		public final FieldAccessor<Integer> blockX = getDirectField("c");
+		public final FieldAccessor<Integer> blockY = getDirectField("d");
+		public final FieldAccessor<Integer> blockZ = getDirectField("e");
 	}
 	public static class NMSPacket18ArmAnimation extends NMSPacket30Entity {
-		public final FieldAccessor<Integer> animation = getField("b");
+		public final FieldAccessor<Integer> animation = getDirectField("b");
 	}
 	public static class NMSPacket19EntityAction extends NMSPacket30Entity {
-		public final FieldAccessor<Integer> animation = getField("animation");
+		public final FieldAccessor<Integer> animation = getDirectField("animation");
 	}
 	public static class NMSPacket20NamedEntitySpawn extends NMSPacket30Entity {
-		public final FieldAccessor<String> entityName = getField("b");
-		public final FieldAccessor<Integer> x = getField("c");
-		public final FieldAccessor<Integer> y = getField("d");
-		public final FieldAccessor<Integer> z = getField("e");
-		public final FieldAccessor<Byte> yaw = getField("f");
-		public final FieldAccessor<Byte> pitch = getField("g");
-		public final FieldAccessor<Integer> heldItemId = getField("h");
-		public final TranslatorFieldAccessor<DataWatcher> dataWatcher = getField("i").translate(ConversionPairs.dataWatcher);
+		public final FieldAccessor<String> entityName = getDirectField("b");
+		public final FieldAccessor<Integer> x = getDirectField("c");
+		public final FieldAccessor<Integer> y = getDirectField("d");
+		public final FieldAccessor<Integer> z = getDirectField("e");
+		public final FieldAccessor<Byte> yaw = getDirectField("f");
+		public final FieldAccessor<Byte> pitch = getDirectField("g");
+		public final FieldAccessor<Integer> heldItemId = getDirectField("h");
+		public final TranslatorFieldAccessor<DataWatcher> dataWatcher = getDirectField("i").translate(ConversionPairs.dataWatcher);
 	}
 	public static class NMSPacket22Collect extends NMSPacket {
-		public final FieldAccessor<Integer> collectedItemId = getField("a");
-		public final FieldAccessor<Integer> collectorEntityId = getField("b");
+		public final FieldAccessor<Integer> collectedItemId = getDirectField("a");
+		public final FieldAccessor<Integer> collectorEntityId = getDirectField("b");
 	}
 	public static class NMSPacket23VehicleSpawn extends NMSPacket30Entity {
-		public final FieldAccessor<Integer> entityType = getField("j");
-		public final FieldAccessor<Integer> x = getField("b");
-		public final FieldAccessor<Integer> y = getField("c");
-		public final FieldAccessor<Integer> z = getField("d");
-		public final FieldAccessor<Byte> yaw = getField("h");
-		public final FieldAccessor<Byte> pitch = getField("i");
-		public final FieldAccessor<Integer> extraData = getField("k");
-		public final FieldAccessor<Integer> motX = getField("e");
-		public final FieldAccessor<Integer> motY = getField("f");
-		public final FieldAccessor<Integer> motZ = getField("g");
+		public final FieldAccessor<Integer> entityType = getDirectField("j");
+		public final FieldAccessor<Integer> x = getDirectField("b");
+		public final FieldAccessor<Integer> y = getDirectField("c");
+		public final FieldAccessor<Integer> z = getDirectField("d");
+		public final FieldAccessor<Byte> yaw = getDirectField("h");
+		public final FieldAccessor<Byte> pitch = getDirectField("i");
+		public final FieldAccessor<Integer> extraData = getDirectField("k");
+		public final FieldAccessor<Integer> motX = getDirectField("e");
+		public final FieldAccessor<Integer> motY = getDirectField("f");
+		public final FieldAccessor<Integer> motZ = getDirectField("g");
 		private final SafeConstructor<Object> constructor1 = getConstructor(EntityRef.TEMPLATE.getType(), int.class);
 
 		public Object newInstance(org.bukkit.entity.Entity entity, int type) {
@@ -187,39 +193,39 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket24MobSpawn extends NMSPacket30Entity {
-		public final FieldAccessor<Integer> entityType = getField("b");
-		public final FieldAccessor<Integer> x = getField("c");
-		public final FieldAccessor<Integer> y = getField("d");
-		public final FieldAccessor<Integer> z = getField("e");
-		public final FieldAccessor<Integer> motX = getField("f");
-		public final FieldAccessor<Integer> motY = getField("g");
-		public final FieldAccessor<Integer> motZ = getField("h");
-		public final FieldAccessor<Byte> yaw = getField("i");
-		public final FieldAccessor<Byte> pitch = getField("j");
-		public final FieldAccessor<Byte> headYaw = getField("k");
-		public final TranslatorFieldAccessor<DataWatcher> dataWatcher = getField("s").translate(ConversionPairs.dataWatcher);
+		public final FieldAccessor<Integer> entityType = getDirectField("b");
+		public final FieldAccessor<Integer> x = getDirectField("c");
+		public final FieldAccessor<Integer> y = getDirectField("d");
+		public final FieldAccessor<Integer> z = getDirectField("e");
+		public final FieldAccessor<Integer> motX = getDirectField("f");
+		public final FieldAccessor<Integer> motY = getDirectField("g");
+		public final FieldAccessor<Integer> motZ = getDirectField("h");
+		public final FieldAccessor<Byte> yaw = getDirectField("i");
+		public final FieldAccessor<Byte> pitch = getDirectField("j");
+		public final FieldAccessor<Byte> headYaw = getDirectField("k");
+		public final TranslatorFieldAccessor<DataWatcher> dataWatcher = getDirectField("s").translate(ConversionPairs.dataWatcher);
 		private final SafeConstructor<Object> constructor1 = getConstructor(CommonUtil.getNMSClass("EntityLiving"));
 		public Object newInstance(Object entityLiving) {
 			return constructor1.newInstance(entityLiving);
 		}
 	}
 	public static class NMSPacket25EntityPainting extends NMSPacket30Entity {
-		public final FieldAccessor<Integer> x = getField("b");
-		public final FieldAccessor<Integer> y = getField("c");
-		public final FieldAccessor<Integer> z = getField("d");
-		public final FieldAccessor<BlockFace> facing = getField("e").translate(ConversionPairs.paintingFacing);
-		public final FieldAccessor<String> art = getField("f");
+		public final FieldAccessor<Integer> x = getDirectField("b");
+		public final FieldAccessor<Integer> y = getDirectField("c");
+		public final FieldAccessor<Integer> z = getDirectField("d");
+		public final FieldAccessor<BlockFace> facing = getDirectField("e").translate(ConversionPairs.paintingFacing);
+		public final FieldAccessor<String> art = getDirectField("f");
 	}
 	public static class NMSPacket26AddExpOrb extends NMSPacket30Entity {
-		public final FieldAccessor<Integer> x = getField("b");
-		public final FieldAccessor<Integer> y = getField("c");
-		public final FieldAccessor<Integer> z = getField("d");
-		public final FieldAccessor<Integer> experience = getField("e");
+		public final FieldAccessor<Integer> x = getDirectField("b");
+		public final FieldAccessor<Integer> y = getDirectField("c");
+		public final FieldAccessor<Integer> z = getDirectField("d");
+		public final FieldAccessor<Integer> experience = getDirectField("e");
 	}
 	public static class NMSPacket28EntityVelocity extends NMSPacket30Entity {
-		public final FieldAccessor<Integer> motX = getField("b");
-		public final FieldAccessor<Integer> motY = getField("c");
-		public final FieldAccessor<Integer> motZ = getField("d");
+		public final FieldAccessor<Integer> motX = getDirectField("b");
+		public final FieldAccessor<Integer> motY = getDirectField("c");
+		public final FieldAccessor<Integer> motZ = getDirectField("d");
 		private final SafeConstructor<Object> constructor1 = getConstructor(EntityRef.TEMPLATE.getType());
 		private final SafeConstructor<Object> constructor2 = getConstructor(int.class, double.class, double.class, double.class);
 
@@ -234,7 +240,7 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket29DestroyEntity extends NMSPacket {
-		public final FieldAccessor<int[]> entityIds = getField("a");
+		public final FieldAccessor<int[]> entityIds = getDirectField("a");
 		private final SafeConstructor<Object> constructor1 = getConstructor(int[].class);
 
 		public Object newInstance(int... entityIds) {
@@ -249,12 +255,12 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket30Entity extends NMSPacket {
-		public final FieldAccessor<Integer> entityId = getField("a");
+		public final FieldAccessor<Integer> entityId = getDirectField("a");
 	}
 	public static class NMSPacket31RelEntityMove extends NMSPacket30Entity {
-		public final FieldAccessor<Byte> dx = getField("b");
-		public final FieldAccessor<Byte> dy = getField("c");
-		public final FieldAccessor<Byte> dz = getField("d");
+		public final FieldAccessor<Byte> dx = getDirectField("b");
+		public final FieldAccessor<Byte> dy = getDirectField("c");
+		public final FieldAccessor<Byte> dz = getDirectField("d");
 		private final SafeConstructor<Object> constructor1 = getConstructor(int.class, byte.class, byte.class, byte.class);
 
 		public Object newInstance(int entityId, byte dx, byte dy, byte dz) {
@@ -262,8 +268,8 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket32EntityLook extends NMSPacket30Entity {
-		public final FieldAccessor<Byte> dyaw = getField("e");
-		public final FieldAccessor<Byte> dpitch = getField("f");
+		public final FieldAccessor<Byte> dyaw = getDirectField("e");
+		public final FieldAccessor<Byte> dpitch = getDirectField("f");
 		private final SafeConstructor<Object> constructor1 = getConstructor(int.class, byte.class, byte.class);
 
 		public Object newInstance(int entityId, byte dyaw, byte dpitch) {
@@ -271,11 +277,11 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket33RelEntityMoveLook extends NMSPacket30Entity {
-		public final FieldAccessor<Byte> dx = getField("b");
-		public final FieldAccessor<Byte> dy = getField("c");
-		public final FieldAccessor<Byte> dz = getField("d");
-		public final FieldAccessor<Byte> dyaw = getField("e");
-		public final FieldAccessor<Byte> dpitch = getField("f");
+		public final FieldAccessor<Byte> dx = getDirectField("b");
+		public final FieldAccessor<Byte> dy = getDirectField("c");
+		public final FieldAccessor<Byte> dz = getDirectField("d");
+		public final FieldAccessor<Byte> dyaw = getDirectField("e");
+		public final FieldAccessor<Byte> dpitch = getDirectField("f");
 		private final SafeConstructor<Object> constructor1 = getConstructor(int.class, byte.class, byte.class, byte.class, byte.class, byte.class);
 
 		public Object newInstance(int entityId, byte dx, byte dy, byte dz, byte dyaw, byte dpitch) {
@@ -283,11 +289,11 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket34EntityTeleport extends NMSPacket30Entity {
-		public final FieldAccessor<Integer> x = getField("b");
-		public final FieldAccessor<Integer> y = getField("c");
-		public final FieldAccessor<Integer> z = getField("d");
-		public final FieldAccessor<Byte> yaw = getField("e");
-		public final FieldAccessor<Byte> pitch = getField("f");
+		public final FieldAccessor<Integer> x = getDirectField("b");
+		public final FieldAccessor<Integer> y = getDirectField("c");
+		public final FieldAccessor<Integer> z = getDirectField("d");
+		public final FieldAccessor<Byte> yaw = getDirectField("e");
+		public final FieldAccessor<Byte> pitch = getDirectField("f");
 		private final SafeConstructor<Object> constructor1 = getConstructor(EntityRef.TEMPLATE.getType());
 		private final SafeConstructor<Object> constructor2 = getConstructor(int.class, int.class, int.class, int.class, byte.class, byte.class);
 
@@ -299,14 +305,14 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket35EntityHeadRotation extends NMSPacket30Entity {
-		public final FieldAccessor<Byte> headYaw = getField("b");
+		public final FieldAccessor<Byte> headYaw = getDirectField("b");
 	}
 	public static class NMSPacket38EntityStatus extends NMSPacket30Entity {
-		public final FieldAccessor<Byte> status = getField("b");
+		public final FieldAccessor<Byte> status = getDirectField("b");
 	}
 	public static class NMSPacket39AttachEntity extends NMSPacket {
-		public final FieldAccessor<Integer> passengerId = getField("a");
-		public final FieldAccessor<Integer> vehicleId = getField("b");
+		public final FieldAccessor<Integer> passengerId = getDirectField("a");
+		public final FieldAccessor<Integer> vehicleId = getDirectField("b");
 		private final SafeConstructor<Object> constructor1 = getConstructor(EntityRef.TEMPLATE.getType(), EntityRef.TEMPLATE.getType());
 
 		public Object newInstance(org.bukkit.entity.Entity passenger, org.bukkit.entity.Entity vehicle) {
@@ -314,10 +320,10 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket40EntityMetadata extends NMSPacket {
-		public final FieldAccessor<Integer> passengerId = getField("a");
+		public final FieldAccessor<Integer> passengerId = getDirectField("a");
 		/** CraftBukkit uses rawtypes for this, so do we */
 		@SuppressWarnings("rawtypes")
-		public final FieldAccessor<List> watchedObjects = getField("b");
+		public final FieldAccessor<List> watchedObjects = getDirectField("b");
 		private final SafeConstructor<Object> constructor1 = getConstructor(int.class, DataWatcherRef.TEMPLATE.getType(), boolean.class);
 
 		public Object newInstance(int entityId, DataWatcher dataWatcher, boolean sendUnchangedData) {
@@ -325,9 +331,9 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket41MobEffect extends NMSPacket30Entity {
-		public final FieldAccessor<Byte> effectId = getField("b");
-		public final FieldAccessor<Byte> effectAmplifier = getField("c");
-		public final FieldAccessor<Short> effectDuration = getField("d");
+		public final FieldAccessor<Byte> effectId = getDirectField("b");
+		public final FieldAccessor<Byte> effectAmplifier = getDirectField("c");
+		public final FieldAccessor<Short> effectDuration = getDirectField("d");
 		private final SafeConstructor<Object> constructor1 = getConstructor(int.class, CommonUtil.getNMSClass("MobEffect"));
 
 		public Object newInstance(int entityId, Object mobEffect) {
@@ -335,7 +341,7 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket42RemoveMobEffect extends NMSPacket30Entity {
-		public final FieldAccessor<Byte> effectId = getField("b");
+		public final FieldAccessor<Byte> effectId = getDirectField("b");
 		private final SafeConstructor<Object> constructor1 = getConstructor(int.class, CommonUtil.getNMSClass("MobEffect"));
 
 		public Object newInstance(int entityId, Object mobEffect) {
@@ -345,14 +351,14 @@ public class PacketFieldClasses {
 	public static class NMSPacket43SetExperience extends NMSPacket {
 	}
 	public static class NMSPacket51MapChunk extends NMSPacket {
-		public final FieldAccessor<Integer> size = getField("size");
-		public final FieldAccessor<byte[]> buffer = getField("buffer");
-		public final FieldAccessor<byte[]> inflatedBuffer = getField("inflatedBuffer");
-		public final FieldAccessor<Boolean> hasBiomeData = getField("e");
-		public final FieldAccessor<Integer> x = getField("a");
-		public final FieldAccessor<Integer> z = getField("b");
-		public final FieldAccessor<Integer> chunkDataBitMap = getField("c");
-		public final FieldAccessor<Integer> chunkBiomeBitMap = getField("d");
+		public final FieldAccessor<Integer> size = getDirectField("size");
+		public final FieldAccessor<byte[]> buffer = getDirectField("buffer");
+		public final FieldAccessor<byte[]> inflatedBuffer = getDirectField("inflatedBuffer");
+		public final FieldAccessor<Boolean> hasBiomeData = getDirectField("e");
+		public final FieldAccessor<Integer> x = getDirectField("a");
+		public final FieldAccessor<Integer> z = getDirectField("b");
+		public final FieldAccessor<Integer> chunkDataBitMap = getDirectField("c");
+		public final FieldAccessor<Integer> chunkBiomeBitMap = getDirectField("d");
 		private final SafeConstructor<Object> constructor1 = getConstructor(CommonUtil.getNMSClass("Chunk"), boolean.class, int.class);
 
 		public Object newInstance(Object chunk) {
@@ -363,38 +369,58 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket52MultiBlockChange extends NMSPacket {
-		public final FieldAccessor<Integer> chunkX = getField("a");
-		public final FieldAccessor<Integer> chunkZ = getField("b");
-		public final FieldAccessor<Integer> blockCount = getField("d");
-		public final FieldAccessor<byte[]> blockData = getField("e");
+		public final FieldAccessor<Integer> chunkX = getDirectField("a");
+		public final FieldAccessor<Integer> chunkZ = getDirectField("b");
+		public final FieldAccessor<Integer> blockCount = getDirectField("d");
+		public final FieldAccessor<byte[]> blockData = getDirectField("e");
+		private final SafeConstructor<Object> constructor1 = getConstructor(int.class, int.class, short[].class, int.class, CommonUtil.getNMSClass("World"));
+
+		/**
+		 * Constructs a new multi-block change packet containing the current block types and data
+		 * 
+		 * @param world the chunk is in
+		 * @param chunkX of the chunk
+		 * @param chunkZ of the chunk
+		 * @param blocks changed, each encoded as (x << 12 | z << 8 | y) with x and z relative to the chunk
+		 * @param blockCount amount of blocks in the blocks array to use
+		 * @return new packet
+		 */
+		public Object newInstance(World world, int chunkX, int chunkZ, short[] blocks, int blockCount) {
+			return constructor1.newInstance(chunkX, chunkZ, blocks, blockCount, Conversion.toWorldHandle.convert(world));
+		}
 	}
 	public static class NMSPacket53BlockChange extends NMSPacket {
-		public final FieldAccessor<Integer> x = getField("a");
-		public final FieldAccessor<Integer> y = getField("b");
-		public final FieldAccessor<Integer> z = getField("c");
-		public final FieldAccessor<Integer> typeId = getField("material");
-		public final FieldAccessor<Integer> data = getField("data");
+		public final FieldAccessor<Integer> x = getDirectField("a");
+		public final FieldAccessor<Integer> y = getDirectField("b");
+		public final FieldAccessor<Integer> z = getDirectField("c");
+		public final FieldAccessor<Integer> typeId = getDirectField("material");
+		public final FieldAccessor<Integer> data = getDirectField("data");
+		private final SafeConstructor<Object> constructor1 = getConstructor(int.class, int.class, int.class, CommonUtil.getNMSClass("World"));
+
+		public Object newInstance(World world, int x, int y, int z) {
+			return constructor1.newInstance(x, y, z, Conversion.toWorldHandle.convert(world));
+		}
 	}
 	public static class NMSPacket54PlayNoteBlock extends NMSPacket {
-		public final FieldAccessor<Integer> x = getField("a");
-		public final FieldAccessor<Integer> y = getField("b");
-		public final FieldAccessor<Integer> z = getField("c");
-		public final FieldAccessor<Integer> arg1 = getField("d");
-		public final FieldAccessor<Integer> arg2 = getField("e");
-		public final FieldAccessor<Integer> typeId = getField("f");
+		public final FieldAccessor<Integer> x = getDirectField("a");
+		public final FieldAccessor<Integer> y = getDirectField("b");
+		public final FieldAccessor<Integer> z = getDirectField("c");
+		public final FieldAccessor<Integer> arg1 = getDirectField("d");
+		public final FieldAccessor<Integer> arg2 = getDirectField("e");
+		public final FieldAccessor<Integer> typeId = getDirectField("f");
 	}
 	public static class NMSPacket55BlockBreakAnimation extends NMSPacket {
 	}
 	public static class NMSPacket56MapChunkBulk extends NMSPacket {
-		public final FieldAccessor<int[]> bulk_x = getField("c");
-		public final FieldAccessor<int[]> bulk_z = getField("d");
-		public final FieldAccessor<int[]> bulk_chunkDataBitMap = getField("a");
-		public final FieldAccessor<int[]> bulk_chunkBiomeBitMap = getField("b");
-		public final FieldAccessor<byte[][]> inflatedBuffers = getField("inflatedBuffers");
-		public final FieldAccessor<byte[]> buildBuffer = getField("buildBuffer");
-		public final FieldAccessor<byte[]> deflatedData = getField("buffer");
-		public final FieldAccessor<Integer> deflatedSize = getField("size");
-		public final FieldAccessor<Boolean> hasSkyLight = getField("h");
+		public final FieldAccessor<int[]> bulk_x = getDirectField("c");
+		public final FieldAccessor<int[]> bulk_z = getDirectField("d");
+		public final FieldAccessor<int[]> bulk_chunkDataBitMap = getDirectField("a");
+		public final FieldAccessor<int[]> bulk_chunkBiomeBitMap = getDirectField("b");
+		public final FieldAccessor<byte[][]> inflatedBuffers = getDirectField("inflatedBuffers");
+		public final FieldAccessor<byte[]> buildBuffer = getDirectField("buildBuffer");
+		public final FieldAccessor<byte[]> deflatedData = getDirectField("buffer");
+		public final FieldAccessor<Integer> deflatedSize = getDirectField("size");
+		public final FieldAccessor<Boolean> hasSkyLight = getDirectField("h");
 		private final SafeConstructor<Object> constructor1 = getConstructor(List.class);
 
 		public Object newInstance(List<Chunk> chunks) {
@@ -402,14 +428,14 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket60Explosion extends NMSPacket {
-		public final FieldAccessor<Double> x = getField("a");
-		public final FieldAccessor<Double> y = getField("b");
-		public final FieldAccessor<Double> z = getField("c");
-		public final FieldAccessor<Float> radius = getField("d");
-		public final FieldAccessor<List<Object>> blocks = getField("e");
-		public final FieldAccessor<Float> pushMotX = getField("f");
-		public final FieldAccessor<Float> pushMotY = getField("g");
-		public final FieldAccessor<Float> pushMotZ = getField("h");
+		public final FieldAccessor<Double> x = getDirectField("a");
+		public final FieldAccessor<Double> y = getDirectField("b");
+		public final FieldAccessor<Double> z = getDirectField("c");
+		public final FieldAccessor<Float> radius = getDirectField("d");
+		public final FieldAccessor<List<Object>> blocks = getDirectField("e");
+		public final FieldAccessor<Float> pushMotX = getDirectField("f");
+		public final FieldAccessor<Float> pushMotY = getDirectField("g");
+		public final FieldAccessor<Float> pushMotZ = getDirectField("h");
 		private final SafeConstructor<Object> constructor1 = getConstructor(double.class, double.class, double.class, float.class, List.class, Vec3D.class);
 
 		@SuppressWarnings("unchecked")
@@ -427,81 +453,81 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket61WorldEvent extends NMSPacket {
-		public final FieldAccessor<Integer> effectId = getField("a");
-		public final FieldAccessor<Integer> x = getField("c");
-		public final FieldAccessor<Integer> y = getField("d");
-		public final FieldAccessor<Integer> z = getField("e");
-		public final FieldAccessor<Integer> data = getField("b");
-		public final FieldAccessor<Boolean> noRelativeVolume = getField("f");
+		public final FieldAccessor<Integer> effectId = getDirectField("a");
+		public final FieldAccessor<Integer> x = getDirectField("c");
+		public final FieldAccessor<Integer> y = getDirectField("d");
+		public final FieldAccessor<Integer> z = getDirectField("e");
+		public final FieldAccessor<Integer> data = getDirectField("b");
+		public final FieldAccessor<Boolean> noRelativeVolume = getDirectField("f");
 	}
 	public static class NMSPacket62NamedSoundEffect extends NMSPacket {
-		public final FieldAccessor<String> soundName = getField("a");
-		public final FieldAccessor<Integer> x = getField("b");
-		public final FieldAccessor<Integer> y = getField("c");
-		public final FieldAccessor<Integer> z = getField("d");
-		public final FieldAccessor<Float> volume = getField("e");
-		public final FieldAccessor<Integer> pitch = getField("f");
+		public final FieldAccessor<String> soundName = getDirectField("a");
+		public final FieldAccessor<Integer> x = getDirectField("b");
+		public final FieldAccessor<Integer> y = getDirectField("c");
+		public final FieldAccessor<Integer> z = getDirectField("d");
+		public final FieldAccessor<Float> volume = getDirectField("e");
+		public final FieldAccessor<Integer> pitch = getDirectField("f");
 	}
 	public static class NMSPacket70Bed extends NMSPacket {
-		public final FieldAccessor<Integer> reason = getField("b");
-		public final FieldAccessor<Integer> gamemode = getField("c");
+		public final FieldAccessor<Integer> reason = getDirectField("b");
+		public final FieldAccessor<Integer> gamemode = getDirectField("c");
 	}
 	public static class NMSPacket71Weather extends NMSPacket30Entity {
-		public final FieldAccessor<Integer> type = getField("e");
-		public final FieldAccessor<Integer> x = getField("b");
-		public final FieldAccessor<Integer> y = getField("c");
-		public final FieldAccessor<Integer> z = getField("d");
+		public final FieldAccessor<Integer> type = getDirectField("e");
+		public final FieldAccessor<Integer> x = getDirectField("b");
+		public final FieldAccessor<Integer> y = getDirectField("c");
+		public final FieldAccessor<Integer> z = getDirectField("d");
 	}
 	public static class NMSPacket100OpenWindow extends NMSPacket {
-		public final FieldAccessor<Integer> windowId = getField("a");
-		public final FieldAccessor<Integer> type = getField("b");
-		public final FieldAccessor<String> title = getField("c");
-		public final FieldAccessor<Integer> slotCount = getField("d");
-		public final FieldAccessor<Boolean> newVersion = getField("newVersion");
+		public final FieldAccessor<Integer> windowId = getDirectField("a");
+		public final FieldAccessor<Integer> type = getDirectField("b");
+		public final FieldAccessor<String> title = getDirectField("c");
+		public final FieldAccessor<Integer> slotCount = getDirectField("d");
+		public final FieldAccessor<Boolean> newVersion = getDirectField("newVersion");
 	}
 	public static class NMSPacket101CloseWindow extends NMSPacket {
-		public final FieldAccessor<Integer> windowId = getField("a");
+		public final FieldAccessor<Integer> windowId = getDirectField("a");
 	}
 	public static class NMSPacket102WindowClick extends NMSPacket {
-		public final FieldAccessor<Integer> windowId = getField("a");
-		public final FieldAccessor<Integer> slot = getField("slot");
-		public final FieldAccessor<Integer> button = getField("button");
-		public final FieldAccessor<Short> action = getField("d");
-		public final FieldAccessor<ItemStack> item = getField("item").translate(ConversionPairs.itemStack);
-		public final FieldAccessor<Integer> shift = getField("shift");
+		public final FieldAccessor<Integer> windowId = getDirectField("a");
+		public final FieldAccessor<Integer> slot = getDirectField("slot");
+		public final FieldAccessor<Integer> button = getDirectField("button");
+		public final FieldAccessor<Short> action = getDirectField("d");
+		public final FieldAccessor<ItemStack> item = getDirectField("item").translate(ConversionPairs.itemStack);
+		public final FieldAccessor<Integer> shift = getDirectField("shift");
 	}
 	public static class NMSPacket103SetSlot extends NMSPacket {
-		public final FieldAccessor<Integer> windowId = getField("a");
-		public final FieldAccessor<Integer> slot = getField("b");
-		public final FieldAccessor<ItemStack> item = getField("c").translate(ConversionPairs.itemStack);
+		public final FieldAccessor<Integer> windowId = getDirectField("a");
+		public final FieldAccessor<Integer> slot = getDirectField("b");
+		public final FieldAccessor<ItemStack> item = getDirectField("c").translate(ConversionPairs.itemStack);
 	}
 	public static class NMSPacket104WindowItems extends NMSPacket {
-		public final FieldAccessor<Integer> windowId = getField("a");
-		public final FieldAccessor<ItemStack[]> items = getField("b").translate(ConversionPairs.itemStackArr);
+		public final FieldAccessor<Integer> windowId = getDirectField("a");
+		public final FieldAccessor<ItemStack[]> items = getDirectField("b").translate(ConversionPairs.itemStackArr);
 	}
 	public static class NMSPacket105CraftProgressBar extends NMSPacket {
-		public final FieldAccessor<Integer> windowId = getField("a");
-		public final FieldAccessor<Integer> count = getField("b");
-		public final FieldAccessor<Integer> data = getField("c");
+		public final FieldAccessor<Integer> windowId = getDirectField("a");
+		public final FieldAccessor<Integer> count = getDirectField("b");
+		public final FieldAccessor<Integer> data = getDirectField("c");
 	}
 	public static class NMSPacket106Transaction extends NMSPacket {
-		public final FieldAccessor<Integer> windowId = getField("a");
-		public final FieldAccessor<Short> action = getField("b");
-		public final FieldAccessor<Boolean> accapted = getField("c");
+		public final FieldAccessor<Integer> windowId = getDirectField("a");
+		public final FieldAccessor<Short> action = getDirectField("b");
+		public final FieldAccessor<Boolean> accapted = getDirectField("c");
 	}
 	public static class NMSPacket107SetCreativeSlot extends NMSPacket {
-		public final FieldAccessor<Integer> slot = getField("a");
-		public final FieldAccessor<ItemStack> clicked = getField("b").translate(ConversionPairs.itemStack);
+		public final FieldAccessor<Integer> slot = getDirectField("a");
+		public final FieldAccessor<ItemStack> clicked = getDirectField("b").translate(ConversionPairs.itemStack);
 	}
 	public static class NMSPacket108ButtonClick extends NMSPacket {
-		public final FieldAccessor<Integer> windowId = getField("a");
-		public final FieldAccessor<Integer> enchantment = getField("b");
+		public final FieldAccessor<Integer> windowId = getDirectField("a");
+		public final FieldAccessor<Integer> enchantment = getDirectField("b");
 	}
 	public static class NMSPacket130UpdateSign extends NMSPacket {
-		public final FieldAccessor<Integer> x = getField("x");
-		public final FieldAccessor<Integer> y = getField("y");
-		public final FieldAccessor<Integer> z = getField("z");
-		public final FieldAccessor<String[]> lines = getField("lines");
+		public final FieldAccessor<Integer> x = getDirectField("x");
+		public final FieldAccessor<Integer> y = getDirectField("y");
+		public final FieldAccessor<Integer> z = getDirectField("z");
+		public final FieldAccessor<String[]> lines = getDirectField("lines");
 		private final SafeConstructor<Object> constructor1 = getConstructor(int.class, int.class, int.class, String[].class);
 
 		public Block getBlock(Object packetInstance, World world) {
@@ -519,33 +545,33 @@ public class PacketFieldClasses {
 		}
 	}
 	public static class NMSPacket131ItemData extends NMSPacket {
-		public final FieldAccessor<Integer> type = getField("a");
-		public final FieldAccessor<Integer> itemId = getField("b");
-		public final FieldAccessor<byte[]> text = getField("c");
+		public final FieldAccessor<Integer> type = getDirectField("a");
+		public final FieldAccessor<Integer> itemId = getDirectField("b");
+		public final FieldAccessor<byte[]> text = getDirectField("c");
 	}
 	public static class NMSPacket132TileEntityData extends NMSPacket {
-		public final FieldAccessor<Integer> x = getField("a");
-		public final FieldAccessor<Integer> y = getField("b");
-		public final FieldAccessor<Integer> z = getField("c");
-		public final FieldAccessor<Integer> action = getField("d");
-		public final FieldAccessor<Object> data = getField("e");
+		public final FieldAccessor<Integer> x = getDirectField("a");
+		public final FieldAccessor<Integer> y = getDirectField("b");
+		public final FieldAccessor<Integer> z = getDirectField("c");
+		public final FieldAccessor<Integer> action = getDirectField("d");
+		public final FieldAccessor<Object> data = getDirectField("e");
 	}
 	public static class NMSPacket200Statistic extends NMSPacket {
-		public final FieldAccessor<Integer> id = getField("a");
-		public final FieldAccessor<Integer> amount = getField("b");
+		public final FieldAccessor<Integer> id = getDirectField("a");
+		public final FieldAccessor<Integer> amount = getDirectField("b");
 	}
 	public static class NMSPacket201PlayerInfo extends NMSPacket {
-		public final FieldAccessor<String> playerName = getField("a");
-		public final FieldAccessor<Boolean> online = getField("b");
-		public final FieldAccessor<Integer> ping = getField("c");
+		public final FieldAccessor<String> playerName = getDirectField("a");
+		public final FieldAccessor<Boolean> online = getDirectField("b");
+		public final FieldAccessor<Integer> ping = getDirectField("c");
 	}
 	public static class NMSPacket202Abilities extends NMSPacket {
-		public final FieldAccessor<Boolean> isInvulnerable = getField("a");
-		public final FieldAccessor<Boolean> isFlying = getField("b");
-		public final FieldAccessor<Boolean> canFly = getField("c");
-		public final FieldAccessor<Boolean> canInstantlyBuild = getField("d");
-		public final FieldAccessor<Float> flySpeed = getField("e");
-		public final FieldAccessor<Float> walkSpeed = getField("f");
+		public final FieldAccessor<Boolean> isInvulnerable = getDirectField("a");
+		public final FieldAccessor<Boolean> isFlying = getDirectField("b");
+		public final FieldAccessor<Boolean> canFly = getDirectField("c");
+		public final FieldAccessor<Boolean> canInstantlyBuild = getDirectField("d");
+		public final FieldAccessor<Float> flySpeed = getDirectField("e");
+		public final FieldAccessor<Float> walkSpeed = getDirectField("f");
 		private final SafeConstructor<Object> constructor1 = getConstructor(PlayerAbilitiesRef.TEMPLATE.getType());
 
 		public Object newInstance(PlayerAbilities abilities) {
@@ -555,35 +581,35 @@ public class PacketFieldClasses {
 	public static class NMSPacket203TabComplete extends NMSPacket {
 	}
 	public static class NMSPacket204LocaleAndViewDistance extends NMSPacket {
-		public final FieldAccessor<String> locale = getField("a");
-		public final FieldAccessor<Integer> viewDistance = getField("b");
-		public final FieldAccessor<Integer> chatFlags = getField("c");
-		public final FieldAccessor<Boolean> chatColorsEnabled = getField("d");
-		public final TranslatorFieldAccessor<Difficulty> difficulty = getField("e").translate(ConversionPairs.difficulty);
-		public final FieldAccessor<Boolean> showCape = getField("f");
+		public final FieldAccessor<String> locale = getDirectField("a");
+		public final FieldAccessor<Integer> viewDistance = getDirectField("b");
+		public final FieldAccessor<Integer> chatFlags = getDirectField("c");
+		public final FieldAccessor<Boolean> chatColorsEnabled = getDirectField("d");
+		public final TranslatorFieldAccessor<Difficulty> difficulty = getDirectField("e").translate(ConversionPairs.difficulty);
+		public final FieldAccessor<Boolean> showCape = getDirectField("f");
 	}
 	public static class NMSPacket205ClientCommand extends NMSPacket {
-		public final FieldAccessor<Integer> payload = getField("a");
+		public final FieldAccessor<Integer> payload = getDirectField("a");
 	}
 	public static class NMSPacket250CustomPayload extends NMSPacket {
-		public final FieldAccessor<String> tag = getField("tag");
-		public final FieldAccessor<Integer> length = getField("length");
-		public final FieldAccessor<byte[]> data = getField("data");
+		public final FieldAccessor<String> tag = getDirectField("tag");
+		public final FieldAccessor<Integer> length = getDirectField("length");
+		public final FieldAccessor<byte[]> data = getDirectField("data");
 	}
 	public static class NMSPacket252KeyResponse extends NMSPacket {
-		public final FieldAccessor<byte[]> sharedSecret = getField("a");
-		public final FieldAccessor<byte[]> tokenResponse = getField("b");
-		public final FieldAccessor<SecretKey> secretKey = getField("c");
+		public final FieldAccessor<byte[]> sharedSecret = getDirectField("a");
+		public final FieldAccessor<byte[]> tokenResponse = getDirectField("b");
+		public final FieldAccessor<SecretKey> secretKey = getDirectField("c");
 	}
 	public static class NMSPacket253KeyRequest extends NMSPacket {
-		public final FieldAccessor<String> serverId = getField("a");
-		public final FieldAccessor<PublicKey> publicKey = getField("b");
-		public final FieldAccessor<byte[]> verifyToken = getField("c");
+		public final FieldAccessor<String> serverId = getDirectField("a");
+		public final FieldAccessor<PublicKey> publicKey = getDirectField("b");
+		public final FieldAccessor<byte[]> verifyToken = getDirectField("c");
 	}
 	public static class NMSPacket254GetInfo extends NMSPacket {
-		public final FieldAccessor<Integer> magic = getField("a");
+		public final FieldAccessor<Integer> magic = getDirectField("a");
 	}
 	public static class NMSPacket255KickDisconnect extends NMSPacket {
-		public final FieldAccessor<String> reason = getField("a");
+		public final FieldAccessor<String> reason = getDirectField("a");
 	}
 }
@@ -8,17 +8,21 @@ import com.bergerkiller.bukkit.common.internal.CommonNMS;
 import com.bergerkiller.bukkit.common.protocol.CommonPacket;
 import com.bergerkiller.bukkit.common.reflection.ClassTemplate;
 import com.bergerkiller.bukkit.common.reflection.FieldAccessor;
-import com.bergerkiller.bukkit.common.reflection.MethodAccessor;
+import com.bergerkiller.bukkit.common.reflection.IntFieldAccessor;
 import com.bergerkiller.bukkit.common.reflection.NMSClassTemplate;
+import com.bergerkiller.bukkit.common.reflection.SafeMethod;
 import com.bergerkiller.bukkit.common.reflection.TranslatorFieldAccessor;
 
 public class TileEntityRef {
 	public static final ClassTemplate<?> TEMPLATE = NMSClassTemplate.create("TileEntity");
 	public static final TranslatorFieldAccessor<World> world = TEMPLATE.getField("world").translate(ConversionPairs.world);
-	public static final FieldAccessor<Integer> x = TEMPLATE.getField("x");
-	public static final FieldAccessor<Integer> y = TEMPLATE.getField("y");
-	public static final FieldAccessor<Integer> z = TEMPLATE.getField("z");
-	private static final MethodAccessor<Object> getUpdatePacket = TEMPLATE.getMethod("getUpdatePacket");
+	public static final IntFieldAccessor xInt = TEMPLATE.getIntField("x");
+	public static final IntFieldAccessor yInt = TEMPLATE.getIntField("y");
+	public static final IntFieldAccessor zInt = TEMPLATE.getIntField("z");
+	public static final FieldAccessor<Integer> x = xInt;
+	public static final FieldAccessor<Integer> y = yInt;
+	public static final FieldAccessor<Integer> z = zInt;
+	private static final SafeMethod<Object> getUpdatePacket = TEMPLATE.getMethod("getUpdatePacket");
 
 	public static Object get(Block block) {
 		return get(block.getWorld(), block.getX(), block.getY(), block.getZ());
@@ -29,7 +33,7 @@ public class TileEntityRef {
 	}
 
 	public static CommonPacket getUpdatePacket(Object tileEntity) {
-		final Object packet = getUpdatePacket.invoke(tileEntity);
+		final Object packet = getUpdatePacket.invoke0(tileEntity);
 		return packet == null ? null : new CommonPacket(packet);
 	}
 }
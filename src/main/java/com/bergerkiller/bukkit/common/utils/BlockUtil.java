@@ -342,9 +342,9 @@ public class BlockUtil extends MaterialUtil {
 			int zMax = z + radiusZ;
 			int tx, ty, tz;
 			for (Object tile : WorldRef.tileEntityList.get(Conversion.toWorldHandle.convert(world))) {
-				tx = TileEntityRef.x.get(tile);
-				ty = TileEntityRef.y.get(tile);
-				tz = TileEntityRef.z.get(tile);
+				tx = TileEntityRef.xInt.getInt(tile);
+				ty = TileEntityRef.yInt.getInt(tile);
+				tz = TileEntityRef.zInt.getInt(tile);
 				if (tx < xMin || ty < yMin || tz < zMin || tx > xMax || ty > yMax || tz > zMax) {
 					continue;
 				}
@@ -116,6 +116,7 @@ public class ChunkUtil {
 		}
 		ChunkSectionRef.setTypeId(section, x, y, z, typeId);
 		ChunkSectionRef.setData(section, x, y, z, data);
+		CommonPlugin.getInstance().notifyChunkChanged(chunk);
 	}
 
 	/**
@@ -140,6 +141,7 @@ public class ChunkUtil {
 		}
 		if (result) {
 			world.applyPhysics(x, y, z, typeId);
+			CommonPlugin.getInstance().notifyChunkChanged(chunk);
 		}
 		return result;
 	}
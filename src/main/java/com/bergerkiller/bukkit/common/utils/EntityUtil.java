@@ -73,19 +73,11 @@ public class EntityUtil extends EntityPropertyUtil {
 	public static void setEntity(org.bukkit.entity.Entity toreplace, org.bukkit.entity.Entity with, Object entityTrackerEntry) {
 		final Entity replacedHndl = CommonNMS.getNative(toreplace);
 		final Entity withHndl = CommonNMS.getNative(with);
-		// transfer important information
-		withHndl.locX = replacedHndl.locX;
-		withHndl.locY = replacedHndl.locY;
-		withHndl.locZ = replacedHndl.locZ;
-		EntityRef.chunkX.transfer(replacedHndl, withHndl);
-		EntityRef.chunkY.transfer(replacedHndl, withHndl);
-		EntityRef.chunkZ.transfer(replacedHndl, withHndl);
-		withHndl.world = replacedHndl.world;
-		withHndl.id = replacedHndl.id;
+		// transfer important information: position, chunk, world, id and the Bukkit entity
+		EntityRef.replacedState.transfer(replacedHndl, withHndl);
 		replacedHndl.dead = true;
 		withHndl.dead = false;
 		// Bukkit entity
-		EntityRef.bukkitEntity.transfer(replacedHndl, withHndl);
 		((CraftEntity) Conversion.toEntity.convert(withHndl)).setHandle(withHndl);
 		// Passenger
 		if (replacedHndl.passenger != null) {
@@ -1,20 +1,26 @@
 package com.bergerkiller.bukkit.common.utils;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
-import net.minecraft.server.v1_4_R1.Packet;
-
 import org.bukkit.Location;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 import com.bergerkiller.bukkit.common.internal.CommonPlugin;
+import com.bergerkiller.bukkit.common.protocol.AsyncPacketListener;
 import com.bergerkiller.bukkit.common.protocol.CommonPacket;
 import com.bergerkiller.bukkit.common.protocol.PacketFields;
+import com.bergerkiller.bukkit.common.protocol.PacketFilter;
 import com.bergerkiller.bukkit.common.protocol.PacketType;
 import com.bergerkiller.bukkit.common.protocol.PacketListener;
+import com.bergerkiller.bukkit.common.protocol.PacketListenerTiming;
+import com.bergerkiller.bukkit.common.protocol.PacketReplay;
 
 public class PacketUtil {
 	private static final Map<Class<?>, Integer> packetsToIds = PacketFields.DEFAULT.<Map<Class<?>, Integer>>getField("a").get(null);
@@ -44,15 +50,19 @@ public class PacketUtil {
 	}
 
 	public static void broadcastChunkPacket(org.bukkit.Chunk chunk, Object packet, boolean throughListeners) {
-		if (chunk == null || packet == null) {
+		if (chunk == null) {
 			return;
 		}
+		broadcastChunkPacket(chunk.getWorld(), chunk.getX(), chunk.getZ(), packet, throughListeners);
+	}
 
-		for (Player player : WorldUtil.getPlayers(chunk.getWorld())) {
-			if (EntityUtil.isNearChunk(player, chunk.getX(), chunk.getZ(), CommonUtil.VIEW)) {
-				sendPacket(player, packet, throughListeners);
-			}
+	public static void broadcastChunkPacket(org.bukkit.World world, final int chunkX, final int chunkZ, Object packet, boolean throughListeners) {
+		if (world == null || packet == null) {
+			return;
 		}
+
+		final CommonPlugin plugin = CommonPlugin.getInstance();
+		plugin.broadcastPacket(plugin.getPlayersNearChunk(world, chunkX, chunkZ, CommonUtil.VIEW), packet, throughListeners);
 	}
 
 	public static void broadcastBlockPacket(Block block, Object packet, boolean throughListeners) {
@@ -63,20 +73,63 @@ public class PacketUtil {
 		if (world == null || packet == null) {
 			return;
 		}
-		for (Player player : WorldUtil.getPlayers(world)) {
-			if (EntityUtil.isNearBlock(player, x, z, CommonUtil.BLOCKVIEW)) {
-				sendPacket(player, packet, throughListeners);
+		if (throughListeners && CommonPlugin.getInstance().isBlockChangeCoalescing() && PacketFields.BLOCK_CHANGE.isInstance(packet)) {
+			// Only coalesce block changes that show the actual block, as the world is read again when sending
+			final int y = PacketFields.BLOCK_CHANGE.y.get(packet);
+			if (PacketFields.BLOCK_CHANGE.typeId.get(packet) == world.getBlockTypeIdAt(x, y, z)
+					&& PacketFields.BLOCK_CHANGE.data.get(packet) == world.getBlockAt(x, y, z).getData()) {
+				queueBlockChange(world, x, y, z);
+				return;
 			}
 		}
+		final CommonPlugin plugin = CommonPlugin.getInstance();
+		plugin.broadcastPacket(plugin.getPlayersNearBlock(world, x, z, CommonUtil.BLOCKVIEW), packet, throughListeners);
+	}
+
+	/**
+	 * Queues a changed block to be sent to all nearby players at the end of the current tick.
+	 * Multiple changes in the same chunk are combined into a single packet.
+	 * The block type and data are read from the world when the changes are sent.
+	 * 
+	 * @param block that changed
+	 */
+	public static void queueBlockChange(Block block) {
+		queueBlockChange(block.getWorld(), block.getX(), block.getY(), block.getZ());
+	}
+
+	/**
+	 * Queues a changed block to be sent to all nearby players at the end of the current tick.
+	 * Multiple changes in the same chunk are combined into a single packet.
+	 * The block type and data are read from the world when the changes are sent.
+	 * 
+	 * @param world the block is in
+	 * @param x - coordinate of the block
+	 * @param y - coordinate of the block
+	 * @param z - coordinate of the block
+	 */
+	public static void queueBlockChange(org.bukkit.World world, int x, int y, int z) {
+		CommonPlugin.getInstance().queueBlockChange(world, x, y, z);
 	}
 
 	public static void broadcastPacket(Object packet, boolean throughListeners) {
-		for (Player player : CommonUtil.getOnlinePlayers()) {
-			sendPacket(player, packet, throughListeners);
-		}
+		CommonPlugin.getInstance().broadcastPacket(new ArrayList<Player>(CommonUtil.getOnlinePlayers()), packet, throughListeners);
 	}
 
 	public static void addPacketListener(Plugin plugin, PacketListener listener, PacketType... packets) {
+		addPacketListener(plugin, listener, null, packets);
+	}
+
+	/**
+	 * Registers a packet listener that only handles the packets accepted by a filter.
+	 * The filter is evaluated on the raw packet before any packet event is created,
+	 * so packets rejected for all listeners cost no event at all.
+	 * 
+	 * @param plugin owning the listener
+	 * @param listener to register
+	 * @param filter deciding which packets the listener handles, null to handle all packets
+	 * @param packets to register the listener for
+	 */
+	public static void addPacketListener(Plugin plugin, PacketListener listener, PacketFilter filter, PacketType... packets) {
 		if (listener == null || LogicUtil.nullOrEmpty(packets)) {
 			return;
 		}
@@ -88,7 +141,51 @@ public class PacketUtil {
 				ids[i] = packets[i].getId();
 			}
 		}
-		CommonPlugin.getInstance().addPacketListener(plugin, listener, ids);
+		CommonPlugin.getInstance().addPacketListener(plugin, listener, ids, filter);
+	}
+
+	/**
+	 * Registers an asynchronous listener that observes snapshots of the packet types specified on a worker thread
+	 * 
+	 * @param plugin owning the listener
+	 * @param listener to register
+	 * @param packets types to listen for
+	 */
+	public static void addAsyncPacketListener(Plugin plugin, AsyncPacketListener listener, PacketType... packets) {
+		if (listener == null || LogicUtil.nullOrEmpty(packets)) {
+			return;
+		}
+		int[] ids = new int[packets.length];
+		for (int i = 0; i < packets.length; i++) {
+			if (packets[i] == null) {
+				throw new IllegalArgumentException("Can not register a null packet type");
+			} else {
+				ids[i] = packets[i].getId();
+			}
+		}
+		CommonPlugin.getInstance().addAsyncPacketListener(plugin, listener, ids);
+	}
+
+	public static void removeAsyncPacketListener(AsyncPacketListener listener) {
+		CommonPlugin.getInstance().removeAsyncPacketListener(listener);
+	}
+
+	/**
+	 * Gets the amount of packet snapshots waiting to be handled by asynchronous packet listeners
+	 * 
+	 * @return asynchronous packet queue size
+	 */
+	public static int getAsyncPacketQueueSize() {
+		return CommonPlugin.getInstance().getAsyncPacketQueueSize();
+	}
+
+	/**
+	 * Gets the total amount of packet snapshots dropped because the asynchronous packet queue was full
+	 * 
+	 * @return dropped packet count
+	 */
+	public static long getAsyncPacketDropCount() {
+		return CommonPlugin.getInstance().getAsyncPacketDropCount();
 	}
 
 	public static void removePacketListeners(Plugin plugin) {
@@ -96,7 +193,7 @@ public class PacketUtil {
 	}
 
 	public static void removePacketListener(PacketListener listener) {
-		CommonPlugin.getInstance().removePacketListener(listener, true);
+		CommonPlugin.getInstance().removePacketListener(listener);
 	}
 
 	public static void broadcastPacketNearby(Location location, double radius, Object packet) {
@@ -104,7 +201,8 @@ public class PacketUtil {
 	}
 
 	public static void broadcastPacketNearby(org.bukkit.World world, double x, double y, double z, double radius, Object packet) {
-		CommonUtil.getCraftServer().getHandle().sendPacketNearby(x, y, z, radius, WorldUtil.getDimension(world), (Packet) packet);
+		final CommonPlugin plugin = CommonPlugin.getInstance();
+		plugin.broadcastPacket(plugin.getPlayersNearby(world, x, y, z, radius), packet, true);
 	}
 
 	/**
@@ -128,4 +226,143 @@ public class PacketUtil {
 	public static Collection<Plugin> getListenerPlugins(int packetId) {
 		return CommonPlugin.getInstance().getListening(packetId);
 	}
+
+	/**
+	 * Sets whether packets broadcast to multiple players are encoded only once and shared by all players.
+	 * This is only done for packets of which all listeners are a {@link com.bergerkiller.bukkit.common.protocol.GlobalPacketListener GlobalPacketListener},
+	 * those listeners are then called once for all players.
+	 * 
+	 * @param shared option to set to
+	 */
+	public static void setSharingBroadcasts(boolean shared) {
+		CommonPlugin.getInstance().setSharingBroadcasts(shared);
+	}
+
+	/**
+	 * Checks whether packets broadcast to multiple players are encoded only once and shared by all players
+	 * 
+	 * @return True if broadcasts are shared, False if not
+	 */
+	public static boolean isSharingBroadcasts() {
+		return CommonPlugin.getInstance().isSharingBroadcasts();
+	}
+
+	/**
+	 * Starts recording all sent and received packets to a binary capture file, stopping any previous capture.
+	 * Packets are recorded before the packet listeners handle them.
+	 * The capture can be fed through the packet listeners again using {@link PacketReplay}.
+	 * 
+	 * @param file to record to
+	 * @throws IOException if the file could not be opened
+	 */
+	public static void startPacketCapture(File file) throws IOException {
+		CommonPlugin.getInstance().startPacketCapture(file);
+	}
+
+	/**
+	 * Stops recording packets and closes the capture file
+	 */
+	public static void stopPacketCapture() {
+		CommonPlugin.getInstance().stopPacketCapture();
+	}
+
+	/**
+	 * Checks whether sent and received packets are being recorded to a capture file
+	 * 
+	 * @return True if recording, False if not
+	 */
+	public static boolean isCapturingPackets() {
+		return CommonPlugin.getInstance().isCapturingPackets();
+	}
+
+	/**
+	 * Sets whether the amount of packets and bytes sent to every player is counted.
+	 * Disabling bandwidth accounting clears all counted traffic.
+	 * 
+	 * @param enabled state to set to
+	 */
+	public static void setBandwidthAccountingEnabled(boolean enabled) {
+		CommonPlugin.getInstance().setBandwidthAccountingEnabled(enabled);
+	}
+
+	/**
+	 * Gets whether the amount of packets and bytes sent to every player is counted
+	 * 
+	 * @return True if bandwidth accounting is enabled, False if not
+	 */
+	public static boolean isBandwidthAccountingEnabled() {
+		return CommonPlugin.getInstance().isBandwidthAccountingEnabled();
+	}
+
+	/**
+	 * Gets the amount of bytes sent to a player during the last seconds.
+	 * Requires bandwidth accounting to be enabled.
+	 * 
+	 * @param player to get the sent bytes of, null for all online players
+	 * @param packetType to get the sent bytes of, null for all packet types
+	 * @param seconds window length, between 1 and 60 (for example 1, 10 or 60)
+	 * @return amount of bytes sent
+	 */
+	public static long getSentBytes(Player player, PacketType packetType, int seconds) {
+		return CommonPlugin.getInstance().getSentBytes(player, packetType == null ? -1 : packetType.getId(), seconds);
+	}
+
+	/**
+	 * Gets the amount of packets sent to a player during the last seconds.
+	 * Requires bandwidth accounting to be enabled.
+	 * 
+	 * @param player to get the sent packets of, null for all online players
+	 * @param packetType to get the sent packets of, null for all packet types
+	 * @param seconds window length, between 1 and 60 (for example 1, 10 or 60)
+	 * @return amount of packets sent
+	 */
+	public static long getSentPackets(Player player, PacketType packetType, int seconds) {
+		return CommonPlugin.getInstance().getSentPackets(player, packetType == null ? -1 : packetType.getId(), seconds);
+	}
+
+	/**
+	 * Sets whether the time spent by packet listeners handling packets is measured.
+	 * The measured timings can be obtained using {@link #getListenerTimings()}.
+	 * 
+	 * @param enabled state to set to
+	 */
+	public static void setListenerTimingsEnabled(boolean enabled) {
+		CommonPlugin.getInstance().setListenerTimingsEnabled(enabled);
+	}
+
+	/**
+	 * Gets whether the time spent by packet listeners handling packets is measured
+	 * 
+	 * @return True if listener timings are enabled, False if not
+	 */
+	public static boolean isListenerTimingsEnabled() {
+		return CommonPlugin.getInstance().isListenerTimingsEnabled();
+	}
+
+	/**
+	 * Sets the interval at which handled packets are sampled for measuring listener timings.
+	 * Higher intervals reduce the overhead of measuring on busy servers.
+	 * 
+	 * @param interval to set to, 1 to measure every packet
+	 */
+	public static void setListenerTimingsInterval(int interval) {
+		CommonPlugin.getInstance().setListenerTimingsInterval(interval);
+	}
+
+	/**
+	 * Obtains the measured packet listener timings of every plugin and packet type.
+	 * Only the packets sampled while timings were enabled are included.
+	 * 
+	 * @return listener timings, sorted by total time spent (highest first)
+	 */
+	public static List<PacketListenerTiming> getListenerTimings() {
+		return CommonPlugin.getInstance().getListenerTimings();
+	}
+
+	/**
+	 * Resets all measured packet listener timings back to zero
+	 */
+	public static void resetListenerTimings() {
+		CommonPlugin.getInstance().resetListenerTimings();
+	}
 }
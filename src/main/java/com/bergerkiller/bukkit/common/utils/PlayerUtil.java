@@ -6,6 +6,7 @@ import org.bukkit.entity.Player;
 import com.bergerkiller.bukkit.common.bases.IntVector2;
 import com.bergerkiller.bukkit.common.conversion.Conversion;
 import com.bergerkiller.bukkit.common.internal.CommonNMS;
+import com.bergerkiller.bukkit.common.internal.CommonPlugin;
 import com.bergerkiller.bukkit.common.reflection.ClassTemplate;
 import com.bergerkiller.bukkit.common.reflection.FieldAccessor;
 import com.bergerkiller.bukkit.common.reflection.MethodAccessor;
@@ -35,6 +36,57 @@ public class PlayerUtil extends EntityUtil {
 		return connection == null || PlayerConnectionRef.disconnected.get(connection);
 	}
 
+	/**
+	 * Gets the amount of bytes waiting to be sent to a player.
+	 * This grows when the client can not keep up with the data sent to it.
+	 * 
+	 * @param player to get it of
+	 * @return queued bytes
+	 */
+	public static int getQueuedBytes(Player player) {
+		return CommonPlugin.getInstance().getQueuedBytes(player);
+	}
+
+	/**
+	 * Gets the amount of packets waiting to be sent to a player
+	 * 
+	 * @param player to get it of
+	 * @return queued packet count
+	 */
+	public static int getQueuedPackets(Player player) {
+		return CommonPlugin.getInstance().getQueuedPackets(player);
+	}
+
+	/**
+	 * Gets the average amount of bytes waiting to be sent to a player, sampled every tick
+	 * 
+	 * @param player to get it of
+	 * @return average queued bytes
+	 */
+	public static double getAverageQueuedBytes(Player player) {
+		return CommonPlugin.getInstance().getAverageQueuedBytes(player);
+	}
+
+	/**
+	 * Gets the most amount of bytes sampled waiting to be sent to a player since the player joined
+	 * 
+	 * @param player to get it of
+	 * @return peak queued bytes
+	 */
+	public static int getPeakQueuedBytes(Player player) {
+		return CommonPlugin.getInstance().getPeakQueuedBytes(player);
+	}
+
+	/**
+	 * Checks whether more data is waiting to be sent to a player than the configured congestion threshold
+	 * 
+	 * @param player to check
+	 * @return True if the connection of the player is congested, False if not
+	 */
+	public static boolean isCongested(Player player) {
+		return CommonPlugin.getInstance().isCongested(player);
+	}
+
 	/**
 	 * Adds the chunk coordinates of the chunk specified to the player chunk sending queue
 	 * 
@@ -0,0 +1,124 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+import junit.framework.TestCase;
+
+/**
+ * Loads the classes generated by {@link FieldAccessorGenerator} and accesses fields through them
+ */
+public class FieldAccessorGeneratorTest extends TestCase {
+
+	public static class Target {
+		public int i;
+		public long l;
+		public double d;
+		public boolean z;
+		public byte b;
+		public short s;
+		public float f;
+		public char c;
+		public String str;
+		public int[] arr;
+		private int priv;
+		public final int fin = 3;
+		public static int stat;
+	}
+
+	private static <T> GeneratedFieldAccessor<T> generate(SafeField<T> field) {
+		final GeneratedFieldAccessor<T> accessor = FieldAccessorGenerator.generate(field);
+		assertNotNull("No accessor generated for " + field.getName(), accessor);
+		assertTrue(accessor.getClass().getName().startsWith("com.bergerkiller.bukkit.common.reflection.generated."));
+		return accessor;
+	}
+
+	public void testObjectFields() {
+		final Target target = new Target();
+		final GeneratedFieldAccessor<String> str = generate(new SafeField<String>(Target.class, "str"));
+		assertTrue(str.set(target, "value"));
+		assertEquals("value", target.str);
+		assertEquals("value", str.get(target));
+
+		final int[] arr = {1, 2};
+		final GeneratedFieldAccessor<int[]> array = generate(new SafeField<int[]>(Target.class, "arr"));
+		assertTrue(array.set(target, arr));
+		assertSame(arr, target.arr);
+		assertSame(arr, array.get(target));
+	}
+
+	public void testBoxedFields() {
+		final Target target = new Target();
+		final GeneratedFieldAccessor<Object> i = generate(new SafeField<Object>(Target.class, "i"));
+		assertTrue(i.set(target, Integer.valueOf(5)));
+		assertEquals(5, target.i);
+		assertEquals(Integer.valueOf(5), i.get(target));
+
+		final GeneratedFieldAccessor<Object> c = generate(new SafeField<Object>(Target.class, "c"));
+		assertTrue(c.set(target, Character.valueOf('x')));
+		assertEquals('x', target.c);
+		assertEquals(Character.valueOf('x'), c.get(target));
+
+		// Widening is not done by the generated class, but by the reflection fallback
+		final GeneratedFieldAccessor<Object> l = generate(new SafeField<Object>(Target.class, "l"));
+		assertTrue(l.set(target, Integer.valueOf(42)));
+		assertEquals(42L, target.l);
+	}
+
+	public void testPrimitiveFields() {
+		final Target target = new Target();
+		final IntFieldAccessor i = (IntFieldAccessor) generate(new PrimitiveFields.IntField(Target.class, "i"));
+		final LongFieldAccessor l = (LongFieldAccessor) generate(new PrimitiveFields.LongField(Target.class, "l"));
+		final DoubleFieldAccessor d = (DoubleFieldAccessor) generate(new PrimitiveFields.DoubleField(Target.class, "d"));
+		final BooleanFieldAccessor z = (BooleanFieldAccessor) generate(new PrimitiveFields.BooleanField(Target.class, "z"));
+		final ByteFieldAccessor b = (ByteFieldAccessor) generate(new PrimitiveFields.ByteField(Target.class, "b"));
+		final ShortFieldAccessor s = (ShortFieldAccessor) generate(new PrimitiveFields.ShortField(Target.class, "s"));
+		final FloatFieldAccessor f = (FloatFieldAccessor) generate(new PrimitiveFields.FloatField(Target.class, "f"));
+		assertTrue(i.setInt(target, 5));
+		assertTrue(l.setLong(target, 1L << 40));
+		assertTrue(d.setDouble(target, 2.25));
+		assertTrue(z.setBoolean(target, true));
+		assertTrue(b.setByte(target, (byte) 7));
+		assertTrue(s.setShort(target, (short) 300));
+		assertTrue(f.setFloat(target, 1.5f));
+		assertEquals(5, target.i);
+		assertEquals(1L << 40, target.l);
+		assertEquals(2.25, target.d, 0.0);
+		assertTrue(target.z);
+		assertEquals(7, target.b);
+		assertEquals(300, target.s);
+		assertEquals(1.5f, target.f, 0.0f);
+		assertEquals(5, i.getInt(target));
+		assertEquals(1L << 40, l.getLong(target));
+		assertEquals(2.25, d.getDouble(target), 0.0);
+		assertTrue(z.getBoolean(target));
+		assertEquals(7, b.getByte(target));
+		assertEquals(300, s.getShort(target));
+		assertEquals(1.5f, f.getFloat(target), 0.0f);
+	}
+
+	public void testWrongInstance() {
+		final LongFieldAccessor l = (LongFieldAccessor) generate(new PrimitiveFields.LongField(Target.class, "l"));
+		// Handled by the reflection fallback, which logs the problem and returns the default
+		assertEquals(0L, l.getLong("wrong"));
+		assertFalse(l.setLong(null, 1L));
+	}
+
+	public void testProfiledPrimitiveFields() {
+		final Target target = new Target();
+		final PrimitiveFields.DoubleField field = new PrimitiveFields.DoubleField(Target.class, "d");
+		final DoubleFieldAccessor d = (DoubleFieldAccessor) generate(field);
+		ReflectionProfiler.setEnabled(true);
+		try {
+			assertTrue(d.setDouble(target, 4.5));
+			assertEquals(4.5, d.getDouble(target), 0.0);
+		} finally {
+			ReflectionProfiler.setEnabled(false);
+		}
+		assertEquals(2L, ReflectionProfiler.getProfile("Field", field).getCalls());
+		assertEquals(4.5, target.d, 0.0);
+	}
+
+	public void testNotGenerated() {
+		assertNull(FieldAccessorGenerator.generate(new SafeField<Integer>(Target.class, "priv")));
+		assertNull(FieldAccessorGenerator.generate(new SafeField<Integer>(Target.class, "fin")));
+		assertNull(FieldAccessorGenerator.generate(new SafeField<Integer>(Target.class, "stat")));
+	}
+}
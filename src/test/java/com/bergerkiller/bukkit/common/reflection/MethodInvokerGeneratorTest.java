@@ -0,0 +1,133 @@
+package com.bergerkiller.bukkit.common.reflection;
+
+import java.lang.reflect.InvocationTargetException;
+
+import junit.framework.TestCase;
+
+/**
+ * Loads the classes generated by {@link MethodInvokerGenerator} and invokes methods through them
+ */
+public class MethodInvokerGeneratorTest extends TestCase {
+
+	public static interface Sized {
+		int size();
+	}
+
+	public static class Target implements Sized {
+		public int calls = 0;
+		public int value = 5;
+
+		public int get() {
+			calls++;
+			return value;
+		}
+
+		public boolean matches(String text, int a, int b) {
+			calls++;
+			return text.length() == a + b;
+		}
+
+		public static long twice(long value) {
+			return value * 2;
+		}
+
+		public void set(double value) {
+			calls++;
+			this.value = (int) value;
+		}
+
+		public int size() {
+			return 42;
+		}
+
+		public Object fail() {
+			calls++;
+			throw new IllegalStateException("fail");
+		}
+
+		public Object failChecked() throws Exception {
+			calls++;
+			throw new Exception("fail");
+		}
+
+		private int hidden() {
+			return 1;
+		}
+	}
+
+	private static GeneratedMethodInvoker generate(SafeMethod<?> method) {
+		final GeneratedMethodInvoker invoker = MethodInvokerGenerator.generate(method);
+		assertTrue("No invoker generated for " + method.getName(),
+				invoker.getClass().getName().startsWith("com.bergerkiller.bukkit.common.reflection.generated."));
+		return invoker;
+	}
+
+	public void testInvoke() {
+		final Target target = new Target();
+		assertEquals(Integer.valueOf(5), generate(new SafeMethod<Integer>(Target.class, "get")).invoke0(target));
+		assertEquals(1, target.calls);
+
+		final GeneratedMethodInvoker matches = generate(new SafeMethod<Boolean>(Target.class, "matches", String.class, int.class, int.class));
+		assertEquals(Boolean.TRUE, matches.invoke3(target, "abc", 1, 2));
+		assertEquals(Boolean.FALSE, matches.invoke3(target, "abc", 1, 1));
+
+		assertNull(generate(new SafeMethod<Void>(Target.class, "set", double.class)).invoke1(target, 7.0));
+		assertEquals(7, target.value);
+	}
+
+	public void testStaticAndInterface() {
+		assertEquals(Long.valueOf(42L), generate(new SafeMethod<Long>(Target.class, "twice", long.class)).invoke1(null, 21L));
+		assertEquals(Integer.valueOf(42), generate(new SafeMethod<Integer>(Sized.class, "size")).invoke0(new Target()));
+	}
+
+	public void testWrongArguments() {
+		final Target target = new Target();
+		final GeneratedMethodInvoker get = generate(new SafeMethod<Integer>(Target.class, "get"));
+		final GeneratedMethodInvoker set = generate(new SafeMethod<Void>(Target.class, "set", double.class));
+		// Handled by the reflection fallback, which throws a descriptive exception
+		try {
+			get.invoke0(null);
+			fail("Null instance accepted");
+		} catch (IllegalArgumentException ex) {
+		}
+		try {
+			get.invoke0("wrong");
+			fail("Wrong instance accepted");
+		} catch (IllegalArgumentException ex) {
+		}
+		try {
+			set.invoke1(target, "wrong");
+			fail("Wrong argument accepted");
+		} catch (IllegalArgumentException ex) {
+		}
+		try {
+			get.invoke1(target, 1);
+			fail("Wrong amount of arguments accepted");
+		} catch (IllegalArgumentException ex) {
+		}
+		assertEquals(0, target.calls);
+	}
+
+	public void testMethodException() {
+		final Target target = new Target();
+		final GeneratedMethodInvoker[] invokers = {generate(new SafeMethod<Object>(Target.class, "fail")),
+				generate(new SafeMethod<Object>(Target.class, "failChecked"))};
+		for (GeneratedMethodInvoker invoker : invokers) {
+			try {
+				invoker.invoke0(target);
+				fail("Exception not thrown");
+			} catch (RuntimeException ex) {
+				// Wrapped the same way as SafeMethod.invoke does, and not retried using reflection
+				assertTrue(ex.getCause() instanceof InvocationTargetException);
+				assertEquals("fail", ex.getCause().getCause().getMessage());
+			}
+		}
+		assertEquals(2, target.calls);
+	}
+
+	public void testNotGenerated() {
+		final GeneratedMethodInvoker hidden = MethodInvokerGenerator.generate(new SafeMethod<Integer>(Target.class, "hidden"));
+		assertFalse(hidden.getClass().getName().startsWith("com.bergerkiller.bukkit.common.reflection.generated."));
+		assertEquals(Integer.valueOf(1), hidden.invoke0(new Target()));
+	}
+}